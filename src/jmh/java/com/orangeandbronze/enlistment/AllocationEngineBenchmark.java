@@ -0,0 +1,73 @@
+package com.orangeandbronze.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllocationEngineBenchmark {
+    static final int STUDENTS = 20_000;
+    static final int SUBJECTS = 90;
+    static final int SECTIONS_PER_SUBJECT = 6;
+    static final int CART_SIZE = 5;
+    // about one section in ten is popular enough to be contested, the rest can seat everyone who asks
+    static final int POPULAR_CAPACITY = 30;
+    static final int AMPLE_CAPACITY = 300;
+    static final int[][] PERIODS = {{830, 1000}, {1000, 1130}, {1130, 1300}, {1300, 1430}, {1430, 1600}, {1600, 1730}};
+
+    @Param({"1", "2", "4", "8"})
+    int threads;
+
+    List<AllocationRequest> requests;
+
+    // a fresh catalog per iteration since allocating fills the sections
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Random random = new Random(1);
+        List<Subject> subjects = new ArrayList<>();
+        for (int i = 0; i < SUBJECTS; i++) {
+            subjects.add(new Subject("SUBJ" + i, 3));
+        }
+        DegreeProgram program = new DegreeProgram("PROGRAM", subjects);
+        // subject i always meets in slot i % 18 (3 Days patterns x 6 ninety-minute periods)
+        List<List<Section>> sectionsBySlot = new ArrayList<>();
+        for (int slot = 0; slot < 18; slot++) {
+            sectionsBySlot.add(new ArrayList<>());
+        }
+        for (int i = 0; i < SUBJECTS; i++) {
+            int slot = i % 18;
+            int[] period = PERIODS[slot / 3];
+            Schedule schedule = new Schedule(Days.values()[slot % 3], new Period(period[0], period[1]));
+            for (int j = 0; j < SECTIONS_PER_SUBJECT; j++) {
+                int capacity = random.nextInt(10) == 0 ? POPULAR_CAPACITY : AMPLE_CAPACITY;
+                sectionsBySlot.get(slot).add(new Section("S" + i + "x" + j, schedule, new Room("R" + i + "x" + j, capacity), subjects.get(i)));
+            }
+        }
+        requests = new ArrayList<>();
+        for (int number = 1; number <= STUDENTS; number++) {
+            List<Integer> slots = new ArrayList<>();
+            for (int slot = 0; slot < 18; slot++) {
+                slots.add(slot);
+            }
+            Collections.shuffle(slots, random);
+            List<Section> cart = new ArrayList<>();
+            for (int slot : slots.subList(0, CART_SIZE)) {
+                List<Section> candidates = sectionsBySlot.get(slot);
+                cart.add(candidates.get(random.nextInt(candidates.size())));
+            }
+            requests.add(new AllocationRequest(new Student(number, Collections.emptyList(), program), cart));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STUDENTS)
+    public AllocationResult allocate() {
+        return new AllocationEngine(Comparator.comparingInt(Student::getStudentNumber), 42, threads).allocate(requests);
+    }
+}
@@ -0,0 +1,85 @@
+package com.orangeandbronze.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BillingBenchmark {
+    static final int STUDENTS = 100_000;
+    static final int[][] PERIODS = {{830, 1000}, {1000, 1130}, {1130, 1300}, {1300, 1430}, {1430, 1600}, {1600, 1730}};
+
+    @Param({"1", "4"})
+    int threads;
+
+    List<Student> students;
+    Path invoices;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(1);
+        List<Subject> subjects = new ArrayList<>();
+        List<Section> sections = new ArrayList<>();
+        for (int slot = 0; slot < 18; slot++) {
+            Subject subject = new Subject("BILL" + slot, 1 + random.nextInt(5), slot % 4 == 0);
+            subjects.add(subject);
+            int[] period = PERIODS[slot / 3];
+            sections.add(new Section("BILL" + slot, new Schedule(Days.values()[slot % 3], new Period(period[0], period[1])), new Room("BILL" + slot, STUDENTS), subject));
+        }
+        DegreeProgram program = new DegreeProgram("BILLING", subjects);
+        students = new ArrayList<>(STUDENTS);
+        for (int number = 1; number <= STUDENTS; number++) {
+            Student student = new Student(number, Collections.emptyList(), program);
+            List<Section> cart = new ArrayList<>(sections);
+            Collections.shuffle(cart, random);
+            int units = 0;
+            for (Section section : cart.subList(0, random.nextInt(8))) {
+                if (units + section.getSubject().getUnits() <= 24) {
+                    student.enlist(section);
+                    units += section.getSubject().getUnits();
+                }
+            }
+            students.add(student);
+        }
+        invoices = Files.createTempFile("invoices", ".csv");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(invoices);
+    }
+
+    @Benchmark
+    public BigDecimal requestAssessmentBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Student student : students) {
+            total = total.add(student.requestAssessment());
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long assessCentsSequential() {
+        BillingEngine engine = new BillingEngine(FeeSchedule.DEFAULT, 1);
+        long total = 0;
+        for (Student student : students) {
+            total += engine.assessCents(student);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BillingEngine.BillingSummary billToFile() {
+        return new BillingEngine(FeeSchedule.DEFAULT, threads).bill(students, invoices);
+    }
+}
@@ -0,0 +1,79 @@
+package com.orangeandbronze.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogSnapshotBenchmark {
+    static final int SUBJECTS = 3_000;
+    static final int ROOMS = 500;
+    static final int SECTIONS_PER_SUBJECT = 5;
+    static final int PROGRAMS = 40;
+    static final int[][] PERIODS = {{830, 1000}, {1000, 1130}, {1130, 1300}, {1300, 1430}, {1430, 1600}, {1600, 1730}};
+
+    Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("catalog", ".snapshot");
+        List<Section> sections = construct();
+        List<Room> rooms = new ArrayList<>();
+        sections.forEach(section -> rooms.add(section.getRoom()));
+        DegreeProgram[] programs = new DegreeProgram[PROGRAMS];
+        List<Subject> subjects = new ArrayList<>();
+        sections.forEach(section -> subjects.add(section.getSubject()));
+        for (int i = 0; i < PROGRAMS; i++) {
+            programs[i] = new DegreeProgram("SNAP" + i, subjects.subList(i * subjects.size() / (2 * PROGRAMS), subjects.size()));
+        }
+        CatalogSnapshot.write(file, subjects, rooms, sections, Arrays.asList(programs));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    // what startup does today: every subject, room, section and program through its validating constructor
+    @Benchmark
+    public List<Section> construct() {
+        Random random = new Random(1);
+        List<Subject> subjects = new ArrayList<>(SUBJECTS);
+        for (int i = 0; i < SUBJECTS; i++) {
+            Set<Subject> prerequisites = i < 100 ? Set.of() : new HashSet<>(List.of(subjects.get(random.nextInt(i)), subjects.get(random.nextInt(i))));
+            subjects.add(new Subject("SNAP" + i, 1 + random.nextInt(5), prerequisites, i % 7 == 0));
+        }
+        List<Room> rooms = new ArrayList<>(ROOMS);
+        for (int i = 0; i < ROOMS; i++) {
+            rooms.add(new Room("SNAP" + i, 20 + random.nextInt(40)));
+        }
+        List<Section> sections = new ArrayList<>();
+        for (Subject subject : subjects) {
+            for (int s = 0; s < SECTIONS_PER_SUBJECT; s++) {
+                int[] period = PERIODS[random.nextInt(PERIODS.length)];
+                Section section = new Section(subject.getSubjectID() + "S" + s, new Schedule(Days.values()[random.nextInt(3)], new Period(period[0], period[1])),
+                        rooms.get(random.nextInt(ROOMS)), subject);
+                section.restoreSeats(random.nextInt(20));
+                sections.add(section);
+            }
+        }
+        for (int i = 0; i < PROGRAMS; i++) {
+            new DegreeProgram("SNAP" + i, subjects.subList(i * SUBJECTS / (2 * PROGRAMS), SUBJECTS));
+        }
+        return sections;
+    }
+
+    @Benchmark
+    public CatalogSnapshot load() {
+        return CatalogSnapshot.read(file);
+    }
+}
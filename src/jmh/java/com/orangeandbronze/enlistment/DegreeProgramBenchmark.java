@@ -0,0 +1,42 @@
+package com.orangeandbronze.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DegreeProgramBenchmark {
+    @Param({"10", "1000", "20000"})
+    int programSize;
+
+    DegreeProgram program;
+    Subject inProgram;
+    Subject notInProgram;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Subject> subjects = new ArrayList<>(programSize);
+        for (int i = 0; i < programSize; i++) {
+            subjects.add(new Subject("DEG" + i, 3));
+        }
+        program = new DegreeProgram("DEG" + programSize, subjects);
+        inProgram = subjects.get(programSize / 2);
+        notInProgram = new Subject("DEGOUTSIDE", 3);
+    }
+
+    @Benchmark
+    public boolean containsSubjectHit() {
+        return program.containsSubject(inProgram);
+    }
+
+    @Benchmark
+    public boolean containsSubjectMiss() {
+        return program.containsSubject(notInProgram);
+    }
+}
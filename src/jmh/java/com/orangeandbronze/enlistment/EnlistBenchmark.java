@@ -0,0 +1,102 @@
+package com.orangeandbronze.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnlistBenchmark {
+    static final int[][] PERIODS = {{830, 1000}, {1000, 1130}, {1130, 1300}, {1300, 1430}, {1430, 1600}, {1600, 1730}};
+
+    // sections already enlisted before the measured enlist; 2-unit subjects keep even the largest cart under the unit cap
+    @Param({"0", "4", "8"})
+    int cartSize;
+
+    @Param({"100", "5000"})
+    int catalogSize;
+
+    Student student;
+    Section target;
+
+    static List<Subject> catalog(String prefix, int size){
+        List<Subject> subjects = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            subjects.add(new Subject(prefix + i, 2));
+        }
+        return subjects;
+    }
+
+    static Section section(String sectionID, int slot, Subject subject, int capacity){
+        int[] period = PERIODS[slot / 3 % PERIODS.length];
+        return new Section(sectionID, new Schedule(Days.values()[slot % 3], new Period(period[0], period[1])), new Room(sectionID, capacity), subject);
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Subject> subjects = catalog("ENL", catalogSize);
+        student = new Student(1, Collections.emptyList(), new DegreeProgram("ENLIST", subjects));
+        for (int i = 0; i < cartSize; i++) {
+            student.enlist(section("ENL" + i, i, subjects.get(i), 40));
+        }
+        target = section("ENLTARGET", 17, subjects.get(catalogSize - 1), 40);
+    }
+
+    @Benchmark
+    public int enlistAndCancel() {
+        student.enlist(target);
+        student.cancelEnlistedSection(target);
+        return target.getNumStudents();
+    }
+
+    @Benchmark
+    public BigDecimal requestAssessment() {
+        return student.requestAssessment();
+    }
+
+    // many students enlisting into and dropping from the same few sections, so seat CAS and waitlist checks contend
+    @State(Scope.Benchmark)
+    public static class Contended {
+        static final AtomicInteger STUDENT_NUMBERS = new AtomicInteger();
+
+        DegreeProgram program;
+        Section[] sections;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<Subject> subjects = catalog("ENLC", 4);
+            program = new DegreeProgram("CONTENDED", subjects);
+            sections = new Section[subjects.size()];
+            for (int i = 0; i < sections.length; i++) {
+                sections[i] = section("ENLC" + i, i * 3, subjects.get(i), 1_000);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Enlistee {
+        Student student;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(Contended contended) {
+            student = new Student(Contended.STUDENT_NUMBERS.incrementAndGet(), Collections.emptyList(), contended.program);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int enlistAndCancelContended(Contended contended, Enlistee enlistee) {
+        Section section = contended.sections[enlistee.next++ & (contended.sections.length - 1)];
+        enlistee.student.enlist(section);
+        enlistee.student.cancelEnlistedSection(section);
+        return section.getNumStudents();
+    }
+}
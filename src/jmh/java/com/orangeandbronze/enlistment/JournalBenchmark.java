@@ -0,0 +1,106 @@
+package com.orangeandbronze.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JournalBenchmark {
+    static final int STUDENTS = 20_000;
+    static final int SECTIONS = 400;
+    static final int REPLAY_EVENTS = 2_000_000;
+
+    @State(Scope.Benchmark)
+    public static class Appending {
+        Path file;
+        EnlistmentJournal journal;
+        final AtomicInteger studentNumbers = new AtomicInteger();
+
+        @Setup(Level.Iteration)
+        public void setUp() throws IOException {
+            file = Files.createTempFile("enlistment", ".journal");
+            journal = new EnlistmentJournal(file);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            journal.close();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Replaying {
+        Path file;
+        Map<Integer, Student> students;
+        Map<String, Section> sections;
+        Map<String, Subject> subjects;
+
+        @Setup(Level.Trial)
+        public void writeTerm() throws IOException {
+            file = Files.createTempFile("enlistment", ".journal");
+            try (EnlistmentJournal journal = new EnlistmentJournal(file)) {
+                for (int event = 0; event < REPLAY_EVENTS / 2; event++) {
+                    int studentNumber = event % STUDENTS + 1;
+                    String sectionID = "JRN" + (event / STUDENTS) % SECTIONS;
+                    journal.append(EnlistmentJournal.ENLISTED, studentNumber, sectionID);
+                    journal.append(EnlistmentJournal.CANCELLED, studentNumber, sectionID);
+                }
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void freshState() {
+            subjects = new HashMap<>();
+            sections = new HashMap<>();
+            for (int i = 0; i < SECTIONS; i++) {
+                Subject subject = new Subject("JRN" + i, 3);
+                subjects.put(subject.getSubjectID(), subject);
+                sections.put("JRN" + i, new Section("JRN" + i, new Schedule(Days.values()[i % 3], new Period(830, 1000)), new Room("JRN" + i, STUDENTS), subject));
+            }
+            DegreeProgram program = new DegreeProgram("JOURNAL", subjects.values());
+            students = new HashMap<>();
+            for (int number = 1; number <= STUDENTS; number++) {
+                students.put(number, new Student(number, Collections.emptyList(), program));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(4)
+    public long append(Appending state) {
+        return state.journal.append(EnlistmentJournal.ENLISTED, state.studentNumbers.incrementAndGet(), "CCPROG1-S15");
+    }
+
+    // what a listener pays: append, then wait for the group commit that fsyncs it; the threads share each fsync
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(64)
+    public long appendDurable(Appending state) {
+        long sequence = state.journal.append(EnlistmentJournal.ENLISTED, state.studentNumbers.incrementAndGet(), "CCPROG1-S15");
+        state.journal.awaitDurable(sequence);
+        return sequence;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long replayTerm(Replaying state) {
+        return EnlistmentJournal.replay(state.file, state.students::get, state.sections::get, state.subjects::get).getRecordCount();
+    }
+}
@@ -0,0 +1,44 @@
+package com.orangeandbronze.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// compare the two scores of enlistAndCancel: the instrumented run should stay within 2% of the uninstrumented one
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(3)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+    @Param({"false", "true"})
+    boolean metricsEnabled;
+
+    Student student;
+    Section target;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EnlistmentMetrics.global().setEnabled(metricsEnabled);
+        List<Subject> subjects = EnlistBenchmark.catalog("MET", 8);
+        student = new Student(1, Collections.emptyList(), new DegreeProgram("METRICS", subjects));
+        for (int i = 0; i < 4; i++) {
+            student.enlist(EnlistBenchmark.section("MET" + i, i, subjects.get(i), 40));
+        }
+        target = EnlistBenchmark.section("METTARGET", 17, subjects.get(7), 40);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        EnlistmentMetrics.global().setEnabled(true);
+    }
+
+    @Benchmark
+    public int enlistAndCancel() {
+        student.enlist(target);
+        student.cancelEnlistedSection(target);
+        return target.getNumStudents();
+    }
+}
@@ -0,0 +1,53 @@
+package com.orangeandbronze.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrerequisiteBenchmark {
+    // length of the prerequisite chain below the section's subject
+    @Param({"1", "16", "256"})
+    int depth;
+
+    Section section;
+    PrerequisiteGraph graph;
+    SubjectSet takenSubjects;
+    List<Subject> takenList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // a catalog per trial, so the taken set's bitset is sized by this chain alone
+        SubjectCatalog catalog = new SubjectCatalog();
+        List<Subject> chain = new ArrayList<>(depth + 1);
+        chain.add(catalog.subject("PRQ" + depth + "x0", 3));
+        for (int i = 1; i <= depth; i++) {
+            chain.add(catalog.subject("PRQ" + depth + "x" + i, 3, List.of(chain.get(i - 1)), false));
+        }
+        Subject top = chain.get(depth);
+        section = new Section("PRQ" + depth, new Schedule(Days.MTH, new Period(830, 1000)), new Room("PRQ" + depth, 40), top);
+        graph = new DegreeProgram("PRQ" + depth, chain).getPrerequisiteGraph();
+        takenList = new ArrayList<>(chain.subList(0, depth));
+        takenSubjects = new SubjectSet(takenList);
+    }
+
+    // direct prerequisites only, against a plain list as callers outside a program pass it
+    @Benchmark
+    public Section checkTakenPrerequisiteDirect() {
+        section.checkTakenPrerequisite(takenList);
+        return section;
+    }
+
+    // whole chain through the program's graph, the path Student.enlist takes
+    @Benchmark
+    public Section checkTakenPrerequisiteChain() {
+        section.checkTakenPrerequisite(graph, takenSubjects);
+        return section;
+    }
+}
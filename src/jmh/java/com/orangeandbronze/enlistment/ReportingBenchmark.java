@@ -0,0 +1,115 @@
+package com.orangeandbronze.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Enlistment throughput with and without a reporting thread reading the ledger's snapshots the whole time.
+// "enlistOnly" and "enlistWhileReporting" run the same three enlisters; their enlist scores should match.
+// "copyingReports" runs the old kind of report, copying every student's sections under the student's lock.
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReportingBenchmark {
+    static final int STUDENTS = 2_000;
+    static final int SECTIONS = 40;
+
+    @State(Scope.Group)
+    public static class Campus {
+        List<Student> students;
+        List<Section> sections;
+        EnrollmentLedger ledger;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<Subject> subjects = new ArrayList<>();
+            sections = new ArrayList<>();
+            for (int i = 0; i < SECTIONS; i++) {
+                Subject subject = new Subject("RPT" + i, 3);
+                subjects.add(subject);
+                Schedule schedule = new Schedule(Days.values()[i % 3], new Period(830 + (i / 3 % 4) * 200, 1000 + (i / 3 % 4) * 200));
+                sections.add(new Section("RPT" + i, schedule, new Room("RPT" + i, STUDENTS), subject));
+            }
+            DegreeProgram program = new DegreeProgram("REPORTING", subjects);
+            students = new ArrayList<>();
+            for (int number = 1; number <= STUDENTS; number++) {
+                Student student = new Student(number, Collections.emptyList(), program);
+                // a standing load of a few sections each, so reports have something to read
+                for (int s = 0; s < 4; s++) {
+                    try {
+                        student.enlist(sections.get((number + s * 7) % SECTIONS));
+                    } catch (RuntimeException e) {
+                        // conflicting pick, skip it
+                    }
+                }
+                students.add(student);
+            }
+            ledger = new EnrollmentLedger(students);
+            EnlistmentListeners.add(ledger);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            EnlistmentListeners.remove(ledger);
+        }
+
+        void enlistAndCancel() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Student student = students.get(random.nextInt(STUDENTS));
+            Section section = sections.get(random.nextInt(SECTIONS));
+            try {
+                student.enlist(section);
+                student.cancelEnlistedSection(section);
+            } catch (RuntimeException e) {
+                // already enlisted in the subject or a conflicting section
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("enlistOnly")
+    @GroupThreads(3)
+    public void enlist(Campus campus) {
+        campus.enlistAndCancel();
+    }
+
+    @Benchmark
+    @Group("enlistWhileReporting")
+    @GroupThreads(3)
+    public void enlistBesideReports(Campus campus) {
+        campus.enlistAndCancel();
+    }
+
+    @Benchmark
+    @Group("enlistWhileReporting")
+    @GroupThreads(1)
+    public void snapshotClassLists(Campus campus, Blackhole blackhole) {
+        EnrollmentSnapshot snapshot = campus.ledger.snapshot();
+        snapshot.forEachSection((section, count) -> blackhole.consume(count));
+        snapshot.forEachStudent((number, sections) -> blackhole.consume(sections.size()));
+    }
+
+    @Benchmark
+    @Group("copyingReports")
+    @GroupThreads(3)
+    public void enlistBesideCopies(Campus campus) {
+        campus.enlistAndCancel();
+    }
+
+    @Benchmark
+    @Group("copyingReports")
+    @GroupThreads(1)
+    public void copyClassLists(Campus campus, Blackhole blackhole) {
+        Map<Section, Integer> counts = new HashMap<>();
+        for (Student student : campus.students) {
+            List<Section> copy;
+            synchronized (student) {
+                copy = new ArrayList<>(student.getSections());
+            }
+            copy.forEach(section -> counts.merge(section, 1, Integer::sum));
+        }
+        blackhole.consume(counts);
+    }
+}
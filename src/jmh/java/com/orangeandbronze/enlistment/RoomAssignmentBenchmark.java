@@ -0,0 +1,47 @@
+package com.orangeandbronze.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoomAssignmentBenchmark {
+    static final int[][] PERIODS = {{830, 1000}, {1000, 1130}, {1130, 1300}, {1300, 1430}, {1430, 1600}, {1600, 1730}};
+
+    @Param({"500"})
+    int rooms;
+
+    @Param({"8000"})
+    int sections;
+
+    RoomAssignmentSolver solver;
+    List<SectionPlan> plans;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(1);
+        List<Room> campus = new ArrayList<>();
+        for (int i = 0; i < rooms; i++) {
+            campus.add(new Room("ROOM" + i, 15 + random.nextInt(120)));
+        }
+        solver = new RoomAssignmentSolver(campus);
+        Subject subject = new Subject("ROOMS", 3);
+        plans = new ArrayList<>();
+        for (int i = 0; i < sections; i++) {
+            int slot = random.nextInt(18);
+            int[] period = PERIODS[slot / 3];
+            plans.add(new SectionPlan("PLAN" + i, subject, new Schedule(Days.values()[slot % 3], new Period(period[0], period[1])), 10 + random.nextInt(100)));
+        }
+    }
+
+    @Benchmark
+    public RoomAssignment solve() {
+        return solver.solve(plans);
+    }
+}
@@ -0,0 +1,94 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.ScheduleConflictException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScheduleBenchmark {
+    Schedule morning;
+    Schedule afternoon;
+    Schedule overlapping;
+    Schedule otherDays;
+    Schedule mondayEvening;
+    Schedule weekendEvening;
+    // the old single-word encoding, three day patterns of eighteen half hours, as a baseline
+    long legacyMorning;
+    long legacyOverlapping;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        morning = new Schedule(Days.MTH, new Period(830, 1000));
+        afternoon = new Schedule(Days.MTH, new Period(1300, 1430));
+        overlapping = new Schedule(Days.MTH, new Period(900, 1030));
+        otherDays = new Schedule(Days.TF, new Period(830, 1000));
+        mondayEvening = new Schedule(EnumSet.of(DayOfWeek.MONDAY), Period.flexible(1805, 2040));
+        weekendEvening = new Schedule(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), Period.flexible(1800, 2100));
+        legacyMorning = legacyMask(Days.MTH, 830, 1000);
+        legacyOverlapping = legacyMask(Days.MTH, 900, 1030);
+    }
+
+    private static long legacyMask(Days days, int startTime, int endTime) {
+        int from = (startTime / 100 * 60 + startTime % 100 - 510) / 30;
+        int to = (endTime / 100 * 60 + endTime % 100 - 510) / 30;
+        return ((1L << (to - from)) - 1) << (days.ordinal() * 18 + from);
+    }
+
+    @Benchmark
+    public Schedule checkOverlapsSameDaysNoConflict() {
+        morning.checkOverlaps(afternoon);
+        return morning;
+    }
+
+    @Benchmark
+    public Schedule checkOverlapsOtherDays() {
+        morning.checkOverlaps(otherDays);
+        return morning;
+    }
+
+    // the rejected path pays for building the exception and its stack trace
+    @Benchmark
+    public Object checkOverlapsConflict() {
+        try {
+            morning.checkOverlaps(overlapping);
+            return morning;
+        } catch (ScheduleConflictException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public boolean occupancyMaskConflict() {
+        return morning.getOccupancy().intersects(overlapping.getOccupancy());
+    }
+
+    @Benchmark
+    public boolean legacyLongMaskConflict() {
+        return (legacyMorning & legacyOverlapping) != 0;
+    }
+
+    // shares Monday with morning but no slot, so the common word is ANDed and comes up empty
+    @Benchmark
+    public boolean occupancyMaskSameDayNoConflict() {
+        return morning.getOccupancy().intersects(mondayEvening.getOccupancy());
+    }
+
+    // no day in common, so no word is ANDed at all
+    @Benchmark
+    public boolean occupancyMaskOtherDays() {
+        return morning.getOccupancy().intersects(weekendEvening.getOccupancy());
+    }
+
+    @Benchmark
+    public WeekMask occupancyMaskUnion() {
+        return morning.getOccupancy().union(weekendEvening.getOccupancy());
+    }
+}
@@ -0,0 +1,93 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.CapacityReachedException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SectionSearchBenchmark {
+    static final int SUBJECTS = 500;
+    static final int SECTIONS_PER_SUBJECT = 20;
+    static final int[][] PERIODS = {{830, 1000}, {1000, 1130}, {1130, 1300}, {1300, 1430}, {1430, 1600}, {1600, 1730}};
+
+    List<Subject> subjects;
+    List<Section> sections;
+    SectionSearchIndex index;
+    Student[] searchers;
+    Student[] churners;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(1);
+        subjects = new ArrayList<>();
+        sections = new ArrayList<>();
+        for (int i = 0; i < SUBJECTS; i++) {
+            Subject subject = new Subject("SEARCH" + i, 3);
+            subjects.add(subject);
+            for (int j = 0; j < SECTIONS_PER_SUBJECT; j++) {
+                int slot = random.nextInt(18);
+                int[] period = PERIODS[slot / 3];
+                sections.add(new Section("SEARCH" + i + "x" + j, new Schedule(Days.values()[slot % 3], new Period(period[0], period[1])),
+                        new Room("SEARCH" + i + "x" + j, 20 + random.nextInt(40)), subject));
+            }
+        }
+        index = new SectionSearchIndex(sections);
+        DegreeProgram program = new DegreeProgram("SEARCH", subjects);
+        searchers = new Student[64];
+        for (int i = 0; i < searchers.length; i++) {
+            searchers[i] = new Student(i + 1, Collections.emptyList(), program);
+            for (int k = 0; k < 4; k++) {
+                tryEnlist(searchers[i], sections.get(random.nextInt(sections.size())));
+            }
+        }
+        churners = new Student[1024];
+        for (int i = 0; i < churners.length; i++) {
+            churners[i] = new Student(10_000 + i, Collections.emptyList(), program);
+        }
+    }
+
+    @Benchmark
+    public List<Section> findFittingIdle() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return index.findFitting(searchers[random.nextInt(searchers.length)], subjects.get(random.nextInt(SUBJECTS)));
+    }
+
+    @Benchmark
+    @Group("searchWhileEnlisting")
+    @GroupThreads(3)
+    public List<Section> findFitting() {
+        return findFittingIdle();
+    }
+
+    @Benchmark
+    @Group("searchWhileEnlisting")
+    @GroupThreads(1)
+    public void enlistAndCancel() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Student student = churners[random.nextInt(churners.length)];
+        Collection<Section> enlisted = student.getSections();
+        if (enlisted.size() >= 4) {
+            student.cancelEnlistedSection(enlisted.iterator().next());
+        } else {
+            tryEnlist(student, sections.get(random.nextInt(sections.size())));
+        }
+    }
+
+    private static void tryEnlist(Student student, Section section) {
+        if (student.validateCart(List.of(section)).isValid()) {
+            try {
+                student.enlist(section);
+            } catch (CapacityReachedException e) {
+                // filled up since validation
+            }
+        }
+    }
+}
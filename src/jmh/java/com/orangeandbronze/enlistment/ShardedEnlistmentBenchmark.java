@@ -0,0 +1,112 @@
+package com.orangeandbronze.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Eight threads enlisting into and dropping from sixteen sections, four of every five picks going to the two popular
+// ones. Sampled, so the score comes with percentiles: compare p99 and p99.99 as well as the mean.
+// "coarseLock" is the baseline of one registrar-wide lock, "fineGrained" calls Student and Section directly,
+// "sharded" goes through ShardedEnlistmentEngine.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(8)
+public class ShardedEnlistmentBenchmark {
+    static final int STUDENTS = 2_000;
+    static final int SECTIONS = 16;
+    static final int POPULAR = 2;
+
+    @State(Scope.Benchmark)
+    public static class Campus {
+        final Object registrar = new Object();
+        List<Student> students;
+        Section[] sections;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<Subject> subjects = EnlistBenchmark.catalog("SHD", SECTIONS);
+            sections = new Section[SECTIONS];
+            for (int i = 0; i < SECTIONS; i++) {
+                sections[i] = EnlistBenchmark.section("SHD" + i, i, subjects.get(i), STUDENTS);
+            }
+            DegreeProgram program = new DegreeProgram("SHARDED", subjects);
+            students = new ArrayList<>(STUDENTS);
+            for (int number = 1; number <= STUDENTS; number++) {
+                students.add(new Student(number, Collections.emptyList(), program));
+            }
+        }
+
+        Student pickStudent() {
+            return students.get(ThreadLocalRandom.current().nextInt(STUDENTS));
+        }
+
+        Section pickSection() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return sections[random.nextInt(5) < 4 ? random.nextInt(POPULAR) : random.nextInt(SECTIONS)];
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Engine {
+        @Param({"1", "4"})
+        int shardCount;
+
+        ShardedEnlistmentEngine engine;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            engine = new ShardedEnlistmentEngine(shardCount);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            engine.close();
+        }
+    }
+
+    @Benchmark
+    public Section coarseLock(Campus campus) {
+        Student student = campus.pickStudent();
+        Section section = campus.pickSection();
+        synchronized (campus.registrar) {
+            try {
+                student.enlist(section);
+                student.cancelEnlistedSection(section);
+            } catch (RuntimeException e) {
+                // another thread has the same student in this subject
+            }
+        }
+        return section;
+    }
+
+    @Benchmark
+    public Section fineGrained(Campus campus) {
+        Student student = campus.pickStudent();
+        Section section = campus.pickSection();
+        try {
+            student.enlist(section);
+            student.cancelEnlistedSection(section);
+        } catch (RuntimeException e) {
+            // another thread has the same student in this subject
+        }
+        return section;
+    }
+
+    @Benchmark
+    public Section sharded(Campus campus, Engine engine) {
+        Student student = campus.pickStudent();
+        Section section = campus.pickSection();
+        try {
+            engine.engine.enlist(student, section);
+            engine.engine.cancel(student, section);
+        } catch (RuntimeException e) {
+            // another thread has the same student in this subject
+        }
+        return section;
+    }
+}
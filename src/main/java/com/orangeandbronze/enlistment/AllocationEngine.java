@@ -0,0 +1,126 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.CapacityReachedException;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.apache.commons.lang3.Validate.*;
+
+class AllocationEngine {
+    private final Comparator<Student> priority;
+    private final long seed;
+    private final int parallelism;
+
+    AllocationEngine(Comparator<Student> priority, long seed, int parallelism){
+        notNull(priority);
+        isTrue(parallelism > 0, "parallelism must be positive, was: " + parallelism);
+        this.priority = priority;
+        this.seed = seed;
+        this.parallelism = parallelism;
+    }
+
+    AllocationResult allocate(Collection<AllocationRequest> requests){
+        noNullElements(requests);
+        List<AllocationRequest> ordered = inPriorityOrder(requests);
+        Collection<List<AllocationRequest>> groups = groupByContestedSections(ordered);
+        AllocationResult result = new AllocationResult();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> groups.parallelStream().forEach(group -> group.forEach(request -> allocate(request, result)))).join();
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    // priority first, then a lottery number drawn from the seed and the student number so ties break the same way on every run
+    private List<AllocationRequest> inPriorityOrder(Collection<AllocationRequest> requests){
+        Map<Student, Long> lottery = new HashMap<>();
+        for (AllocationRequest request : requests) {
+            Student student = request.getStudent();
+            isTrue(lottery.put(student, new SplittableRandom(seed + student.getStudentNumber()).nextLong()) == null,
+                    "more than one request for " + student);
+        }
+        List<AllocationRequest> ordered = new ArrayList<>(requests);
+        ordered.sort(Comparator.comparing(AllocationRequest::getStudent, priority)
+                .thenComparing(request -> lottery.get(request.getStudent())));
+        return ordered;
+    }
+
+    // requests sharing a contested section (more demand than seats) end up in one group, processed in priority order;
+    // every other request gets a group of its own since its sections have a seat for everyone asking
+    private Collection<List<AllocationRequest>> groupByContestedSections(List<AllocationRequest> ordered){
+        Map<Section, Integer> demand = new HashMap<>();
+        ordered.forEach(request -> request.getSections().forEach(section -> demand.merge(section, 1, Integer::sum)));
+        Map<Section, Integer> contested = new HashMap<>();
+        demand.forEach((section, count) -> {
+            if (count > section.getRemainingSeats()) {
+                contested.put(section, contested.size());
+            }
+        });
+
+        int[] parent = new int[contested.size()];
+        Arrays.setAll(parent, i -> i);
+        for (AllocationRequest request : ordered) {
+            int first = -1;
+            for (Section section : request.getSections()) {
+                Integer index = contested.get(section);
+                if (index == null) {
+                    continue;
+                }
+                if (first < 0) {
+                    first = index;
+                } else {
+                    parent[find(parent, index)] = find(parent, first);
+                }
+            }
+        }
+
+        Map<Integer, List<AllocationRequest>> components = new LinkedHashMap<>();
+        List<List<AllocationRequest>> groups = new ArrayList<>();
+        for (AllocationRequest request : ordered) {
+            Integer root = request.getSections().stream()
+                    .map(contested::get)
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .map(index -> find(parent, index))
+                    .orElse(null);
+            if (root == null) {
+                groups.add(List.of(request));
+            } else {
+                components.computeIfAbsent(root, key -> new ArrayList<>()).add(request);
+            }
+        }
+        groups.addAll(components.values());
+        return groups;
+    }
+
+    private static int find(int[] parent, int index){
+        while (parent[index] != index) {
+            parent[index] = parent[parent[index]];
+            index = parent[index];
+        }
+        return index;
+    }
+
+    private static void allocate(AllocationRequest request, AllocationResult result){
+        Student student = request.getStudent();
+        List<Section> enlisted = new ArrayList<>();
+        Map<Section, Set<Violation>> rejected = new LinkedHashMap<>();
+        for (Section section : request.getSections()) {
+            Set<Violation> violations = student.validateCart(List.of(section)).getViolations(section);
+            if (!violations.isEmpty()) {
+                rejected.put(section, violations);
+                continue;
+            }
+            try {
+                student.enlist(section);
+                enlisted.add(section);
+            } catch (CapacityReachedException e) {
+                rejected.put(section, EnumSet.of(Violation.CAPACITY_REACHED));
+            }
+        }
+        result.record(student, enlisted, rejected);
+    }
+}
@@ -0,0 +1,31 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.noNullElements;
+import static org.apache.commons.lang3.Validate.notNull;
+
+class AllocationRequest {
+    private final Student student;
+    private final List<Section> sections;
+
+    AllocationRequest(Student student, List<Section> sections){
+        notNull(student);
+        noNullElements(sections);
+        this.student = student;
+        this.sections = List.copyOf(sections);
+    }
+
+    Student getStudent() {
+        return student;
+    }
+
+    List<Section> getSections() {
+        return sections;
+    }
+
+    @Override
+    public String toString() {
+        return student + " " + sections;
+    }
+}
@@ -0,0 +1,30 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+class AllocationResult {
+    private final Map<Student, List<Section>> enlisted = new ConcurrentHashMap<>();
+    private final Map<Student, Map<Section, Set<Violation>>> rejected = new ConcurrentHashMap<>();
+
+    void record(Student student, List<Section> enlistedSections, Map<Section, Set<Violation>> rejectedSections){
+        enlisted.put(student, List.copyOf(enlistedSections));
+        rejected.put(student, Collections.unmodifiableMap(rejectedSections));
+    }
+
+    List<Section> getEnlistedSections(Student student){
+        return enlisted.getOrDefault(student, Collections.emptyList());
+    }
+
+    Map<Section, Set<Violation>> getRejectedSections(Student student){
+        return rejected.getOrDefault(student, Collections.emptyMap());
+    }
+
+    int getEnlistedCount(){
+        return enlisted.values().stream().mapToInt(List::size).sum();
+    }
+
+    int getRejectedCount(){
+        return rejected.values().stream().mapToInt(Map::size).sum();
+    }
+}
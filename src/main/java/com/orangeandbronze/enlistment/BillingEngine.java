@@ -0,0 +1,116 @@
+package com.orangeandbronze.enlistment;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+// Assesses students a chunk at a time: each chunk is assessed in parallel, then written in input order,
+// so only one chunk of invoices is ever held in memory.
+class BillingEngine {
+    static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private final FeeSchedule fees;
+    private final int parallelism;
+    private final int chunkSize;
+
+    BillingEngine(FeeSchedule fees, int parallelism){
+        this(fees, parallelism, DEFAULT_CHUNK_SIZE);
+    }
+
+    BillingEngine(FeeSchedule fees, int parallelism, int chunkSize){
+        notNull(fees);
+        isTrue(parallelism > 0, "parallelism must be positive, was: " + parallelism);
+        isTrue(chunkSize > 0, "chunkSize must be positive, was: " + chunkSize);
+        this.fees = fees;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    long assessCents(Student student){
+        return student.assessCents(fees);
+    }
+
+    BillingSummary bill(Iterable<Student> students, Path invoices){
+        notNull(students);
+        notNull(invoices);
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(invoices, StandardCharsets.UTF_8), 1 << 16)) {
+            return bill(students, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    BillingSummary bill(Iterable<Student> students, Writer invoices) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Student[] chunk = new Student[chunkSize];
+            long[] amounts = new long[chunkSize];
+            int count = 0;
+            long total = 0;
+            Iterator<Student> iterator = students.iterator();
+            while (iterator.hasNext()) {
+                int size = 0;
+                while (size < chunkSize && iterator.hasNext()) {
+                    chunk[size++] = notNull(iterator.next());
+                }
+                int chunkLength = size;
+                pool.submit(() -> IntStream.range(0, chunkLength).parallel().forEach(i -> amounts[i] = assessCents(chunk[i]))).join();
+                for (int i = 0; i < chunkLength; i++) {
+                    writeInvoice(invoices, chunk[i], amounts[i]);
+                    total += amounts[i];
+                }
+                count += chunkLength;
+                Arrays.fill(chunk, 0, chunkLength, null);
+            }
+            return new BillingSummary(count, total);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void writeInvoice(Writer invoices, Student student, long cents) throws IOException {
+        invoices.write(Integer.toString(student.getStudentNumber()));
+        invoices.write(',');
+        invoices.write(Long.toString(cents / 100));
+        invoices.write('.');
+        long centavos = cents % 100;
+        if (centavos < 10) {
+            invoices.write('0');
+        }
+        invoices.write(Long.toString(centavos));
+        invoices.write('\n');
+    }
+
+    static class BillingSummary {
+        private final int invoices;
+        private final long totalCents;
+
+        BillingSummary(int invoices, long totalCents){
+            this.invoices = invoices;
+            this.totalCents = totalCents;
+        }
+
+        int getInvoices() {
+            return invoices;
+        }
+
+        long getTotalCents() {
+            return totalCents;
+        }
+
+        @Override
+        public String toString() {
+            return invoices + " invoices totalling " + FeeSchedule.toAmount(totalCents);
+        }
+    }
+}
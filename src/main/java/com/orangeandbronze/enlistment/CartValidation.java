@@ -0,0 +1,53 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+class CartValidation {
+    private final Map<Section, Set<Violation>> violations = new LinkedHashMap<>();
+
+    void put(Section section, Set<Violation> sectionViolations){
+        notNull(section);
+        notNull(sectionViolations);
+        violations.put(section, Collections.unmodifiableSet(sectionViolations));
+    }
+
+    boolean isValid(){
+        return violations.values().stream().allMatch(Set::isEmpty);
+    }
+
+    Set<Violation> getViolations(Section section){
+        return violations.getOrDefault(section, Collections.emptySet());
+    }
+
+    // every section of the cart, in cart order
+    Map<Section, Set<Violation>> getViolations(){
+        return Collections.unmodifiableMap(violations);
+    }
+
+    Collection<Section> getValidSections(){
+        List<Section> valid = new ArrayList<>();
+        violations.forEach((section, sectionViolations) -> {
+            if (sectionViolations.isEmpty()) {
+                valid.add(section);
+            }
+        });
+        return valid;
+    }
+
+    Collection<Section> getInvalidSections(){
+        List<Section> invalid = new ArrayList<>();
+        violations.forEach((section, sectionViolations) -> {
+            if (!sectionViolations.isEmpty()) {
+                invalid.add(section);
+            }
+        });
+        return invalid;
+    }
+
+    @Override
+    public String toString() {
+        return violations.toString();
+    }
+}
@@ -0,0 +1,239 @@
+package com.orangeandbronze.enlistment;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+// Binary image of the catalog: subjects, rooms, sections with their enrollment counts and rosters, and degree programs.
+// Objects refer to each other by their index in earlier tables, and subjects are written in prerequisite order,
+// so the reader builds everything in one forward pass over the mapped file. Loaded programs share one prerequisite graph.
+class CatalogSnapshot {
+    static final int MAGIC = 0x454E4C43;
+    static final int VERSION = 3;
+    // version 1 had no rosters, only counts; versions 1 and 2 stored a Days pattern and a regular Period
+    private static final int COUNTS_ONLY_VERSION = 1;
+    private static final int DAYS_PATTERN_VERSION = 2;
+
+    private final SubjectCatalog catalog;
+    private final List<Subject> subjects;
+    private final List<Room> rooms;
+    private final List<Section> sections;
+    private final List<DegreeProgram> programs;
+
+    private CatalogSnapshot(SubjectCatalog catalog, List<Subject> subjects, List<Room> rooms, List<Section> sections, List<DegreeProgram> programs){
+        this.catalog = catalog;
+        this.subjects = Collections.unmodifiableList(subjects);
+        this.rooms = Collections.unmodifiableList(rooms);
+        this.sections = Collections.unmodifiableList(sections);
+        this.programs = Collections.unmodifiableList(programs);
+    }
+
+    // subjects and rooms that sections or programs refer to are included even when not listed
+    static void write(Path file, Collection<Subject> subjects, Collection<Room> rooms, Collection<Section> sections, Collection<DegreeProgram> programs){
+        notNull(file);
+        noNullElements(subjects);
+        noNullElements(rooms);
+        noNullElements(sections);
+        noNullElements(programs);
+
+        Set<Subject> allSubjects = new LinkedHashSet<>(subjects);
+        Map<Room, Integer> roomIndexes = new LinkedHashMap<>();
+        rooms.forEach(room -> roomIndexes.putIfAbsent(room, roomIndexes.size()));
+        for (Section section : sections) {
+            validState(section.getRoom() != null, "section " + section + " has no room");
+            roomIndexes.putIfAbsent(section.getRoom(), roomIndexes.size());
+            allSubjects.add(section.getSubject());
+        }
+        programs.forEach(program -> allSubjects.addAll(program.getSubjects()));
+        List<Subject> orderedSubjects = new PrerequisiteGraph(allSubjects).getSubjectsInOrder();
+        Map<Subject, Integer> subjectIndexes = new HashMap<>();
+        orderedSubjects.forEach(subject -> subjectIndexes.put(subject, subjectIndexes.size()));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(orderedSubjects.size());
+            for (Subject subject : orderedSubjects) {
+                writeString(out, subject.getSubjectID());
+                out.writeInt(subject.getUnits());
+                out.writeBoolean(subject.isLab());
+                Collection<Subject> prerequisites = subject.getPrerequisites();
+                out.writeInt(prerequisites.size());
+                for (Subject prerequisite : prerequisites) {
+                    out.writeInt(subjectIndexes.get(prerequisite));
+                }
+            }
+
+            out.writeInt(roomIndexes.size());
+            for (Room room : roomIndexes.keySet()) {
+                writeString(out, room.getRoomName());
+                out.writeInt(room.getCapacity());
+            }
+
+            out.writeInt(sections.size());
+            for (Section section : sections) {
+                Schedule schedule = section.getSchedule();
+                writeString(out, section.getSectionID());
+                out.writeByte(weekdayBits(schedule.getWeekdays()));
+                out.writeShort(schedule.getPeriod().getStartTime());
+                out.writeShort(schedule.getPeriod().getEndTime());
+                out.writeInt(roomIndexes.get(section.getRoom()));
+                out.writeInt(subjectIndexes.get(section.getSubject()));
+                out.writeInt(section.getWaitlistCapacity());
+                out.writeInt(section.getNumStudents());
+                int[] roster = section.getRoster();
+                out.writeInt(roster.length);
+                for (int studentNumber : roster) {
+                    out.writeInt(studentNumber);
+                }
+            }
+
+            out.writeInt(programs.size());
+            for (DegreeProgram program : programs) {
+                writeString(out, program.getProgramName());
+                Collection<Subject> programSubjects = program.getSubjects();
+                out.writeInt(programSubjects.size());
+                for (Subject subject : programSubjects) {
+                    out.writeInt(subjectIndexes.get(subject));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static CatalogSnapshot read(Path file){
+        notNull(file);
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        validState(in.remaining() >= 8 && in.getInt() == MAGIC, "not a catalog snapshot: " + file);
+        int version = in.getInt();
+        validState(version >= COUNTS_ONLY_VERSION && version <= VERSION, "unsupported catalog snapshot version " + version + " in " + file);
+        byte[] scratch = new byte[1 << 16];
+
+        // subjects get an id space of their own, shared by the programs and prerequisite graph built below
+        SubjectCatalog catalog = new SubjectCatalog();
+        int subjectCount = in.getInt();
+        List<Subject> subjects = new ArrayList<>(subjectCount);
+        for (int i = 0; i < subjectCount; i++) {
+            String subjectID = readString(in, scratch);
+            int units = in.getInt();
+            boolean isLab = in.get() != 0;
+            int prerequisiteCount = in.getInt();
+            List<Subject> prerequisites = new ArrayList<>(prerequisiteCount);
+            for (int p = 0; p < prerequisiteCount; p++) {
+                prerequisites.add(subjects.get(in.getInt()));
+            }
+            subjects.add(catalog.subject(subjectID, units, prerequisites, isLab));
+        }
+
+        int roomCount = in.getInt();
+        List<Room> rooms = new ArrayList<>(roomCount);
+        for (int i = 0; i < roomCount; i++) {
+            rooms.add(new Room(readString(in, scratch), in.getInt()));
+        }
+
+        int sectionCount = in.getInt();
+        List<Section> sections = new ArrayList<>(sectionCount);
+        Days[] days = Days.values();
+        for (int i = 0; i < sectionCount; i++) {
+            String sectionID = readString(in, scratch);
+            Schedule schedule = version <= DAYS_PATTERN_VERSION
+                    ? new Schedule(days[in.get()], new Period(in.getShort(), in.getShort()))
+                    : new Schedule(weekdays(in.get()), Period.flexible(in.getShort(), in.getShort()));
+            Room room = rooms.get(in.getInt());
+            Subject subject = subjects.get(in.getInt());
+            Section section = new Section(sectionID, schedule, room, subject, in.getInt());
+            section.restoreSeats(in.getInt());
+            if (version != COUNTS_ONLY_VERSION) {
+                int rosterSize = in.getInt();
+                for (int r = 0; r < rosterSize; r++) {
+                    section.addToRoster(in.getInt());
+                }
+            }
+            sections.add(section);
+        }
+
+        PrerequisiteGraph sharedGraph = new PrerequisiteGraph(subjects);
+        int programCount = in.getInt();
+        List<DegreeProgram> programs = new ArrayList<>(programCount);
+        for (int i = 0; i < programCount; i++) {
+            String programName = readString(in, scratch);
+            int programSubjectCount = in.getInt();
+            List<Subject> programSubjects = new ArrayList<>(programSubjectCount);
+            for (int s = 0; s < programSubjectCount; s++) {
+                programSubjects.add(subjects.get(in.getInt()));
+            }
+            programs.add(new DegreeProgram(programName, programSubjects, sharedGraph));
+        }
+        return new CatalogSnapshot(catalog, subjects, rooms, sections, programs);
+    }
+
+    // bit 0 for Monday through bit 6 for Sunday
+    private static int weekdayBits(Set<DayOfWeek> weekdays){
+        int bits = 0;
+        for (DayOfWeek day : weekdays) {
+            bits |= 1 << (day.getValue() - 1);
+        }
+        return bits;
+    }
+
+    private static Set<DayOfWeek> weekdays(int bits){
+        Set<DayOfWeek> weekdays = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((bits & 1 << (day.getValue() - 1)) != 0) {
+                weekdays.add(day);
+            }
+        }
+        return weekdays;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        isTrue(bytes.length <= 0xFFFF, "string too long for a catalog snapshot: " + value);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in, byte[] scratch){
+        int length = in.getShort() & 0xFFFF;
+        in.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    SubjectCatalog getCatalog(){
+        return catalog;
+    }
+
+    List<Subject> getSubjects(){
+        return subjects;
+    }
+
+    List<Room> getRooms(){
+        return rooms;
+    }
+
+    List<Section> getSections(){
+        return sections;
+    }
+
+    List<DegreeProgram> getPrograms(){
+        return programs;
+    }
+}
@@ -0,0 +1,101 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+// Bounded lock-free queue for many producers and one consumer, as a ring of slots each stamped with a sequence number.
+// A producer claims a position with one CAS on tail, fills the slot, then stamps it position + 1 to publish it;
+// the consumer takes slots in position order while their stamp says they are filled, and stamps each emptied slot
+// one lap ahead so producers can reuse it. Nothing is allocated per item and a full ring fails offer() at once.
+// Only the consumer thread may call poll, drain and isEmpty.
+class CommandRing<T> {
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // only touched by the consumer
+    private long head = 0;
+
+    CommandRing(int capacity){
+        isTrue(capacity > 0 && Integer.bitCount(capacity) == 1, "capacity must be a power of two, was: %d", capacity);
+        this.items = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(T item){
+        notNull(item);
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long lag = sequences.get(slot) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items[slot] = item;
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // the slot still holds the item from a lap ago
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    T poll(){
+        int slot = (int) head & mask;
+        if (sequences.get(slot) != head + 1) {
+            return null;
+        }
+        T item = (T) items[slot];
+        items[slot] = null;
+        sequences.set(slot, head + items.length);
+        head++;
+        return item;
+    }
+
+    // hands up to max items to action, in the order they were offered; returns how many
+    int drain(Consumer<? super T> action, int max){
+        notNull(action);
+        int drained = 0;
+        for (T item; drained < max && (item = poll()) != null; drained++) {
+            action.accept(item);
+        }
+        return drained;
+    }
+
+    // false once the next item is published; a producer may be between claiming a slot and publishing it
+    boolean isEmpty(){
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    // Any thread may call this: hands action each item published and not yet taken. An item the consumer takes
+    // meanwhile may still be handed over, so action must cope with that.
+    @SuppressWarnings("unchecked")
+    void forEachQueued(Consumer<? super T> action){
+        notNull(action);
+        for (int slot = 0; slot < items.length; slot++) {
+            // the stamp is read first, so the item written before it was published is visible
+            sequences.get(slot);
+            T item = (T) items[slot];
+            if (item != null) {
+                action.accept(item);
+            }
+        }
+    }
+
+    int capacity(){
+        return items.length;
+    }
+}
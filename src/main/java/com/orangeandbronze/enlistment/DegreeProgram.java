@@ -1,27 +1,54 @@
 package com.orangeandbronze.enlistment;
 
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Objects;
+import java.util.Collections;
 
+import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notBlank;
 
 class DegreeProgram {
-    private final Collection<Subject> subjects  = new HashSet<>();
+    private final SubjectSet subjects;
     private final String programName;
+    private final PrerequisiteGraph prerequisiteGraph;
+    private final int hashCode;
     DegreeProgram(String programName, Collection<Subject> subjects){
+        this(programName, subjects, null);
+    }
+
+    // a subject's prerequisite closure is the same in any graph holding it, so programs loaded together can share
+    // one graph over the whole catalog instead of each building its own
+    DegreeProgram(String programName, Collection<Subject> subjects, PrerequisiteGraph sharedGraph){
         notBlank(programName);
         if (subjects == null){
             throw new NullPointerException();
         }
         this.programName = programName;
-        this.subjects.addAll(subjects);
+        this.subjects = new SubjectSet(subjects);
+        if (sharedGraph == null) {
+            this.prerequisiteGraph = new PrerequisiteGraph(this.subjects);
+        } else {
+            isTrue(this.subjects.stream().allMatch(sharedGraph::contains), "shared graph must hold every subject of program " + programName);
+            this.prerequisiteGraph = sharedGraph;
+        }
+        this.hashCode = 31 * this.subjects.hashCode() + programName.hashCode();
     }
 
     boolean containsSubject(Subject subject){
         return this.subjects.contains(subject);
     }
 
+    Collection<Subject> getSubjects(){
+        return Collections.unmodifiableSet(subjects);
+    }
+
+    String getProgramName(){
+        return programName;
+    }
+
+    PrerequisiteGraph getPrerequisiteGraph(){
+        return prerequisiteGraph;
+    }
+
     @Override
     public String toString() {
         return programName;
@@ -33,14 +60,13 @@ class DegreeProgram {
         if (!(o instanceof DegreeProgram)) return false;
 
         DegreeProgram degreeProgram = (DegreeProgram) o;
+        if (hashCode != degreeProgram.hashCode) return false;
         if (!subjects.equals(degreeProgram.subjects)) return false;
-        return Objects.equals(programName, degreeProgram.programName);
+        return programName.equals(degreeProgram.programName);
     }
 
     @Override
     public int hashCode() {
-        int result = subjects.hashCode();
-        result = 31 * result + (programName != null ? programName.hashCode() : 0);
-        return result;
+        return hashCode;
     }
 }
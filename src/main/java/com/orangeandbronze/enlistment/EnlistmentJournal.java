@@ -0,0 +1,377 @@
+package com.orangeandbronze.enlistment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+// Append-only log of enlist, cancel and taken-subject events.
+// Record: type (1 byte), student number (4 bytes), id length (1 byte), id (UTF-8 section or subject ID), then a CRC32C
+// of those bytes (4 bytes). Replay stops at the first record that is cut short or fails its checksum: that is where a
+// crash left the file, and a journal opened on it truncates the rest before appending.
+// Appenders only copy into an in-memory batch; one writer thread writes the whole batch and fsyncs it once (group commit).
+// As a listener it waits for its record's batch to be fsynced before returning, so once an enlist, cancel or taken
+// subject has returned to its caller the event survives a crash. The wait holds that student's lock, not the journal's,
+// so other students keep appending into the same batch meanwhile. The change has already been made when a listener is
+// called, so a listener never throws: an event it cannot make durable, because the journal is closed or a write
+// failed, is counted in getLostEventCount() and the journal no longer matches the state.
+class EnlistmentJournal implements EnlistmentListener, AutoCloseable {
+    static final byte ENLISTED = 1;
+    static final byte CANCELLED = 2;
+    static final byte SUBJECT_TAKEN = 3;
+
+    static final int DEFAULT_BATCH_BYTES = 1 << 20;
+    private static final int HEADER_BYTES = 6;
+    private static final int CHECKSUM_BYTES = 4;
+    private static final int MAX_RECORD_BYTES = HEADER_BYTES + 255 + CHECKSUM_BYTES;
+    private static final long REPLAY_WINDOW_BYTES = 64L << 20;
+
+    private final FileChannel channel;
+    private final Thread writer;
+    private final Object lock = new Object();
+    private ByteBuffer pending;
+    private ByteBuffer writing;
+    private long appended = 0;
+    private long durable = 0;
+    private boolean writerWaiting = false;
+    private boolean closed = false;
+    private boolean writerDone = false;
+    private IOException failure;
+    private final LongAdder lostEvents = new LongAdder();
+    private volatile RuntimeException lastLoss;
+
+    EnlistmentJournal(Path file){
+        this(file, DEFAULT_BATCH_BYTES);
+    }
+
+    EnlistmentJournal(Path file, int batchBytes){
+        this(file, batchBytes, completeLength(file));
+    }
+
+    // for a file just replayed: appends after replay's end offset, saving a second scan of the file
+    EnlistmentJournal(Path file, int batchBytes, long completeLength){
+        notNull(file);
+        isTrue(batchBytes >= MAX_RECORD_BYTES, "batchBytes must fit at least one record, was: " + batchBytes);
+        isTrue(completeLength >= 0, "completeLength must not be negative, was: " + completeLength);
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            // drop a torn or garbled tail, so new records follow the last complete one
+            if (channel.size() > completeLength) {
+                channel.truncate(completeLength);
+                channel.force(true);
+            }
+            channel.position(channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.pending = ByteBuffer.allocate(batchBytes);
+        this.writing = ByteBuffer.allocate(batchBytes);
+        this.writer = new Thread(this::writeBatches, "enlistment-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void enlisted(Student student, Section section){
+        journal(List.of(section), ENLISTED, student.getStudentNumber(), Section::getSectionID);
+    }
+
+    // one wait for the whole block: its records are in order, so the last one being durable covers the rest
+    @Override
+    public void blockEnlisted(Student student, List<Section> block){
+        journal(block, ENLISTED, student.getStudentNumber(), Section::getSectionID);
+    }
+
+    @Override
+    public void cancelled(Student student, Section section){
+        journal(List.of(section), CANCELLED, student.getStudentNumber(), Section::getSectionID);
+    }
+
+    @Override
+    public void subjectTaken(Student student, Subject subject){
+        journal(List.of(subject), SUBJECT_TAKEN, student.getStudentNumber(), Subject::getSubjectID);
+    }
+
+    private <T> void journal(List<T> targets, byte type, int studentNumber, Function<T, String> id){
+        try {
+            long last = 0;
+            for (T target : targets) {
+                last = append(type, studentNumber, id.apply(target));
+            }
+            awaitDurable(last);
+        } catch (RuntimeException e) {
+            // the records appended may still reach the file, but none of them was confirmed
+            lostEvents.add(targets.size());
+            lastLoss = e;
+        }
+    }
+
+    // events applied to students and sections that the journal could not make durable; anything but 0 means a
+    // replay of this journal will not rebuild the current state
+    long getLostEventCount(){
+        return lostEvents.sum();
+    }
+
+    // why the last lost event was lost, or null
+    RuntimeException getLastLoss(){
+        return lastLoss;
+    }
+
+    // returns the sequence number of the record, to pass to awaitDurable
+    long append(byte type, int studentNumber, String id){
+        notNull(id);
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        isTrue(idBytes.length <= 255, "id too long for the journal: " + id);
+        // encoded and checksummed before taking the lock
+        byte[] record = new byte[HEADER_BYTES + idBytes.length + CHECKSUM_BYTES];
+        ByteBuffer encoder = ByteBuffer.wrap(record).put(type).putInt(studentNumber).put((byte) idBytes.length).put(idBytes);
+        encoder.putInt(checksum(record, record.length - CHECKSUM_BYTES));
+        synchronized (lock) {
+            while (!closed && failure == null && pending.remaining() < record.length) {
+                await();
+            }
+            checkUsable();
+            pending.put(record);
+            appended++;
+            if (writerWaiting) {
+                lock.notifyAll();
+            }
+            return appended;
+        }
+    }
+
+    void awaitDurable(long sequence){
+        synchronized (lock) {
+            while (durable < sequence && failure == null && !writerDone) {
+                await();
+            }
+            if (durable < sequence) {
+                checkUsable();
+                throw new IllegalStateException("Journal closed before record " + sequence + " was written");
+            }
+        }
+    }
+
+    void flush(){
+        long sequence;
+        synchronized (lock) {
+            sequence = appended;
+        }
+        awaitDurable(sequence);
+    }
+
+    @Override
+    public void close(){
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        synchronized (lock) {
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+        }
+    }
+
+    private void writeBatches(){
+        try {
+            writeUntilClosed();
+        } finally {
+            synchronized (lock) {
+                writerDone = true;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void writeUntilClosed(){
+        while (true) {
+            long batchEnd;
+            synchronized (lock) {
+                while (pending.position() == 0 && !closed) {
+                    writerWaiting = true;
+                    await();
+                }
+                writerWaiting = false;
+                if (pending.position() == 0) {
+                    return;
+                }
+                ByteBuffer full = pending;
+                pending = writing;
+                writing = full;
+                batchEnd = appended;
+                // appenders blocked on a full batch can continue into the swapped-in buffer
+                lock.notifyAll();
+            }
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) {
+                    channel.write(writing);
+                }
+                channel.force(false);
+                writing.clear();
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            synchronized (lock) {
+                durable = batchEnd;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void checkUsable(){
+        if (failure != null) {
+            throw new UncheckedIOException("Journal write failed", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+    }
+
+    private void await(){
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting on the journal", e);
+        }
+    }
+
+    // Rebuilds state by applying every complete record in order, straight onto students and sections without
+    // re-running the enlistment rules: the log already holds the outcome. Run it before attaching a journal as a listener,
+    // and open that journal with the returned end offset.
+    static Replay replay(Path file, Function<Integer, Student> students, Function<String, Section> sections, Function<String, Subject> subjects){
+        notNull(file);
+        notNull(students);
+        notNull(sections);
+        notNull(subjects);
+        return scan(file, (type, studentNumber, id) -> apply(type, lookup(students, studentNumber), id, sections, subjects));
+    }
+
+    // where the complete records of a journal file end; 0 for a file not created yet
+    static long completeLength(Path file){
+        notNull(file);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        return scan(file, (type, studentNumber, id) -> {
+        }).getEndOffset();
+    }
+
+    private static Replay scan(Path file, RecordHandler handler){
+        long records = 0;
+        long position = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            byte[] record = new byte[MAX_RECORD_BYTES];
+            ByteBuffer decoder = ByteBuffer.wrap(record);
+            boolean intact = true;
+            while (intact && position < size) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REPLAY_WINDOW_BYTES, size - position));
+                int consumed = 0;
+                while (window.remaining() >= HEADER_BYTES) {
+                    int length = HEADER_BYTES + (window.get(window.position() + HEADER_BYTES - 1) & 0xFF) + CHECKSUM_BYTES;
+                    if (window.remaining() < length) {
+                        break;
+                    }
+                    window.get(record, 0, length);
+                    if (decoder.getInt(length - CHECKSUM_BYTES) != checksum(record, length - CHECKSUM_BYTES)) {
+                        intact = false;
+                        break;
+                    }
+                    String id = new String(record, HEADER_BYTES, length - HEADER_BYTES - CHECKSUM_BYTES, StandardCharsets.UTF_8);
+                    handler.accept(record[0], decoder.getInt(1), id);
+                    consumed = window.position();
+                    records++;
+                }
+                if (consumed == 0) {
+                    break;
+                }
+                position += consumed;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Replay(records, position);
+    }
+
+    private static int checksum(byte[] bytes, int length){
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private interface RecordHandler {
+        void accept(byte type, int studentNumber, String id);
+    }
+
+    static final class Replay {
+        private final long recordCount;
+        private final long endOffset;
+
+        private Replay(long recordCount, long endOffset){
+            this.recordCount = recordCount;
+            this.endOffset = endOffset;
+        }
+
+        long getRecordCount(){
+            return recordCount;
+        }
+
+        // just past the last complete record: where appending resumes
+        long getEndOffset(){
+            return endOffset;
+        }
+    }
+
+    private static void apply(byte type, Student student, String id, Function<String, Section> sections, Function<String, Subject> subjects){
+        switch (type) {
+            case ENLISTED:
+                student.restoreEnlistment(lookup(sections, id));
+                break;
+            case CANCELLED:
+                student.restoreCancellation(lookup(sections, id));
+                break;
+            case SUBJECT_TAKEN:
+                student.restoreTakenSubject(lookup(subjects, id));
+                break;
+            default:
+                throw new IllegalStateException("Corrupt journal record type " + type);
+        }
+    }
+
+    private static <K, V> V lookup(Function<K, V> source, K key){
+        V value = source.apply(key);
+        if (value == null) {
+            throw new IllegalStateException("Journal refers to unknown " + key);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,30 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.List;
+
+// Called by Student while it holds its own lock, right after the change, so events of one student arrive in order.
+// The seat events come from Section on whichever thread changed the seat count, with no lock held.
+// Implementations must be quick and must not call back into the student.
+interface EnlistmentListener {
+    default void enlisted(Student student, Section section){
+    }
+
+    // a whole block from Student.enlistBlock; override to apply it as one change
+    default void blockEnlisted(Student student, List<Section> block){
+        block.forEach(section -> enlisted(student, section));
+    }
+
+    default void cancelled(Student student, Section section){
+    }
+
+    default void subjectTaken(Student student, Subject subject){
+    }
+
+    // a seat was taken or given back, including seats held only while an enlistment is being checked
+    default void seatsChanged(Section section){
+    }
+
+    // an enlistment was turned away because the section is full
+    default void capacityReached(Section section){
+    }
+}
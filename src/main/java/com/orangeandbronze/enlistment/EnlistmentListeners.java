@@ -0,0 +1,58 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+final class EnlistmentListeners {
+    private static final List<EnlistmentListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private EnlistmentListeners(){
+    }
+
+    static void add(EnlistmentListener listener){
+        notNull(listener);
+        LISTENERS.add(listener);
+    }
+
+    static void remove(EnlistmentListener listener){
+        LISTENERS.remove(listener);
+    }
+
+    static void enlisted(Student student, Section section){
+        for (EnlistmentListener listener : LISTENERS) {
+            listener.enlisted(student, section);
+        }
+    }
+
+    static void blockEnlisted(Student student, List<Section> block){
+        for (EnlistmentListener listener : LISTENERS) {
+            listener.blockEnlisted(student, block);
+        }
+    }
+
+    static void cancelled(Student student, Section section){
+        for (EnlistmentListener listener : LISTENERS) {
+            listener.cancelled(student, section);
+        }
+    }
+
+    static void subjectTaken(Student student, Subject subject){
+        for (EnlistmentListener listener : LISTENERS) {
+            listener.subjectTaken(student, subject);
+        }
+    }
+
+    static void seatsChanged(Section section){
+        for (EnlistmentListener listener : LISTENERS) {
+            listener.seatsChanged(section);
+        }
+    }
+
+    static void capacityReached(Section section){
+        for (EnlistmentListener listener : LISTENERS) {
+            listener.capacityReached(section);
+        }
+    }
+}
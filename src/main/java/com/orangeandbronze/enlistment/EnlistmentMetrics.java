@@ -0,0 +1,158 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.*;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.commons.lang3.Validate.noNullElements;
+
+// Rejections are counted exactly, one striped counter per rule exception. Latency is timed for a random one in
+// SAMPLE_EVERY calls: a System.nanoTime pair costs about half an enlistment, so timing every call would not
+// fit the overhead budget. Fill rates are read from the tracked sections when asked for, never on the enlist path.
+class EnlistmentMetrics implements EnlistmentMetricsMXBean {
+    static final int SAMPLE_EVERY = 256;
+    static final double[] QUANTILES = {50, 90, 99, 99.9};
+    static final String OBJECT_NAME = "com.orangeandbronze.enlistment:type=EnlistmentMetrics";
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+    private static final EnlistmentMetrics GLOBAL = new EnlistmentMetrics();
+
+    private volatile boolean enabled = true;
+    private final Map<Class<?>, LongAdder> rejections = new ConcurrentHashMap<>();
+    private final LatencyHistogram enlistLatency = new LatencyHistogram();
+    private final LatencyHistogram cancelLatency = new LatencyHistogram();
+    private final Map<String, Section> trackedSections = new ConcurrentSkipListMap<>();
+
+    EnlistmentMetrics(){
+        List.of(CapacityReachedException.class, MaxUnitsException.class, NotTakenPreRequisiteException.class,
+                RoomConflictException.class, SameSubjectException.class, ScheduleConflictException.class,
+                SubjectNotInProgramException.class, WaitlistFullException.class)
+                .forEach(type -> rejections.put(type, new LongAdder()));
+    }
+
+    static EnlistmentMetrics global(){
+        return GLOBAL;
+    }
+
+    long startTimer(){
+        if (!enabled || (ThreadLocalRandom.current().nextInt() & (SAMPLE_EVERY - 1)) != 0) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    void recordEnlist(long start){
+        if (start != NOT_SAMPLED) {
+            enlistLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    void recordCancel(long start){
+        if (start != NOT_SAMPLED) {
+            cancelLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    // counts the rejection and hands the exception back, so check methods can write: throw metrics.rejected(new ...)
+    <E extends RuntimeException> E rejected(E rejection){
+        if (enabled) {
+            rejections.computeIfAbsent(rejection.getClass(), type -> new LongAdder()).increment();
+        }
+        return rejection;
+    }
+
+    void trackSections(Collection<Section> sections){
+        noNullElements(sections);
+        sections.forEach(section -> trackedSections.put(section.getSectionID(), section));
+    }
+
+    void untrackSections(Collection<Section> sections){
+        noNullElements(sections);
+        sections.forEach(section -> trackedSections.remove(section.getSectionID(), section));
+    }
+
+    LatencyHistogram getEnlistLatency(){
+        return enlistLatency;
+    }
+
+    LatencyHistogram getCancelLatency(){
+        return cancelLatency;
+    }
+
+    void registerMBean(){
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    @Override
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled){
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Map<String, Long> getRejections(){
+        Map<String, Long> counts = new TreeMap<>();
+        rejections.forEach((type, count) -> counts.put(type.getSimpleName(), count.sum()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getEnlistLatencyNanos(){
+        return summarize(enlistLatency);
+    }
+
+    @Override
+    public Map<String, Long> getCancelLatencyNanos(){
+        return summarize(cancelLatency);
+    }
+
+    @Override
+    // a section without a room is left out, and a room with no seats reads as 0 rather than NaN or Infinity
+    public Map<String, Double> getSectionFillRates(){
+        Map<String, Double> fillRates = new LinkedHashMap<>();
+        trackedSections.forEach((sectionID, section) -> {
+            Room room = section.getRoom();
+            if (room != null) {
+                int capacity = room.getCapacity();
+                fillRates.put(sectionID, capacity > 0 ? (double) section.getNumStudents() / capacity : 0.0);
+            }
+        });
+        return fillRates;
+    }
+
+    @Override
+    public void reset(){
+        rejections.values().forEach(LongAdder::reset);
+        enlistLatency.reset();
+        cancelLatency.reset();
+    }
+
+    static Map<String, Long> summarize(LatencyHistogram histogram){
+        Map<String, Long> summary = new LinkedHashMap<>();
+        summary.put("samples", histogram.getCount());
+        for (double quantile : QUANTILES) {
+            summary.put("p" + String.valueOf(quantile).replace(".0", "").replace(".", ""), histogram.getValueAtPercentile(quantile));
+        }
+        summary.put("max", histogram.getMax());
+        return summary;
+    }
+}
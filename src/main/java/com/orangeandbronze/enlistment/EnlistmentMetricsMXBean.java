@@ -0,0 +1,20 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.Map;
+
+// JMX only introspects public MXBean interfaces
+public interface EnlistmentMetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    Map<String, Long> getRejections();
+
+    Map<String, Long> getEnlistLatencyNanos();
+
+    Map<String, Long> getCancelLatencyNanos();
+
+    Map<String, Double> getSectionFillRates();
+
+    void reset();
+}
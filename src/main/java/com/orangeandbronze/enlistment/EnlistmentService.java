@@ -0,0 +1,257 @@
+package com.orangeandbronze.enlistment;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+// Embedded JSON-over-HTTP front for Student and Section, on the JDK's built-in server:
+//   POST   /students/{number}/sections/{sectionID}   enlist
+//   DELETE /students/{number}/sections/{sectionID}   cancel
+//   POST   /students/{number}/cart                   validate a cart, body ["sectionID", ...]
+//   GET    /students/{number}/schedule               current sections
+//   GET    /students/{number}/assessment             fees due
+// At most maxInFlight requests are handled at once; the rest are answered 503 at once instead of queueing,
+// so a rush of connections costs a permit check each rather than a parked request. Without virtual threads the
+// server runs on a pool with a few threads beyond the permits and a short queue. A request that finds even that queue
+// full goes to a small overflow pool that only answers 503; once that is full too, the connection is closed unread.
+// Requests are never parsed on the server's dispatcher thread, so a slow client can hold up a worker but not accepts.
+class EnlistmentService implements AutoCloseable {
+    static final int DEFAULT_MAX_IN_FLIGHT = 1_000;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    static final int REJECTING_THREADS = 16;
+    static final int OVERFLOW_THREADS = 4;
+    static final int OVERFLOW_QUEUE = 64;
+
+    private final Function<Integer, Student> students;
+    private final Function<String, Section> sections;
+    private final Semaphore inFlight;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ExecutorService overflow;
+    // set while an overflow thread runs a request the pool had no room for
+    private final ThreadLocal<Boolean> overflowing = ThreadLocal.withInitial(() -> false);
+
+    EnlistmentService(InetSocketAddress address, Function<Integer, Student> students, Function<String, Section> sections){
+        this(address, students, sections, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    EnlistmentService(InetSocketAddress address, Function<Integer, Student> students, Function<String, Section> sections, int maxInFlight){
+        notNull(address);
+        notNull(students);
+        notNull(sections);
+        isTrue(maxInFlight > 0, "maxInFlight must be positive, was: " + maxInFlight);
+        this.students = students;
+        this.sections = sections;
+        this.inFlight = new Semaphore(maxInFlight);
+        try {
+            this.server = HttpServer.create(address, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // without virtual threads, keep a few threads beyond the permits free to turn requests away
+        this.overflow = new ThreadPoolExecutor(OVERFLOW_THREADS, OVERFLOW_THREADS, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(OVERFLOW_QUEUE));
+        // a RejectedExecutionException from the overflow pool reaches the server, which closes the connection
+        this.executor = VirtualThreads.newExecutor(maxInFlight + REJECTING_THREADS, REJECTING_THREADS, (request, pool) ->
+                overflow.execute(() -> {
+                    overflowing.set(true);
+                    try {
+                        request.run();
+                    } finally {
+                        overflowing.set(false);
+                    }
+                }));
+        this.server.setExecutor(executor);
+        this.server.createContext("/students/", this::handle);
+    }
+
+    EnlistmentService start(){
+        server.start();
+        return this;
+    }
+
+    int getPort(){
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close(){
+        server.stop(0);
+        executor.shutdownNow();
+        overflow.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (overflowing.get() || !inFlight.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, error("Busy", "too many requests in flight"));
+                return;
+            }
+            try {
+                route(exchange);
+            } finally {
+                inFlight.release();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        String method = exchange.getRequestMethod();
+        try {
+            if (path.length < 4 || !path[1].equals("students")) {
+                respond(exchange, 404, error("NotFound", "no such resource"));
+                return;
+            }
+            Student student = find(students, parseStudentNumber(path[2]), "student");
+            String resource = path[3];
+            if (resource.equals("sections") && path.length == 5 && method.equals("POST")) {
+                student.enlist(find(sections, path[4], "section"));
+                respond(exchange, 200, schedule(student));
+            } else if (resource.equals("sections") && path.length == 5 && method.equals("DELETE")) {
+                student.cancelEnlistedSection(find(sections, path[4], "section"));
+                respond(exchange, 200, schedule(student));
+            } else if (resource.equals("cart") && path.length == 4 && method.equals("POST")) {
+                List<Section> cart = new ArrayList<>();
+                for (String sectionID : parseStringArray(readBody(exchange))) {
+                    cart.add(find(sections, sectionID, "section"));
+                }
+                respond(exchange, 200, validation(student.validateCart(cart)));
+            } else if (resource.equals("schedule") && path.length == 4 && method.equals("GET")) {
+                respond(exchange, 200, schedule(student));
+            } else if (resource.equals("assessment") && path.length == 4 && method.equals("GET")) {
+                respond(exchange, 200, "{\"student\":" + student.getStudentNumber() + ",\"amount\":" + student.requestAssessment().toPlainString() + "}");
+            } else {
+                respond(exchange, 404, error("NotFound", "no such resource"));
+            }
+        } catch (NoSuchElementException e) {
+            respond(exchange, 404, error("NotFound", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error("BadRequest", e.getMessage()));
+        } catch (RuntimeException e) {
+            // the enlistment rules throw their own exception types; the name tells the client which rule failed
+            boolean ruleViolated = e.getClass().getPackageName().endsWith(".exceptions");
+            respond(exchange, ruleViolated ? 409 : 500, error(ruleViolated ? e.getClass().getSimpleName() : "InternalError", e.getMessage()));
+        }
+    }
+
+    private static int parseStudentNumber(String value){
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("student number must be an integer, was: " + value);
+        }
+    }
+
+    private static <K, V> V find(Function<K, V> source, K key, String kind){
+        V value = source.apply(key);
+        if (value == null) {
+            throw new NoSuchElementException("no " + kind + " " + key);
+        }
+        return value;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readNBytes(MAX_BODY_BYTES + 1);
+            isTrue(bytes.length <= MAX_BODY_BYTES, "request body larger than " + MAX_BODY_BYTES + " bytes");
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static String schedule(Student student){
+        List<Section> enlisted = new ArrayList<>(student.getSections());
+        enlisted.sort(Comparator.comparing(Section::getSectionID));
+        StringBuilder json = new StringBuilder("{\"student\":").append(student.getStudentNumber())
+                .append(",\"units\":").append(student.getTotalUnits()).append(",\"sections\":[");
+        for (int i = 0; i < enlisted.size(); i++) {
+            Section section = enlisted.get(i);
+            Schedule schedule = section.getSchedule();
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"section\":").append(quote(section.getSectionID()))
+                    .append(",\"subject\":").append(quote(section.getSubject().getSubjectID()))
+                    .append(",\"days\":").append(quote(schedule.getDaysLabel()))
+                    .append(",\"start\":").append(schedule.getPeriod().getStartTime())
+                    .append(",\"end\":").append(schedule.getPeriod().getEndTime())
+                    .append(",\"room\":").append(quote(section.getRoom().toString())).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    static String validation(CartValidation validation){
+        StringBuilder json = new StringBuilder("{");
+        boolean first = true;
+        for (Map.Entry<Section, Set<Violation>> entry : validation.getViolations().entrySet()) {
+            json.append(first ? "" : ",").append(quote(entry.getKey().getSectionID())).append(":[");
+            first = false;
+            boolean firstViolation = true;
+            for (Violation violation : entry.getValue()) {
+                json.append(firstViolation ? "" : ",").append(quote(violation.name()));
+                firstViolation = false;
+            }
+            json.append(']');
+        }
+        return json.append('}').toString();
+    }
+
+    private static String error(String type, String message){
+        return "{\"error\":" + quote(type) + ",\"message\":" + quote(String.valueOf(message)) + "}";
+    }
+
+    static String quote(String value){
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    // a JSON array of plain strings; section IDs are alphanumeric, so escapes are rejected rather than decoded
+    static List<String> parseStringArray(String json){
+        String trimmed = json.trim();
+        isTrue(trimmed.startsWith("[") && trimmed.endsWith("]"), "expected a JSON array of section IDs");
+        String inner = trimmed.substring(1, trimmed.length() - 1).trim();
+        List<String> values = new ArrayList<>();
+        if (inner.isEmpty()) {
+            return values;
+        }
+        for (String element : inner.split(",")) {
+            String value = element.trim();
+            isTrue(value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"") && value.indexOf('\\') < 0,
+                    "expected a quoted section ID, was: " + value);
+            values.add(value.substring(1, value.length() - 1));
+        }
+        return values;
+    }
+}
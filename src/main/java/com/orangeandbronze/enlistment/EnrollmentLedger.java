@@ -0,0 +1,53 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.apache.commons.lang3.Validate.noNullElements;
+
+// Publishes a new EnrollmentSnapshot for every enlist and cancel. Readers take the current snapshot with one volatile
+// read and keep it as long as they like: no lock, no copy, and nothing they do can hold up an enlistment.
+// Each event swaps in a new version with one CAS, copying only the changed paths of the persistent maps.
+// Register it with EnlistmentListeners before enlistment starts, or seed it with the students enlisted so far.
+class EnrollmentLedger implements EnlistmentListener {
+    private final AtomicReference<EnrollmentSnapshot> current = new AtomicReference<>(EnrollmentSnapshot.EMPTY);
+
+    EnrollmentLedger(){
+    }
+
+    EnrollmentLedger(Collection<Student> students){
+        noNullElements(students);
+        EnrollmentSnapshot seeded = EnrollmentSnapshot.EMPTY;
+        for (Student student : students) {
+            List<Section> sections = student.getSections();
+            seeded = seeded.apply(student, sections, sections, List.of());
+        }
+        current.set(seeded);
+    }
+
+    EnrollmentSnapshot snapshot(){
+        return current.get();
+    }
+
+    @Override
+    public void enlisted(Student student, Section section){
+        publish(student, List.of(section), List.of());
+    }
+
+    @Override
+    public void blockEnlisted(Student student, List<Section> block){
+        publish(student, block, List.of());
+    }
+
+    @Override
+    public void cancelled(Student student, Section section){
+        publish(student, List.of(), List.of(section));
+    }
+
+    // called under the student's lock, so the student's list is the state right after this event
+    private void publish(Student student, List<Section> enlisted, List<Section> cancelled){
+        List<Section> sections = student.getSections();
+        current.updateAndGet(snapshot -> snapshot.apply(student, sections, enlisted, cancelled));
+    }
+}
@@ -0,0 +1,74 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+// Immutable enrollment state as of one epoch: each student's sections and each section's class list.
+// Both come from the same sequence of events, so a roster size always matches the students holding that section.
+// Section.getNumStudents() can run ahead of it, since it also counts seats held by enlistments still being checked.
+final class EnrollmentSnapshot {
+    static final EnrollmentSnapshot EMPTY = new EnrollmentSnapshot(0, PersistentHashMap.empty(), PersistentHashMap.empty());
+
+    private final long epoch;
+    private final PersistentHashMap<Integer, List<Section>> sectionsByStudent;
+    private final PersistentHashMap<Section, PersistentHashMap<Integer, Student>> rosters;
+
+    private EnrollmentSnapshot(long epoch, PersistentHashMap<Integer, List<Section>> sectionsByStudent,
+                               PersistentHashMap<Section, PersistentHashMap<Integer, Student>> rosters){
+        this.epoch = epoch;
+        this.sectionsByStudent = sectionsByStudent;
+        this.rosters = rosters;
+    }
+
+    // sections is the student's list after the change; Student never mutates it, so it is shared rather than copied
+    EnrollmentSnapshot apply(Student student, List<Section> sections, Collection<Section> enlisted, Collection<Section> cancelled){
+        notNull(student);
+        notNull(sections);
+        Integer studentNumber = student.getStudentNumber();
+        PersistentHashMap<Section, PersistentHashMap<Integer, Student>> newRosters = rosters;
+        for (Section section : enlisted) {
+            newRosters = newRosters.put(section, newRosters.getOrDefault(section, PersistentHashMap.empty()).put(studentNumber, student));
+        }
+        for (Section section : cancelled) {
+            PersistentHashMap<Integer, Student> roster = newRosters.getOrDefault(section, PersistentHashMap.empty()).remove(studentNumber);
+            newRosters = roster.isEmpty() ? newRosters.remove(section) : newRosters.put(section, roster);
+        }
+        PersistentHashMap<Integer, List<Section>> newSections = sections.isEmpty()
+                ? sectionsByStudent.remove(studentNumber) : sectionsByStudent.put(studentNumber, sections);
+        return new EnrollmentSnapshot(epoch + 1, newSections, newRosters);
+    }
+
+    long getEpoch(){
+        return epoch;
+    }
+
+    List<Section> getSections(int studentNumber){
+        return sectionsByStudent.getOrDefault(studentNumber, List.of());
+    }
+
+    int getNumStudents(Section section){
+        return rosters.getOrDefault(section, PersistentHashMap.empty()).size();
+    }
+
+    int getEnrolledStudentCount(){
+        return sectionsByStudent.size();
+    }
+
+    void forEachStudent(BiConsumer<Integer, List<Section>> action){
+        sectionsByStudent.forEach(action);
+    }
+
+    void forEachEnrollee(Section section, Consumer<Student> action){
+        notNull(action);
+        rosters.getOrDefault(section, PersistentHashMap.empty()).forEach((studentNumber, student) -> action.accept(student));
+    }
+
+    void forEachSection(BiConsumer<Section, Integer> action){
+        notNull(action);
+        rosters.forEach((section, roster) -> action.accept(section, roster.size()));
+    }
+}
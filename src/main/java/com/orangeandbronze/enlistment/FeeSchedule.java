@@ -0,0 +1,55 @@
+package com.orangeandbronze.enlistment;
+
+import java.math.BigDecimal;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+// all amounts in centavos, VAT in basis points (1200 = 12%)
+class FeeSchedule {
+    static final FeeSchedule DEFAULT = new FeeSchedule(200_000, 100_000, 300_000, 1_200);
+
+    private static final long BASIS_POINTS = 10_000;
+
+    private final long perUnitCents;
+    private final long labFeeCents;
+    private final long miscellaneousCents;
+    private final long vatBasisPoints;
+
+    FeeSchedule(long perUnitCents, long labFeeCents, long miscellaneousCents, long vatBasisPoints){
+        isTrue(perUnitCents >= 0, "perUnitCents must not be negative, was: " + perUnitCents);
+        isTrue(labFeeCents >= 0, "labFeeCents must not be negative, was: " + labFeeCents);
+        isTrue(miscellaneousCents >= 0, "miscellaneousCents must not be negative, was: " + miscellaneousCents);
+        isTrue(vatBasisPoints >= 0, "vatBasisPoints must not be negative, was: " + vatBasisPoints);
+        this.perUnitCents = perUnitCents;
+        this.labFeeCents = labFeeCents;
+        this.miscellaneousCents = miscellaneousCents;
+        this.vatBasisPoints = vatBasisPoints;
+    }
+
+    long subtotalCents(int units, int labSections){
+        return units * perUnitCents + labSections * labFeeCents;
+    }
+
+    // same result as Student.requestAssessment: nothing is due without sections, otherwise
+    // (subtotal + miscellaneous) plus VAT, rounded HALF_EVEN to the centavo
+    long assessCents(int sections, int units, int labSections){
+        return assessCents(sections, subtotalCents(units, labSections));
+    }
+
+    long assessCents(int sections, long subtotalCents){
+        if (sections == 0) {
+            return 0;
+        }
+        long amount = (subtotalCents + miscellaneousCents) * (BASIS_POINTS + vatBasisPoints);
+        long cents = amount / BASIS_POINTS;
+        long remainder = amount % BASIS_POINTS;
+        if (remainder * 2 > BASIS_POINTS || (remainder * 2 == BASIS_POINTS && (cents & 1) == 1)) {
+            cents++;
+        }
+        return cents;
+    }
+
+    static BigDecimal toAmount(long cents){
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,112 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+
+// HDR-style log-linear histogram: 16 linear sub-buckets per power of two, so any recorded value is reported
+// within 1/16 (6.25%) of its true value, over the whole range of a long, in under 8 KB per stripe.
+// Threads write to different stripes to keep hot buckets from bouncing between cores.
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int HALF_SUB_BUCKETS = 1 << (SUB_BUCKET_BITS - 1);
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 2) * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray[] stripes;
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+    // exact, unlike the buckets, so a summary's _sum and the mean derived from it are not rounded up
+    private final LongAdder sum = new LongAdder();
+
+    LatencyHistogram(){
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(16, Runtime.getRuntime().availableProcessors())) * 2 - 1);
+        stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS);
+        }
+    }
+
+    void record(long value){
+        long recorded = Math.max(0, value);
+        stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)].incrementAndGet(indexOf(recorded));
+        max.accumulate(recorded);
+        sum.add(recorded);
+    }
+
+    static int indexOf(long value){
+        int magnitude = 64 - Long.numberOfLeadingZeros(value);
+        if (magnitude <= SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long highestValueIn(int index){
+        if (index < 2 * HALF_SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF_SUB_BUCKETS - 1;
+        long subBucket = index - (long) shift * HALF_SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    long getCount(){
+        long count = 0;
+        for (long bucket : counts()) {
+            count += bucket;
+        }
+        return count;
+    }
+
+    // the highest value of the bucket holding the given percentile, as HdrHistogram reports it; 0 when empty
+    long getValueAtPercentile(double percentile){
+        inclusiveBetween(0.0, 100.0, percentile);
+        long[] counts = counts();
+        long total = 0;
+        for (long bucket : counts) {
+            total += bucket;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    long getMax(){
+        return max.get();
+    }
+
+    long getSum(){
+        return sum.sum();
+    }
+
+    void reset(){
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                stripe.set(i, 0);
+            }
+        }
+        max.reset();
+        sum.reset();
+    }
+
+    private long[] counts(){
+        long[] counts = new long[BUCKETS];
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += stripe.get(i);
+            }
+        }
+        return counts;
+    }
+}
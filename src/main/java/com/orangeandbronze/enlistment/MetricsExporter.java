@@ -0,0 +1,7 @@
+package com.orangeandbronze.enlistment;
+
+import java.io.IOException;
+
+interface MetricsExporter {
+    void export(EnlistmentMetrics metrics, Appendable out) throws IOException;
+}
@@ -0,0 +1,279 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+// Immutable hash array mapped trie: 32-way branches picked by 5 hash bits per level. put and remove copy only the
+// path from the root to the changed entry and share everything else, so old versions stay valid and cost little.
+// A slot holds an Entry, a Collision (entries with the same full hash) or a child Branch.
+final class PersistentHashMap<K, V> {
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final Object root;
+    private final int size;
+
+    private PersistentHashMap(Object root, int size){
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty(){
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    int size(){
+        return size;
+    }
+
+    boolean isEmpty(){
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(Object key){
+        notNull(key);
+        int hash = spread(key.hashCode());
+        Object node = root;
+        for (int shift = 0; node instanceof Branch; shift += BITS) {
+            Branch branch = (Branch) node;
+            int bit = bit(hash, shift);
+            if ((branch.bitmap & bit) == 0) {
+                return null;
+            }
+            node = branch.slots[branch.index(bit)];
+        }
+        if (node instanceof Entry) {
+            Entry entry = (Entry) node;
+            return entry.hash == hash && entry.key.equals(key) ? (V) entry.value : null;
+        }
+        if (node instanceof Collision) {
+            for (Entry entry : ((Collision) node).entries) {
+                if (entry.key.equals(key)) {
+                    return (V) entry.value;
+                }
+            }
+        }
+        return null;
+    }
+
+    V getOrDefault(Object key, V defaultValue){
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    PersistentHashMap<K, V> put(K key, V value){
+        notNull(key);
+        notNull(value);
+        Entry entry = new Entry(spread(key.hashCode()), key, value);
+        int[] added = new int[1];
+        Object newRoot = put(root, 0, entry, added);
+        return newRoot == root ? this : new PersistentHashMap<>(newRoot, size + added[0]);
+    }
+
+    PersistentHashMap<K, V> remove(Object key){
+        notNull(key);
+        Object newRoot = remove(root, 0, spread(key.hashCode()), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<? super K, ? super V> action){
+        notNull(action);
+        forEach(root, (BiConsumer<Object, Object>) action);
+    }
+
+    private static void forEach(Object node, BiConsumer<Object, Object> action){
+        if (node instanceof Entry) {
+            Entry entry = (Entry) node;
+            action.accept(entry.key, entry.value);
+        } else if (node instanceof Collision) {
+            for (Entry entry : ((Collision) node).entries) {
+                action.accept(entry.key, entry.value);
+            }
+        } else if (node instanceof Branch) {
+            for (Object slot : ((Branch) node).slots) {
+                forEach(slot, action);
+            }
+        }
+    }
+
+    private static Object put(Object node, int shift, Entry entry, int[] added){
+        if (node == null) {
+            added[0] = 1;
+            return entry;
+        }
+        if (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            int bit = bit(entry.hash, shift);
+            int index = branch.index(bit);
+            if ((branch.bitmap & bit) == 0) {
+                added[0] = 1;
+                Object[] slots = new Object[branch.slots.length + 1];
+                System.arraycopy(branch.slots, 0, slots, 0, index);
+                slots[index] = entry;
+                System.arraycopy(branch.slots, index, slots, index + 1, branch.slots.length - index);
+                return new Branch(branch.bitmap | bit, slots);
+            }
+            Object child = branch.slots[index];
+            Object newChild = put(child, shift + BITS, entry, added);
+            return newChild == child ? branch : branch.with(index, newChild);
+        }
+        int nodeHash = hashOf(node);
+        if (nodeHash != entry.hash) {
+            added[0] = 1;
+            return split(node, nodeHash, entry, shift);
+        }
+        if (node instanceof Entry) {
+            Entry existing = (Entry) node;
+            if (existing.key.equals(entry.key)) {
+                return Objects.equals(existing.value, entry.value) ? existing : entry;
+            }
+            added[0] = 1;
+            return new Collision(new Entry[]{existing, entry});
+        }
+        Entry[] entries = ((Collision) node).entries;
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].key.equals(entry.key)) {
+                if (Objects.equals(entries[i].value, entry.value)) {
+                    return node;
+                }
+                Entry[] replaced = entries.clone();
+                replaced[i] = entry;
+                return new Collision(replaced);
+            }
+        }
+        added[0] = 1;
+        Entry[] grown = Arrays.copyOf(entries, entries.length + 1);
+        grown[entries.length] = entry;
+        return new Collision(grown);
+    }
+
+    // two leaves with different hashes: branch until their hash bits part
+    private static Object split(Object leaf, int leafHash, Entry entry, int shift){
+        int leafBit = bit(leafHash, shift);
+        int entryBit = bit(entry.hash, shift);
+        if (leafBit == entryBit) {
+            return new Branch(leafBit, new Object[]{split(leaf, leafHash, entry, shift + BITS)});
+        }
+        Object[] slots = Integer.compareUnsigned(leafBit, entryBit) < 0 ? new Object[]{leaf, entry} : new Object[]{entry, leaf};
+        return new Branch(leafBit | entryBit, slots);
+    }
+
+    private static Object remove(Object node, int shift, int hash, Object key){
+        if (node == null) {
+            return null;
+        }
+        if (node instanceof Entry) {
+            Entry entry = (Entry) node;
+            return entry.hash == hash && entry.key.equals(key) ? null : node;
+        }
+        if (node instanceof Collision) {
+            Entry[] entries = ((Collision) node).entries;
+            if (entries[0].hash != hash) {
+                return node;
+            }
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].key.equals(key)) {
+                    if (entries.length == 2) {
+                        return entries[1 - i];
+                    }
+                    Entry[] shrunk = new Entry[entries.length - 1];
+                    System.arraycopy(entries, 0, shrunk, 0, i);
+                    System.arraycopy(entries, i + 1, shrunk, i, shrunk.length - i);
+                    return new Collision(shrunk);
+                }
+            }
+            return node;
+        }
+        Branch branch = (Branch) node;
+        int bit = bit(hash, shift);
+        if ((branch.bitmap & bit) == 0) {
+            return node;
+        }
+        int index = branch.index(bit);
+        Object child = branch.slots[index];
+        Object newChild = remove(child, shift + BITS, hash, key);
+        if (newChild == child) {
+            return node;
+        }
+        if (newChild == null) {
+            if (branch.slots.length == 1) {
+                return null;
+            }
+            Object[] slots = new Object[branch.slots.length - 1];
+            System.arraycopy(branch.slots, 0, slots, 0, index);
+            System.arraycopy(branch.slots, index + 1, slots, index, slots.length - index);
+            // a branch left with one leaf collapses into it, keeping paths as short as after plain inserts
+            if (slots.length == 1 && !(slots[0] instanceof Branch)) {
+                return slots[0];
+            }
+            return new Branch(branch.bitmap & ~bit, slots);
+        }
+        if (branch.slots.length == 1 && !(newChild instanceof Branch)) {
+            return newChild;
+        }
+        return branch.with(index, newChild);
+    }
+
+    private static int hashOf(Object leaf){
+        return leaf instanceof Entry ? ((Entry) leaf).hash : ((Collision) leaf).entries[0].hash;
+    }
+
+    private static int bit(int hash, int shift){
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    // String and small-integer keys differ mostly in the low bits; mix the high bits in so the first levels spread well
+    private static int spread(int hash){
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Entry {
+        final int hash;
+        final Object key;
+        final Object value;
+
+        Entry(int hash, Object key, Object value){
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class Collision {
+        final Entry[] entries;
+
+        Collision(Entry[] entries){
+            this.entries = entries;
+        }
+    }
+
+    private static final class Branch {
+        final int bitmap;
+        final Object[] slots;
+
+        Branch(int bitmap, Object[] slots){
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        int index(int bit){
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        Branch with(int index, Object slot){
+            Object[] copy = slots.clone();
+            copy[index] = slot;
+            return new Branch(bitmap, copy);
+        }
+    }
+}
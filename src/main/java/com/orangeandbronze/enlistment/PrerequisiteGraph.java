@@ -0,0 +1,114 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.PrerequisiteCycleException;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.noNullElements;
+import static org.apache.commons.lang3.Validate.notNull;
+
+// subjects are indexed in topological order, prerequisites first, so each closure is built from already finished ones
+class PrerequisiteGraph {
+    private final Map<Subject, Integer> indexes = new HashMap<>();
+    private final List<Subject> subjects = new ArrayList<>();
+    private final SubjectSet[] closures;
+
+    PrerequisiteGraph(Collection<Subject> subjects){
+        noNullElements(subjects);
+        Map<Subject, Collection<Subject>> prerequisites = new LinkedHashMap<>();
+        Deque<Subject> pending = new ArrayDeque<>(subjects);
+        while (!pending.isEmpty()) {
+            Subject subject = pending.pop();
+            if (!prerequisites.containsKey(subject)) {
+                Collection<Subject> direct = subject.getPrerequisites();
+                prerequisites.put(subject, direct);
+                pending.addAll(direct);
+            }
+        }
+
+        Map<Subject, Integer> remaining = new HashMap<>();
+        Map<Subject, List<Subject>> dependents = new HashMap<>();
+        Deque<Subject> ready = new ArrayDeque<>();
+        prerequisites.forEach((subject, direct) -> {
+            remaining.put(subject, direct.size());
+            direct.forEach(prerequisite -> dependents.computeIfAbsent(prerequisite, key -> new ArrayList<>()).add(subject));
+            if (direct.isEmpty()) {
+                ready.add(subject);
+            }
+        });
+        while (!ready.isEmpty()) {
+            Subject subject = ready.poll();
+            indexes.put(subject, this.subjects.size());
+            this.subjects.add(subject);
+            for (Subject dependent : dependents.getOrDefault(subject, Collections.emptyList())) {
+                if (remaining.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (this.subjects.size() < prerequisites.size()) {
+            List<Subject> cyclic = new ArrayList<>(prerequisites.keySet());
+            cyclic.removeAll(indexes.keySet());
+            throw new PrerequisiteCycleException("prerequisites of these subjects form a cycle: " + cyclic);
+        }
+
+        closures = new SubjectSet[this.subjects.size()];
+        for (int i = 0; i < closures.length; i++) {
+            SubjectSet closure = new SubjectSet();
+            for (Subject prerequisite : prerequisites.get(this.subjects.get(i))) {
+                closure.add(prerequisite);
+                closure.addAll(closures[indexes.get(prerequisite)]);
+            }
+            closures[i] = closure;
+        }
+    }
+
+    boolean contains(Subject subject){
+        return indexes.containsKey(subject);
+    }
+
+    int indexOf(Subject subject){
+        return indexes.getOrDefault(subject, -1);
+    }
+
+    List<Subject> getSubjectsInOrder(){
+        return Collections.unmodifiableList(subjects);
+    }
+
+    Collection<Subject> getTransitivePrerequisites(Subject subject){
+        return Collections.unmodifiableSet(closureOf(subject));
+    }
+
+    // every subject that needs the given one somewhere down its prerequisite chain, in topological order
+    Collection<Subject> getUnlockedBy(Subject subject){
+        int index = indexOf(subject);
+        List<Subject> unlocked = new ArrayList<>();
+        if (index >= 0) {
+            // the graph's own instance, whose id is the one its closures use
+            int id = subjects.get(index).getId();
+            for (int i = index + 1; i < closures.length; i++) {
+                if (closures[i].containsId(id)) {
+                    unlocked.add(subjects.get(i));
+                }
+            }
+        }
+        return unlocked;
+    }
+
+    // whole prerequisite chain for subjects in the graph, direct prerequisites otherwise;
+    // allocation-free when takenSubjects is a SubjectSet
+    boolean hasTakenPrerequisites(Subject subject, Collection<Subject> takenSubjects){
+        notNull(subject);
+        Integer index = indexes.get(subject);
+        return index == null ? subject.hasPrerequisitesIn(takenSubjects) : takenSubjects.containsAll(closures[index]);
+    }
+
+    private SubjectSet closureOf(Subject subject){
+        notNull(subject);
+        Integer index = indexes.get(subject);
+        if (index == null) {
+            throw new IllegalArgumentException("subject " + subject + " is not in the prerequisite graph");
+        }
+        return closures[index];
+    }
+}
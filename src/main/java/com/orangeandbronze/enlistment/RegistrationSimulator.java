@@ -0,0 +1,141 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+// Rehearses registration day: every student of a SyntheticUniversity registers at the same moment on its own
+// (virtual) thread. A student picks the subjects of their year, tries random sections of each with a few retries,
+// then drops and swaps some of them. Each student's choices come from a Random seeded by the config seed and
+// the student number, so the workload is reproducible; only the interleaving varies between runs.
+class RegistrationSimulator {
+    private final SimulationConfig config;
+
+    private final LatencyHistogram enlistLatency = new LatencyHistogram();
+    private final LatencyHistogram cancelLatency = new LatencyHistogram();
+    private final Map<String, LongAdder> rejections = new ConcurrentHashMap<>();
+    private final LongAdder enlistAttempts = new LongAdder();
+    private final LongAdder enlisted = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+
+    RegistrationSimulator(SimulationConfig config){
+        notNull(config);
+        this.config = config;
+    }
+
+    SimulationReport run(){
+        return run(new SyntheticUniversity(config));
+    }
+
+    SimulationReport run(SyntheticUniversity university){
+        notNull(university);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = VirtualThreads.newExecutor(config.fallbackThreads);
+        long elapsed;
+        try {
+            List<Future<?>> registrations = new ArrayList<>();
+            for (Student student : university.getStudents()) {
+                registrations.add(executor.submit(() -> {
+                    start.await();
+                    register(student, university);
+                    return null;
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for (Future<?> registration : registrations) {
+                registration.get();
+            }
+            elapsed = System.nanoTime() - startNanos;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("a registration failed unexpectedly", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return report(university, elapsed);
+    }
+
+    private void register(Student student, SyntheticUniversity university){
+        Random random = new Random(config.seed * 31 + student.getStudentNumber());
+        List<Subject> toTake = university.getSubjectsToTake(student);
+        Collections.shuffle(toTake, random);
+        for (Subject subject : toTake.subList(0, Math.min(config.subjectsPerStudent, toTake.size()))) {
+            tryEnlist(student, university.getSections(subject), null, random);
+        }
+        for (Section section : student.getSections()) {
+            if (random.nextDouble() < config.dropChance) {
+                long start = System.nanoTime();
+                student.cancelEnlistedSection(section);
+                cancelLatency.record(System.nanoTime() - start);
+                cancelled.increment();
+                tryEnlist(student, university.getSections(section.getSubject()), section, random);
+            }
+        }
+    }
+
+    private void tryEnlist(Student student, List<Section> sections, Section excluded, Random random){
+        if (sections.isEmpty()) {
+            return;
+        }
+        for (int attempt = 0; attempt <= config.retriesPerSubject; attempt++) {
+            Section section = sections.get(random.nextInt(sections.size()));
+            if (section.equals(excluded)) {
+                continue;
+            }
+            enlistAttempts.increment();
+            long start = System.nanoTime();
+            try {
+                student.enlist(section);
+                enlisted.increment();
+                return;
+            } catch (CapacityReachedException | MaxUnitsException | NotTakenPreRequisiteException | RoomConflictException
+                     | SameSubjectException | ScheduleConflictException | SubjectNotInProgramException e) {
+                // only the enlistment rules' refusals; anything else is a bug and fails the run
+                rejections.computeIfAbsent(e.getClass().getSimpleName(), type -> new LongAdder()).increment();
+            } finally {
+                enlistLatency.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private SimulationReport report(SyntheticUniversity university, long elapsedNanos){
+        Map<Section, Integer> holders = new HashMap<>();
+        for (Student student : university.getStudents()) {
+            student.getSections().forEach(section -> holders.merge(section, 1, Integer::sum));
+        }
+        List<String> overCapacity = new ArrayList<>();
+        List<String> wrongCount = new ArrayList<>();
+        for (Section section : university.getSections()) {
+            if (section.getNumStudents() > section.getRoom().getCapacity()) {
+                overCapacity.add(section.getSectionID());
+            }
+            if (section.getNumStudents() != holders.getOrDefault(section, 0)) {
+                wrongCount.add(section.getSectionID());
+            }
+        }
+        Map<String, Long> rejectionCounts = new HashMap<>();
+        rejections.forEach((type, count) -> rejectionCounts.put(type, count.sum()));
+        return new SimulationReport(university.getStudents().size(), enlistAttempts.sum(), enlisted.sum(), cancelled.sum(), elapsedNanos,
+                VirtualThreads.isAvailable(), EnlistmentMetrics.summarize(enlistLatency), EnlistmentMetrics.summarize(cancelLatency),
+                rejectionCounts, overCapacity, wrongCount);
+    }
+
+    // usage: RegistrationSimulator [seed] [students]
+    public static void main(String[] args){
+        SimulationConfig config = new SimulationConfig();
+        if (args.length > 0) {
+            config.seed(Long.parseLong(args[0]));
+        }
+        if (args.length > 1) {
+            config.students(Integer.parseInt(args[1]), config.subjectsPerStudent);
+        }
+        System.out.print(new RegistrationSimulator(config).run());
+    }
+}
@@ -25,6 +25,14 @@ public class Room {
         return no_of_students >= capacity;
     }
 
+    String getRoomName() {
+        return roomName;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,39 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.*;
+
+class RoomAssignment {
+    private final Map<SectionPlan, Room> rooms;
+    private final List<SectionPlan> unassignable;
+
+    RoomAssignment(Map<SectionPlan, Room> rooms, List<SectionPlan> unassignable){
+        this.rooms = Collections.unmodifiableMap(new LinkedHashMap<>(rooms));
+        this.unassignable = List.copyOf(unassignable);
+    }
+
+    Optional<Room> getRoom(SectionPlan plan){
+        return Optional.ofNullable(rooms.get(plan));
+    }
+
+    Map<SectionPlan, Room> getRooms(){
+        return rooms;
+    }
+
+    List<SectionPlan> getUnassignable(){
+        return unassignable;
+    }
+
+    long getWastedSeats(){
+        long wasted = 0;
+        for (Map.Entry<SectionPlan, Room> entry : rooms.entrySet()) {
+            wasted += entry.getValue().getCapacity() - entry.getKey().getExpectedEnrollment();
+        }
+        return wasted;
+    }
+
+    List<Section> toSections(){
+        List<Section> sections = new ArrayList<>(rooms.size());
+        rooms.forEach((plan, room) -> sections.add(plan.toSection(room)));
+        return sections;
+    }
+}
@@ -0,0 +1,69 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.noNullElements;
+
+// Best-fit decreasing: the largest (then busiest) sections choose first, each taking the smallest room that
+// seats its expected enrollment and is free for its whole schedule. Room bookings are occupancy masks, so
+// trying a room is one mask intersection.
+class RoomAssignmentSolver {
+    private final Room[] rooms;
+    private final int[] capacities;
+
+    RoomAssignmentSolver(Collection<Room> rooms){
+        noNullElements(rooms);
+        this.rooms = new LinkedHashSet<>(rooms).stream()
+                .sorted(Comparator.comparingInt(Room::getCapacity).thenComparing(Room::toString))
+                .toArray(Room[]::new);
+        this.capacities = Arrays.stream(this.rooms).mapToInt(Room::getCapacity).toArray();
+    }
+
+    RoomAssignment solve(Collection<SectionPlan> plans){
+        noNullElements(plans);
+        List<SectionPlan> ordered = new ArrayList<>(new LinkedHashSet<>(plans));
+        ordered.sort(Comparator.comparingInt(SectionPlan::getExpectedEnrollment).reversed()
+                .thenComparing(plan -> -plan.getSchedule().getOccupancy().cardinality()));
+
+        WeekMask[] bookings = new WeekMask[rooms.length];
+        Arrays.fill(bookings, WeekMask.EMPTY);
+        Map<SectionPlan, Room> assigned = new HashMap<>();
+        for (SectionPlan plan : ordered) {
+            WeekMask occupancy = plan.getSchedule().getOccupancy();
+            int room = smallestRoomFor(plan.getExpectedEnrollment());
+            while (room < rooms.length && bookings[room].intersects(occupancy)) {
+                room++;
+            }
+            if (room < rooms.length) {
+                bookings[room] = bookings[room].union(occupancy);
+                assigned.put(plan, rooms[room]);
+            }
+        }
+
+        Map<SectionPlan, Room> inPlanOrder = new LinkedHashMap<>();
+        List<SectionPlan> unassignable = new ArrayList<>();
+        for (SectionPlan plan : new LinkedHashSet<>(plans)) {
+            Room room = assigned.get(plan);
+            if (room != null) {
+                inPlanOrder.put(plan, room);
+            } else {
+                unassignable.add(plan);
+            }
+        }
+        return new RoomAssignment(inPlanOrder, unassignable);
+    }
+
+    private int smallestRoomFor(int enrollment){
+        int low = 0;
+        int high = capacities.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (capacities[middle] < enrollment) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
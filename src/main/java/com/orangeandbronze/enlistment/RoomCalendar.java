@@ -0,0 +1,106 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.RoomConflictException;
+
+import java.time.DayOfWeek;
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+class RoomCalendar {
+    private final Map<Room, Bookings> bookings = new HashMap<>();
+
+    RoomCalendar(){
+    }
+
+    RoomCalendar(Collection<Section> sections){
+        notNull(sections);
+        sections.forEach(this::add);
+    }
+
+    boolean isFree(Room room, Schedule schedule){
+        notNull(room);
+        notNull(schedule);
+        Bookings roomBookings = bookings.get(room);
+        return roomBookings == null || !roomBookings.occupancy.intersects(schedule.getOccupancy());
+    }
+
+    Optional<Section> getHolder(Room room, Days days, int time){
+        notNull(days);
+        return getHolder(room, days.getWeekdays().iterator().next(), time);
+    }
+
+    Optional<Section> getHolder(Room room, DayOfWeek day, int time){
+        notNull(room);
+        Bookings roomBookings = bookings.get(room);
+        if (roomBookings == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(roomBookings.holderAt(Schedule.slotOf(day, time)));
+    }
+
+    void add(Section section){
+        notNull(section);
+        Room room = section.getRoom();
+        notNull(room, "section " + section + " has no room");
+        Bookings roomBookings = bookings.computeIfAbsent(room, key -> new Bookings());
+        WeekMask occupancy = section.getOccupancy();
+        if (roomBookings.occupancy.intersects(occupancy)) {
+            Section holder = roomBookings.holderOverlapping(section);
+            throw EnlistmentMetrics.global().rejected(new RoomConflictException("section " + section + " and section " + holder + " both hold " + room + " at " + section.getSchedule()));
+        }
+        roomBookings.occupancy = roomBookings.occupancy.union(occupancy);
+        for (int start : meetingStarts(section)) {
+            roomBookings.holders.put(start, section);
+        }
+    }
+
+    void remove(Section section){
+        notNull(section);
+        Bookings roomBookings = bookings.get(section.getRoom());
+        int[] starts = meetingStarts(section);
+        if (roomBookings == null || roomBookings.holders.get(starts[0]) != section) {
+            return;
+        }
+        for (int start : starts) {
+            roomBookings.holders.remove(start);
+        }
+        // holders never overlap, so the section's slots were held by it alone
+        roomBookings.occupancy = roomBookings.occupancy.minus(section.getOccupancy());
+        if (roomBookings.holders.isEmpty()) {
+            bookings.remove(section.getRoom());
+        }
+    }
+
+    // the week slot each of the section's meetings starts at, one per weekday
+    private static int[] meetingStarts(Section section){
+        Schedule schedule = section.getSchedule();
+        int startSlot = schedule.getPeriod().getStartSlot();
+        return schedule.getWeekdays().stream().mapToInt(day -> WeekMask.slotOf(day, startSlot)).toArray();
+    }
+
+    // holders keyed by the start slot of each meeting; meetings never overlap, so the one starting last at or
+    // before a slot is the only one that can hold it
+    private static class Bookings {
+        private WeekMask occupancy = WeekMask.EMPTY;
+        private final TreeMap<Integer, Section> holders = new TreeMap<>();
+
+        private Section holderAt(int slot){
+            Map.Entry<Integer, Section> latest = holders.floorEntry(slot);
+            return latest != null && latest.getValue().getOccupancy().contains(slot) ? latest.getValue() : null;
+        }
+
+        // a held meeting overlapping one of the section's is the last one starting before that meeting ends
+        private Section holderOverlapping(Section section){
+            int length = section.getSchedule().getPeriod().getEndSlot() - section.getSchedule().getPeriod().getStartSlot();
+            WeekMask occupancy = section.getOccupancy();
+            for (int start : meetingStarts(section)) {
+                Map.Entry<Integer, Section> latest = holders.floorEntry(start + length - 1);
+                if (latest != null && latest.getValue().getOccupancy().intersects(occupancy)) {
+                    return latest.getValue();
+                }
+            }
+            return null;
+        }
+    }
+}
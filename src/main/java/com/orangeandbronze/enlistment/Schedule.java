@@ -4,25 +4,68 @@ import com.orangeandbronze.enlistment.exceptions.RoomConflictException;
 import com.orangeandbronze.enlistment.exceptions.ScheduleConflictException;
 import org.apache.commons.lang3.Validate;
 
+import java.time.DayOfWeek;
+import java.util.*;
+import java.util.stream.Collectors;
+
 class Schedule {
-    private final Days days;
+    private final Set<DayOfWeek> weekdays;
     private final Period period;
+    private final WeekMask occupancy;
 
     Schedule(Days days, Period period){
-        Validate.notNull(days);
+        this(Validate.notNull(days).getWeekdays(), period);
+    }
+
+    // any set of weekdays, e.g. a Monday-only graduate seminar or a Saturday-Sunday weekend class
+    Schedule(Set<DayOfWeek> weekdays, Period period){
+        Validate.notEmpty(weekdays);
+        Validate.noNullElements(weekdays);
         Validate.notNull(period);
-        this.days = days;
+        this.weekdays = Collections.unmodifiableSet(EnumSet.copyOf(weekdays));
         this.period = period;
+        this.occupancy = WeekMask.of(this.weekdays, period.getStartSlot(), period.getEndSlot());
     }
 
     void checkOverlaps(Schedule other){
-        if(this.days.equals(other.days))
+        if(!Collections.disjoint(this.weekdays, other.weekdays))
             this.period.checkOverlaps(other.period);
     }
 
+    // one bit per 5-minute slot of the week, so two schedules overlap iff their masks intersect
+    WeekMask getOccupancy(){
+        return occupancy;
+    }
+
+    Set<DayOfWeek> getWeekdays(){
+        return weekdays;
+    }
+
+    // the Days pattern name when the weekdays form one, otherwise the days themselves, e.g. "MONDAY,WEDNESDAY"
+    String getDaysLabel(){
+        return Days.matching(weekdays).map(Days::name)
+                .orElseGet(() -> weekdays.stream().map(DayOfWeek::name).collect(Collectors.joining(",")));
+    }
+
+    Period getPeriod(){
+        return period;
+    }
+
+    static int slotOf(DayOfWeek day, int time){
+        Validate.notNull(day);
+        Validate.isTrue(time >= 0 && time < 2400 && time % 100 < 60, "Time has to be from 0000 to 2359, was: %d", time);
+        return WeekMask.slotOf(day, Period.toSlot(time));
+    }
+
+    // the first day of the pattern
+    static int slotOf(Days days, int time){
+        Validate.notNull(days);
+        return slotOf(days.getWeekdays().iterator().next(), time);
+    }
+
     @Override
     public String toString() {
-        return days + " " + period;
+        return getDaysLabel() + " " + period;
     }
 
     @Override
@@ -32,44 +75,124 @@ class Schedule {
         if (o == null || getClass() != o.getClass())
             return false;
         Schedule schedule = (Schedule) o;
-        return days == schedule.days && period == schedule.period;
+        return weekdays.equals(schedule.weekdays) && period == schedule.period;
     }
 
     @Override
     public int hashCode() {
-        int result = days != null ? days.hashCode() : 0;
+        int result = weekdays.hashCode();
         result = 31 * result + (period != null ? period.hashCode() : 0);
         return result;
     }
 }
 
+// the standard twice-a-week patterns
 enum Days{
-    MTH, TF, WS
+    MTH(DayOfWeek.MONDAY, DayOfWeek.THURSDAY),
+    TF(DayOfWeek.TUESDAY, DayOfWeek.FRIDAY),
+    WS(DayOfWeek.WEDNESDAY, DayOfWeek.SATURDAY);
+
+    private final Set<DayOfWeek> weekdays;
+
+    Days(DayOfWeek first, DayOfWeek second){
+        this.weekdays = Collections.unmodifiableSet(EnumSet.of(first, second));
+    }
+
+    Set<DayOfWeek> getWeekdays(){
+        return weekdays;
+    }
+
+    static Optional<Days> matching(Set<DayOfWeek> weekdays){
+        for (Days days : values()) {
+            if (days.weekdays.equals(weekdays)) {
+                return Optional.of(days);
+            }
+        }
+        return Optional.empty();
+    }
 }
 
 class Period{
     private final int startTime;
     private final int endTime;
 
+    // the regular timetable: 0830 to 1730 on the hour or half hour
     Period(int startTime, int endTime){
-        Validate.isTrue((startTime%100 == 30 || startTime%100 == 0) && (endTime%100 == 30 || endTime%100 == 0), "Time has to start at 00 or 30");
-        Validate.isTrue(startTime >= 830 && startTime <= 1730 && endTime >= 830 && endTime <= 1730, "Time has to be from 0830 and 1730");
+        this(startTime, endTime, Timetable.REGULAR);
+    }
+
+    private Period(int startTime, int endTime, Timetable timetable){
+        timetable.check(startTime, endTime);
         Validate.isTrue(endTime > startTime, "End time has to be later than start time.");
 
         this.startTime = startTime;
         this.endTime = endTime;
     }
 
+    // any time of day on 5-minute boundaries, 0000 to 2400, for evening and graduate classes
+    static Period flexible(int startTime, int endTime){
+        return new Period(startTime, endTime, Timetable.FLEXIBLE);
+    }
+
+    private enum Timetable {
+        REGULAR {
+            @Override
+            void check(int startTime, int endTime){
+                Validate.isTrue((startTime%100 == 30 || startTime%100 == 0) && (endTime%100 == 30 || endTime%100 == 0), "Time has to start at 00 or 30");
+                Validate.isTrue(startTime >= 830 && startTime <= 1730 && endTime >= 830 && endTime <= 1730, "Time has to be from 0830 and 1730");
+            }
+        },
+        FLEXIBLE {
+            @Override
+            void check(int startTime, int endTime){
+                Validate.isTrue(isOnSlotBoundary(startTime) && isOnSlotBoundary(endTime), "Time has to be on a %d-minute boundary", WeekMask.SLOT_MINUTES);
+                Validate.isTrue(startTime >= 0 && endTime <= 2400, "Time has to be from 0000 and 2400");
+            }
+        };
+
+        abstract void check(int startTime, int endTime);
+    }
+
+    private static boolean isOnSlotBoundary(int time){
+        return time % 100 < 60 && time % 100 % WeekMask.SLOT_MINUTES == 0;
+    }
+
     void checkOverlaps(Period period){
         if(!(this.startTime >= period.endTime || period.startTime >= this.endTime))
-            throw new ScheduleConflictException("Overlapping schedule");
+            throw EnlistmentMetrics.global().rejected(new ScheduleConflictException("Overlapping schedule"));
+    }
+
+    int getStartTime(){
+        return startTime;
+    }
+
+    int getEndTime(){
+        return endTime;
+    }
+
+    int getStartSlot(){
+        return toSlot(startTime);
+    }
+
+    int getEndSlot(){
+        return toSlot(endTime);
+    }
+
+    // slot of the day, from 0 for 0000; 2400 maps to the end of the day
+    static int toSlot(int time){
+        return ((time / 100) * 60 + time % 100) / WeekMask.SLOT_MINUTES;
     }
 
     void checkRoomOverlaps(Period period, Section other){
         if(!(this.startTime >= period.endTime || period.startTime >= this.endTime)){
             other.removeRoom();
-            throw new RoomConflictException("Same room and schedule.");
+            throw EnlistmentMetrics.global().rejected(new RoomConflictException("Same room and schedule."));
         }
     }
 
+    @Override
+    public String toString() {
+        return String.format("%04d-%04d", startTime, endTime);
+    }
+
 }
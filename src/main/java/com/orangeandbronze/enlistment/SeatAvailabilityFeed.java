@@ -0,0 +1,219 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+// Pushes seat counts to subscribers instead of having them poll every section.
+// The enlist path only marks a section dirty: one flag CAS, plus a lock-free enqueue the first time in a tick.
+// Once per tick the feed thread drains the dirty sections and reads each one's current count, so a burst of
+// changes to a section becomes a single update. Each subscriber buffers at most one update per section, so while it
+// falls behind a section's newer update replaces its older one. The buffer holds at most bufferSize sections; past
+// that, the section waiting longest loses its update, so size it to the sections a subscriber watches.
+// Everything after the mark runs on the feed thread, so subscribers are called one at a time and must be quick.
+// Register the feed with EnlistmentListeners to connect it.
+class SeatAvailabilityFeed implements Flow.Publisher<SeatUpdate>, EnlistmentListener, AutoCloseable {
+    static final long DEFAULT_TICK_MILLIS = 1_000;
+    static final int DEFAULT_BUFFER_SIZE = 1_024;
+
+    private final ConcurrentHashMap<Section, AtomicBoolean> dirtyFlags = new ConcurrentHashMap<>();
+    private final Queue<Section> dirty = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService feedThread;
+    private final int bufferSize;
+    // only touched on the feed thread
+    private final List<SeatSubscription> subscriptions = new ArrayList<>();
+    private long tick = 0;
+    // written only on the feed thread
+    private volatile long dropped = 0;
+
+    SeatAvailabilityFeed(){
+        this(DEFAULT_TICK_MILLIS, DEFAULT_BUFFER_SIZE);
+    }
+
+    SeatAvailabilityFeed(long tickMillis, int bufferSize){
+        isTrue(tickMillis > 0, "tickMillis must be positive, was: " + tickMillis);
+        isTrue(bufferSize > 0, "bufferSize must be positive, was: " + bufferSize);
+        this.bufferSize = bufferSize;
+        this.feedThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-availability-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.feedThread.scheduleAtFixedRate(this::publishDirty, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void seatsChanged(Section section){
+        markDirty(section);
+    }
+
+    @Override
+    public void capacityReached(Section section){
+        markDirty(section);
+    }
+
+    private void markDirty(Section section){
+        AtomicBoolean flag = dirtyFlags.get(section);
+        if (flag == null) {
+            flag = dirtyFlags.computeIfAbsent(section, key -> new AtomicBoolean());
+        }
+        if (flag.compareAndSet(false, true)) {
+            dirty.offer(section);
+        }
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super SeatUpdate> subscriber){
+        notNull(subscriber);
+        SeatSubscription subscription = new SeatSubscription(subscriber);
+        if (!onFeedThread(() -> {
+            subscriptions.add(subscription);
+            subscription.active = true;
+            subscriber.onSubscribe(subscription);
+        })) {
+            subscriber.onSubscribe(subscription);
+            subscriber.onError(new IllegalStateException("Seat availability feed is closed"));
+        }
+    }
+
+    // runs a tick now rather than waiting for the next one; done when the updates have been handed out
+    Future<?> publishNow(){
+        return feedThread.submit(this::publishDirty);
+    }
+
+    // completes every subscriber after a last tick
+    @Override
+    public void close(){
+        onFeedThread(() -> {
+            publishDirty();
+            for (SeatSubscription subscription : subscriptions) {
+                subscription.active = false;
+                subscription.subscriber.onComplete();
+            }
+            subscriptions.clear();
+        });
+        feedThread.shutdown();
+        try {
+            feedThread.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // updates evicted from full subscriber buffers, across all subscribers; an update replaced by a newer one for
+    // the same section is not counted
+    long getDroppedCount(){
+        return dropped;
+    }
+
+    // an exception escaping a scheduleAtFixedRate task would cancel every later tick, so none is let out
+    private void publishDirty(){
+        try {
+            tick++;
+            List<SeatUpdate> updates = new ArrayList<>();
+            for (Section section = dirty.poll(); section != null; section = dirty.poll()) {
+                // clear before reading, so a change after the read marks the section again for the next tick
+                dirtyFlags.get(section).set(false);
+                try {
+                    updates.add(read(section));
+                } catch (RuntimeException e) {
+                    // skipped this tick; its next change marks it again
+                }
+            }
+            if (updates.isEmpty()) {
+                return;
+            }
+            for (SeatSubscription subscription : List.copyOf(subscriptions)) {
+                updates.forEach(subscription::enqueue);
+                subscription.deliver();
+            }
+        } catch (RuntimeException e) {
+            // this tick is lost, the feed is not
+        }
+    }
+
+    // a section whose room was taken away has no seats to offer
+    private SeatUpdate read(Section section){
+        Room room = section.getRoom();
+        return new SeatUpdate(section, section.getNumStudents(), room == null ? 0 : room.getCapacity(), tick);
+    }
+
+    private boolean onFeedThread(Runnable task){
+        try {
+            feedThread.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private final class SeatSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super SeatUpdate> subscriber;
+        // buffer, demand and active are only touched on the feed thread; the buffer is in order of each section's
+        // latest update
+        private final LinkedHashMap<Section, SeatUpdate> buffer = new LinkedHashMap<>();
+        private long demand = 0;
+        private boolean active = false;
+
+        SeatSubscription(Flow.Subscriber<? super SeatUpdate> subscriber){
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n){
+            onFeedThread(() -> {
+                if (!active) {
+                    return;
+                }
+                if (n <= 0) {
+                    end();
+                    subscriber.onError(new IllegalArgumentException("request must be positive, was: " + n));
+                    return;
+                }
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                deliver();
+            });
+        }
+
+        @Override
+        public void cancel(){
+            onFeedThread(this::end);
+        }
+
+        private void end(){
+            active = false;
+            subscriptions.remove(this);
+            buffer.clear();
+        }
+
+        private void enqueue(SeatUpdate update){
+            if (buffer.remove(update.getSection()) == null && buffer.size() == bufferSize) {
+                pollFirst();
+                dropped++;
+            }
+            buffer.put(update.getSection(), update);
+        }
+
+        private SeatUpdate pollFirst(){
+            Iterator<SeatUpdate> oldest = buffer.values().iterator();
+            SeatUpdate update = oldest.next();
+            oldest.remove();
+            return update;
+        }
+
+        private void deliver(){
+            while (demand > 0 && !buffer.isEmpty() && active) {
+                demand--;
+                try {
+                    subscriber.onNext(pollFirst());
+                } catch (RuntimeException e) {
+                    // a subscriber that throws breaks the Flow contract; it loses its subscription rather than the feed
+                    end();
+                }
+            }
+        }
+    }
+}
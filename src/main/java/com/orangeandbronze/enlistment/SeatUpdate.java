@@ -0,0 +1,41 @@
+package com.orangeandbronze.enlistment;
+
+// A section's seat count as read at the end of a feed tick; one per changed section per tick.
+class SeatUpdate {
+    private final Section section;
+    private final int numStudents;
+    private final int capacity;
+    private final long tick;
+
+    SeatUpdate(Section section, int numStudents, int capacity, long tick){
+        this.section = section;
+        this.numStudents = numStudents;
+        this.capacity = capacity;
+        this.tick = tick;
+    }
+
+    Section getSection() {
+        return section;
+    }
+
+    int getNumStudents() {
+        return numStudents;
+    }
+
+    int getRemainingSeats() {
+        return Math.max(0, capacity - numStudents);
+    }
+
+    boolean isFull() {
+        return numStudents >= capacity;
+    }
+
+    long getTick() {
+        return tick;
+    }
+
+    @Override
+    public String toString() {
+        return section + " " + numStudents + "/" + capacity + " at tick " + tick;
+    }
+}
@@ -3,84 +3,305 @@ package com.orangeandbronze.enlistment;
 import com.orangeandbronze.enlistment.exceptions.CapacityReachedException;
 import com.orangeandbronze.enlistment.exceptions.NotTakenPreRequisiteException;
 import com.orangeandbronze.enlistment.exceptions.SameSubjectException;
+import com.orangeandbronze.enlistment.exceptions.ScheduleConflictException;
 import com.orangeandbronze.enlistment.exceptions.SubjectNotInProgramException;
+import com.orangeandbronze.enlistment.exceptions.WaitlistFullException;
 
 import java.util.*;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 import static org.apache.commons.lang3.StringUtils.*;
 import static org.apache.commons.lang3.Validate.*;
 
 public class Section {
+    static final int DEFAULT_WAITLIST_CAPACITY = 50;
 
     private final String sectionID;
     private final Schedule schedule;
     private Room room;
     private final Subject subject;
-    private int numStudents = 0;
+    private final AtomicInteger numStudents = new AtomicInteger();
+    // Student numbers of the enlisted students, guarded by its own monitor. Students join it after their seat is
+    // reserved and leave it before the seat is released, so it never holds more students than numStudents counts;
+    // the two differ only by enlistments still being checked. About 8 bytes per enrolled student (see IntSet).
+    private final IntSet roster = new IntSet();
+    private final BlockingDeque<Student> waitlist;
+    private final int waitlistCapacity;
+    // one promoter at a time; see promoteFromWaitlist
+    private final AtomicBoolean promoting = new AtomicBoolean();
 
 
     Section(String sectionID, Schedule schedule, Room room, Subject subject){
+        this(sectionID, schedule, room, subject, DEFAULT_WAITLIST_CAPACITY);
+    }
+
+    Section(String sectionID, Schedule schedule, Room room, Subject subject, int waitlistCapacity){
         notBlank(sectionID);
         notNull(schedule);
         notNull(room);
         notNull(subject);
         isTrue(isAlphanumeric(sectionID), "sectionID must be alphanumeric, was: " + sectionID);
+        isTrue(waitlistCapacity > 0, "waitlistCapacity must be positive, was: " + waitlistCapacity);
         this.sectionID = sectionID;
         this.schedule = schedule;
         this.room = room;
         this.subject = subject;
+        this.waitlist = new LinkedBlockingDeque<>(waitlistCapacity);
+        this.waitlistCapacity = waitlistCapacity;
     }
 
     void checkScheduleConflict(Section other){
         this.schedule.checkOverlaps(other.schedule);
     }
 
+    boolean conflictsWith(WeekMask occupancy){
+        return occupancy.intersects(schedule.getOccupancy());
+    }
+
+    void checkScheduleConflict(WeekMask occupancy){
+        if (conflictsWith(occupancy)){
+            throw EnlistmentMetrics.global().rejected(new ScheduleConflictException("section " + this.sectionID + " at " + this.schedule + " conflicts with an enlisted section"));
+        }
+    }
+
     void checkRoomConflict(Section other){
         if (this.room.equals(other.room)){
             checkScheduleConflict(other);
         }
     }
 
+    boolean isFull(){
+        return this.room.isFull(numStudents.get());
+    }
+
     void checkSectionRoomCapacity(){
-        if (this.room.isFull(numStudents)){
-            throw new CapacityReachedException("section " + this.sectionID + " at " + this.room + " is already full");
+        if (isFull()){
+            throw capacityReached();
+        }
+    }
+
+    // checks capacity and takes the seat in one CAS, so concurrent enlistments can never overbook the room
+    void reserveSeat(){
+        int current;
+        do {
+            current = numStudents.get();
+            if (this.room.isFull(current)){
+                throw capacityReached();
+            }
+        } while (!numStudents.compareAndSet(current, current + 1));
+        EnlistmentListeners.seatsChanged(this);
+    }
+
+    // takes a seat that was already granted before, even past capacity, so replayed history can pass through overfull states
+    void restoreSeat(){
+        restoreSeats(1);
+    }
+
+    void restoreSeats(int count){
+        isTrue(count >= 0, "count must not be negative, was: " + count);
+        numStudents.addAndGet(count);
+        if (count > 0) {
+            EnlistmentListeners.seatsChanged(this);
         }
     }
 
+    void releaseSeat(){
+        int previous = numStudents.getAndUpdate(current -> current > 0 ? current - 1 : current);
+        validState(previous > 0, "section " + this.sectionID + " has no reserved seat to release");
+        EnlistmentListeners.seatsChanged(this);
+    }
+
+    private CapacityReachedException capacityReached(){
+        EnlistmentListeners.capacityReached(this);
+        return EnlistmentMetrics.global().rejected(new CapacityReachedException("section " + this.sectionID + " at " + this.room + " is already full"));
+    }
+
+    void addToRoster(int studentNumber){
+        synchronized (roster) {
+            roster.add(studentNumber);
+        }
+    }
+
+    void removeFromRoster(int studentNumber){
+        synchronized (roster) {
+            roster.remove(studentNumber);
+        }
+    }
+
+    boolean hasOnRoster(int studentNumber){
+        synchronized (roster) {
+            return roster.contains(studentNumber);
+        }
+    }
+
+    int getRosterSize(){
+        synchronized (roster) {
+            return roster.size();
+        }
+    }
+
+    // a copy, in no particular order
+    int[] getRoster(){
+        synchronized (roster) {
+            return roster.toArray();
+        }
+    }
+
+    // runs under the roster's lock, which enlist and cancel of this section wait for: the action must be quick
+    void forEachOnRoster(IntConsumer action){
+        synchronized (roster) {
+            roster.forEach(action);
+        }
+    }
+
+    boolean hasSameSubject(Section other){
+        return this.subject.equals(other.subject);
+    }
+
     void checkForDuplicateSubjects(Section other){
-        if (this.subject.equals(other.subject)){
-            throw new SameSubjectException("this section " + this + " has same subject as other section " + other + " with subject " + subject);
+        if (hasSameSubject(other)){
+            throw EnlistmentMetrics.global().rejected(new SameSubjectException("this section " + this + " has same subject as other section " + other + " with subject " + subject));
         }
     }
 
+    boolean hasTakenPrerequisite(Collection<Subject> takenSubjects){
+        return subject.hasPrerequisitesIn(takenSubjects);
+    }
+
+    boolean hasTakenPrerequisite(PrerequisiteGraph prerequisiteGraph, Collection<Subject> takenSubjects){
+        return prerequisiteGraph.hasTakenPrerequisites(subject, takenSubjects);
+    }
+
     void checkTakenPrerequisite(Collection<Subject> takenSubjects){
-        if(!takenSubjects.containsAll(getSubject().getPrerequisites())){
-            throw new NotTakenPreRequisiteException("You have not yet taken the pre requisite subject");
+        if(!hasTakenPrerequisite(takenSubjects)){
+            throw notTakenPrerequisite();
         }
     }
 
+    void checkTakenPrerequisite(PrerequisiteGraph prerequisiteGraph, Collection<Subject> takenSubjects){
+        if(!hasTakenPrerequisite(prerequisiteGraph, takenSubjects)){
+            throw notTakenPrerequisite();
+        }
+    }
+
+    private NotTakenPreRequisiteException notTakenPrerequisite(){
+        return EnlistmentMetrics.global().rejected(new NotTakenPreRequisiteException("You have not yet taken the pre requisite subject"));
+    }
+
     void removeRoom(){
         this.room = null;
     }
 
-    void addStudent(){
-        numStudents++;
+    // the duplicate check and the insert under one lock, so racing joins queue a student once
+    void joinWaitlist(Student student){
+        notNull(student);
+        synchronized (waitlist) {
+            if (waitlist.contains(student)) {
+                return;
+            }
+            if (!waitlist.offerLast(student)) {
+                throw EnlistmentMetrics.global().rejected(new WaitlistFullException("waitlist of section " + this.sectionID + " is already full"));
+            }
+        }
+    }
+
+    // While students wait, a freed seat is theirs in order: only the head of the waitlist may take one directly.
+    void checkWaitlistTurn(Student student){
+        if (isHeldForWaitlist(student)) {
+            throw EnlistmentMetrics.global().rejected(new CapacityReachedException("free seats of section " + this.sectionID + " are held for its waitlist"));
+        }
+    }
+
+    boolean isHeldForWaitlist(Student student){
+        Student head = waitlist.peekFirst();
+        return head != null && !head.equals(student);
     }
 
-    void removeStudent(){
-       numStudents--;
+    boolean leaveWaitlist(Student student){
+        return waitlist.removeFirstOccurrence(student);
+    }
+
+    // Fills free seats from the head of the waitlist, re-running every enlist rule. Called after every release of a
+    // seat, including the rollback of a failed enlistment. The head only leaves the waitlist once it is enlisted or
+    // fails a rule other than capacity. One thread promotes at a time, and a call that finds another promoting
+    // returns at once; the promoter looks again after stepping down, so a seat freed meanwhile is not missed.
+    void promoteFromWaitlist(){
+        while (promoting.compareAndSet(false, true)) {
+            try {
+                promoteHeads();
+            } finally {
+                promoting.set(false);
+            }
+            if (isFull() || waitlist.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private void promoteHeads(){
+        while (!isFull()) {
+            Student next = waitlist.peekFirst();
+            if (next == null) {
+                return;
+            }
+            try {
+                next.enlist(this);
+            } catch (CapacityReachedException e) {
+                // a seat held for now by an enlistment still being checked; its release promotes again
+                return;
+            } catch (RuntimeException e) {
+                // no longer eligible, e.g. enlisted elsewhere at the same time
+            }
+            waitlist.removeFirstOccurrence(next);
+        }
+    }
+
+    List<Student> getWaitlist(){
+        return new ArrayList<>(waitlist);
     }
 
     int getNumStudents() {
-        return numStudents;
+        return numStudents.get();
+    }
+
+    int getRemainingSeats() {
+        return Math.max(0, room.getCapacity() - numStudents.get());
+    }
+
+    boolean isInProgram(DegreeProgram program){
+        return program.containsSubject(subject);
     }
 
     void checkSubjectInProgram(DegreeProgram program){
-        if (!program.containsSubject(subject)) {
-            throw new SubjectNotInProgramException("This subject " + subject + " is not in your program " + program);
+        if (!isInProgram(program)) {
+            throw EnlistmentMetrics.global().rejected(new SubjectNotInProgramException("This subject " + subject + " is not in your program " + program));
         }
     }
 
+    WeekMask getOccupancy(){
+        return schedule.getOccupancy();
+    }
+
+    int getWaitlistCapacity(){
+        return waitlistCapacity;
+    }
+
+    String getSectionID(){
+        return sectionID;
+    }
+
+    Schedule getSchedule(){
+        return schedule;
+    }
+
+    Room getRoom(){
+        return room;
+    }
+
     Subject getSubject(){
         return subject;
     }
@@ -0,0 +1,61 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.Objects;
+
+import static org.apache.commons.lang3.StringUtils.isAlphanumeric;
+import static org.apache.commons.lang3.Validate.*;
+
+// a section still waiting for a room
+class SectionPlan {
+    private final String sectionID;
+    private final Subject subject;
+    private final Schedule schedule;
+    private final int expectedEnrollment;
+
+    SectionPlan(String sectionID, Subject subject, Schedule schedule, int expectedEnrollment){
+        notBlank(sectionID);
+        isTrue(isAlphanumeric(sectionID), "sectionID must be alphanumeric, was: " + sectionID);
+        notNull(subject);
+        notNull(schedule);
+        isTrue(expectedEnrollment >= 0, "expectedEnrollment must not be negative, was: " + expectedEnrollment);
+        this.sectionID = sectionID;
+        this.subject = subject;
+        this.schedule = schedule;
+        this.expectedEnrollment = expectedEnrollment;
+    }
+
+    Section toSection(Room room){
+        return new Section(sectionID, schedule, room, subject);
+    }
+
+    String getSectionID() {
+        return sectionID;
+    }
+
+    Schedule getSchedule() {
+        return schedule;
+    }
+
+    int getExpectedEnrollment() {
+        return expectedEnrollment;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        return sectionID.equals(((SectionPlan) o).sectionID);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(sectionID);
+    }
+
+    @Override
+    public String toString() {
+        return sectionID;
+    }
+}
@@ -0,0 +1,74 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.noNullElements;
+import static org.apache.commons.lang3.Validate.notNull;
+
+// Sections indexed by subject, then grouped by schedule so one mask test rules out every section meeting at
+// that time. The index itself is immutable; only the enrollment counts it reads change underneath it.
+class SectionSearchIndex {
+    private final Map<Subject, ScheduleGroup[]> bySubject = new HashMap<>();
+
+    SectionSearchIndex(Collection<Section> sections){
+        noNullElements(sections);
+        Map<Subject, Map<WeekMask, List<Section>>> grouped = new HashMap<>();
+        for (Section section : sections) {
+            grouped.computeIfAbsent(section.getSubject(), subject -> new LinkedHashMap<>())
+                    .computeIfAbsent(section.getOccupancy(), occupancy -> new ArrayList<>())
+                    .add(section);
+        }
+        grouped.forEach((subject, schedules) -> {
+            List<ScheduleGroup> groups = new ArrayList<>();
+            schedules.forEach((occupancy, groupSections) -> groups.add(new ScheduleGroup(occupancy, groupSections)));
+            bySubject.put(subject, groups.toArray(new ScheduleGroup[0]));
+        });
+    }
+
+    // sections of the subject the student could enlist in right now, most remaining seats first; seats held for a
+    // waitlist the student is not at the head of do not count
+    List<Section> findFitting(Student student, Subject subject){
+        notNull(student);
+        notNull(subject);
+        ScheduleGroup[] groups = bySubject.get(subject);
+        if (groups == null || !student.canTake(subject)) {
+            return Collections.emptyList();
+        }
+        WeekMask occupancy = student.getOccupancy();
+        List<Section> candidates = new ArrayList<>();
+        long[] ranked = new long[8];
+        for (ScheduleGroup group : groups) {
+            if (group.occupancy.intersects(occupancy)) {
+                continue;
+            }
+            for (Section section : group.sections) {
+                // read each count once, so the ranking is consistent even while enlistments change it
+                int remaining = section.getRemainingSeats();
+                if (remaining > 0 && !section.isHeldForWaitlist(student)) {
+                    if (candidates.size() == ranked.length) {
+                        ranked = Arrays.copyOf(ranked, ranked.length * 2);
+                    }
+                    // seats in the high word, index inverted in the low word so ties keep catalog order once reversed
+                    ranked[candidates.size()] = ((long) remaining << 32) | (Integer.MAX_VALUE - candidates.size());
+                    candidates.add(section);
+                }
+            }
+        }
+        Arrays.sort(ranked, 0, candidates.size());
+        List<Section> fitting = new ArrayList<>(candidates.size());
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            fitting.add(candidates.get(Integer.MAX_VALUE - (int) ranked[i]));
+        }
+        return fitting;
+    }
+
+    private static class ScheduleGroup {
+        private final WeekMask occupancy;
+        private final Section[] sections;
+
+        private ScheduleGroup(WeekMask occupancy, List<Section> sections){
+            this.occupancy = occupancy;
+            this.sections = sections.toArray(new Section[0]);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static org.apache.commons.lang3.Validate.*;
+
+// Sections are split across shards by section ID, and each shard's thread is the only one that enlists into or
+// cancels from its sections. Callers put commands on the shard's CommandRing and wait; the shard thread drains them
+// in batches of up to BATCH_SIZE and runs them in arrival order through the usual Student and Section rules.
+// A popular section is then a queue on one thread rather than many threads retrying the same seat CAS, so a request's
+// wait is bounded by the commands ahead of it. A full ring pushes back on callers, who wait for room.
+// A block spanning shards goes through two phases: every shard involved holds seats for its sections (prepare), then
+// the student's rules are checked and the block recorded on the student at once, after which every shard adds the
+// student to its sections' rosters (commit); if any shard is full or any rule fails, the shards give the seats back
+// (abort). So a section is only ever written by its own shard. Listeners run on the shard threads, except the block
+// event of a cross-shard block, which runs on the caller's; they must not call back into the engine.
+// close() lets the shards finish what is queued; a shard stuck past the timeout has its queued commands failed, so no
+// caller waits on it forever.
+class ShardedEnlistmentEngine implements AutoCloseable {
+    static final int DEFAULT_RING_SIZE = 4_096;
+    static final int BATCH_SIZE = 64;
+    private static final int SPINS_BEFORE_PARKING = 100;
+    private static final long FULL_RING_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Shard[] shards;
+    private volatile boolean closed = false;
+    // callers between checking closed and publishing; shards keep running until it drops to zero after close
+    private final AtomicInteger submitting = new AtomicInteger();
+
+    ShardedEnlistmentEngine(int shardCount){
+        this(shardCount, DEFAULT_RING_SIZE);
+    }
+
+    ShardedEnlistmentEngine(int shardCount, int ringSize){
+        isTrue(shardCount > 0, "shardCount must be positive, was: %d", shardCount);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, new CommandRing<>(ringSize));
+        }
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    int getShardCount(){
+        return shards.length;
+    }
+
+    int shardOf(Section section){
+        notNull(section);
+        int hash = section.getSectionID().hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    void enlist(Student student, Section section){
+        notNull(student);
+        await(submit(shards[shardOf(section)], () -> student.enlist(section)));
+    }
+
+    void cancel(Student student, Section section){
+        notNull(student);
+        await(submit(shards[shardOf(section)], () -> student.cancelEnlistedSection(section)));
+    }
+
+    // all-or-nothing, like Student.enlistBlock
+    void enlistBlock(Student student, Collection<Section> block){
+        notNull(student);
+        noNullElements(block);
+        Map<Shard, List<Section>> parts = new TreeMap<>(Comparator.comparingInt((Shard shard) -> shard.index));
+        block.forEach(section -> parts.computeIfAbsent(shards[shardOf(section)], key -> new ArrayList<>()).add(section));
+        if (parts.size() <= 1) {
+            Shard shard = parts.isEmpty() ? shards[0] : parts.keySet().iterator().next();
+            await(submit(shard, () -> student.enlistBlock(block)));
+            return;
+        }
+        // reject a block that breaks a rule before holding any seat for it
+        student.checkBlock(block);
+
+        Map<Shard, CompletableFuture<Void>> prepares = new LinkedHashMap<>();
+        parts.forEach((shard, part) -> prepares.put(shard, submit(shard, () -> reserveSeats(part))));
+        List<Shard> prepared = new ArrayList<>();
+        RuntimeException failure = null;
+        for (Map.Entry<Shard, CompletableFuture<Void>> prepare : prepares.entrySet()) {
+            try {
+                await(prepare.getValue());
+                prepared.add(prepare.getKey());
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure == null) {
+            try {
+                student.enlistPreparedBlock(block);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+        if (failure == null) {
+            List<CompletableFuture<Void>> commits = new ArrayList<>();
+            prepared.forEach(shard -> commits.add(submit(shard, () -> addToRosters(student, parts.get(shard)))));
+            commits.forEach(ShardedEnlistmentEngine::await);
+            return;
+        }
+        // wait for the aborts too, so the seats are free again when the caller sees the failure
+        List<CompletableFuture<Void>> aborts = new ArrayList<>();
+        prepared.forEach(shard -> aborts.add(submit(shard, () -> parts.get(shard).forEach(ShardedEnlistmentEngine::giveBack))));
+        aborts.forEach(ShardedEnlistmentEngine::await);
+        throw failure;
+    }
+
+    // in section ID order, giving back the ones taken if a section is full
+    private static void reserveSeats(List<Section> part){
+        List<Section> ordered = new ArrayList<>(part);
+        ordered.sort(Comparator.comparing(Section::getSectionID));
+        int reserved = 0;
+        try {
+            for (Section section : ordered) {
+                section.reserveSeat();
+                reserved++;
+            }
+        } catch (RuntimeException e) {
+            for (int i = reserved - 1; i >= 0; i--) {
+                giveBack(ordered.get(i));
+            }
+            throw e;
+        }
+    }
+
+    // skips a section the student has already cancelled from; that cancel ran earlier on this same shard
+    private static void addToRosters(Student student, List<Section> part){
+        List<Section> enlisted = student.getSections();
+        for (Section section : part) {
+            if (enlisted.contains(section)) {
+                section.addToRoster(student.getStudentNumber());
+            }
+        }
+    }
+
+    // the waitlist gets a seat that was only held for a block
+    private static void giveBack(Section section){
+        section.releaseSeat();
+        section.promoteFromWaitlist();
+    }
+
+    private CompletableFuture<Void> submit(Shard shard, Runnable action){
+        submitting.incrementAndGet();
+        try {
+            validState(!closed, "engine is closed");
+            Command command = new Command(action);
+            while (!shard.ring.offer(command)) {
+                // a shard stuck behind a full ring may never make room, and close() waits for us to leave
+                validState(!closed, "engine is closed");
+                LockSupport.unpark(shard.thread);
+                LockSupport.parkNanos(FULL_RING_BACKOFF_NANOS);
+            }
+            if (shard.parked) {
+                LockSupport.unpark(shard.thread);
+            }
+            return command;
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+
+    // rethrows the rule's own exception rather than a CompletionException around it
+    private static void await(CompletableFuture<Void> result){
+        try {
+            result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    // commands run so far, across shards
+    long getCommandCount(){
+        return Arrays.stream(shards).mapToLong(shard -> shard.commands).sum();
+    }
+
+    // non-empty drains so far, across shards; commands per batch shows how much queueing there is
+    long getBatchCount(){
+        return Arrays.stream(shards).mapToLong(shard -> shard.batches).sum();
+    }
+
+    // the shards finish the commands already queued, then stop
+    @Override
+    public void close(){
+        close(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    // A shard still running after timeoutMillis is stuck in a command; the commands queued behind it are failed
+    // instead, once every caller that got past the closed check has published. The stuck command itself is left to
+    // finish, since its action may already have taken effect.
+    void close(long timeoutMillis){
+        closed = true;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.thread);
+        }
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            for (Shard shard : shards) {
+                TimeUnit.NANOSECONDS.timedJoin(shard.thread, Math.max(1, deadline - System.nanoTime()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        while (submitting.get() > 0) {
+            Thread.yield();
+        }
+        for (Shard shard : shards) {
+            if (shard.thread.isAlive()) {
+                shard.ring.forEachQueued(Command::abandon);
+            }
+        }
+    }
+
+    private static final class Command extends CompletableFuture<Void> {
+        private final Runnable action;
+        // taken by whichever comes first, the shard running the command or close() failing it
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private Command(Runnable action){
+            this.action = action;
+        }
+
+        private void run(){
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                action.run();
+                complete(null);
+            } catch (RuntimeException | Error e) {
+                completeExceptionally(e);
+            }
+        }
+
+        private void abandon(){
+            if (claimed.compareAndSet(false, true)) {
+                completeExceptionally(new IllegalStateException("engine closed before the command ran"));
+            }
+        }
+    }
+
+    private final class Shard implements Runnable {
+        private final int index;
+        private final CommandRing<Command> ring;
+        private final Thread thread;
+        private volatile boolean parked = false;
+        // written only on the shard thread
+        private volatile long commands = 0;
+        private volatile long batches = 0;
+
+        private Shard(int index, CommandRing<Command> ring){
+            this.index = index;
+            this.ring = ring;
+            this.thread = new Thread(this, "enlistment-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run(){
+            Consumer<Command> execute = this::execute;
+            int idle = 0;
+            while (true) {
+                int drained = ring.drain(execute, BATCH_SIZE);
+                if (drained > 0) {
+                    batches++;
+                    idle = 0;
+                } else if (closed && submitting.get() == 0) {
+                    // every caller that got past the closed check has published by now
+                    if (ring.isEmpty()) {
+                        return;
+                    }
+                } else if (++idle < SPINS_BEFORE_PARKING) {
+                    Thread.onSpinWait();
+                } else {
+                    // set before the last look, so a caller publishing after it sees the flag and unparks us
+                    parked = true;
+                    if (ring.isEmpty() && !closed) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                    idle = 0;
+                }
+            }
+        }
+
+        // counted before it runs, so the count already includes a command its caller has seen complete
+        private void execute(Command command){
+            commands++;
+            command.run();
+        }
+    }
+}
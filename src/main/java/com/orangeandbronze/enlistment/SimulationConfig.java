@@ -0,0 +1,81 @@
+package com.orangeandbronze.enlistment;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+import static org.apache.commons.lang3.Validate.isTrue;
+
+// Sizes and distributions of a synthetic term; every setter returns this so a config reads as one expression
+class SimulationConfig {
+    long seed = 1;
+    int subjects = 400;
+    int levels = 5;
+    double prerequisiteChance = 0.6;
+    double labShare = 0.15;
+    int rooms = 300;
+    int minRoomCapacity = 20;
+    int maxRoomCapacity = 60;
+    int sectionsPerSubject = 6;
+    int programs = 12;
+    double programShare = 0.35;
+    int students = 20_000;
+    int subjectsPerStudent = 6;
+    int retriesPerSubject = 2;
+    double dropChance = 0.1;
+    int fallbackThreads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    SimulationConfig seed(long seed){
+        this.seed = seed;
+        return this;
+    }
+
+    SimulationConfig subjects(int subjects, int levels, double prerequisiteChance){
+        isTrue(subjects >= levels && levels > 0, "need at least one subject per level, was: " + subjects + " subjects over " + levels + " levels");
+        inclusiveBetween(0.0, 1.0, prerequisiteChance);
+        this.subjects = subjects;
+        this.levels = levels;
+        this.prerequisiteChance = prerequisiteChance;
+        return this;
+    }
+
+    SimulationConfig rooms(int rooms, int minRoomCapacity, int maxRoomCapacity){
+        isTrue(rooms > 0, "rooms must be positive, was: " + rooms);
+        isTrue(0 < minRoomCapacity && minRoomCapacity <= maxRoomCapacity, "invalid capacity range " + minRoomCapacity + ".." + maxRoomCapacity);
+        this.rooms = rooms;
+        this.minRoomCapacity = minRoomCapacity;
+        this.maxRoomCapacity = maxRoomCapacity;
+        return this;
+    }
+
+    SimulationConfig sectionsPerSubject(int sectionsPerSubject){
+        isTrue(sectionsPerSubject > 0, "sectionsPerSubject must be positive, was: " + sectionsPerSubject);
+        this.sectionsPerSubject = sectionsPerSubject;
+        return this;
+    }
+
+    SimulationConfig programs(int programs, double programShare){
+        isTrue(programs > 0, "programs must be positive, was: " + programs);
+        isTrue(programShare > 0 && programShare <= 1, "programShare must be in (0, 1], was: " + programShare);
+        this.programs = programs;
+        this.programShare = programShare;
+        return this;
+    }
+
+    SimulationConfig students(int students, int subjectsPerStudent){
+        isTrue(students > 0, "students must be positive, was: " + students);
+        isTrue(subjectsPerStudent > 0, "subjectsPerStudent must be positive, was: " + subjectsPerStudent);
+        this.students = students;
+        this.subjectsPerStudent = subjectsPerStudent;
+        return this;
+    }
+
+    SimulationConfig dropChance(double dropChance){
+        inclusiveBetween(0.0, 1.0, dropChance);
+        this.dropChance = dropChance;
+        return this;
+    }
+
+    SimulationConfig fallbackThreads(int fallbackThreads){
+        isTrue(fallbackThreads > 0, "fallbackThreads must be positive, was: " + fallbackThreads);
+        this.fallbackThreads = fallbackThreads;
+        return this;
+    }
+}
@@ -0,0 +1,96 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.*;
+
+class SimulationReport {
+    private final int students;
+    private final long enlistAttempts;
+    private final long enlisted;
+    private final long cancelled;
+    private final long elapsedNanos;
+    private final boolean virtualThreads;
+    private final Map<String, Long> enlistLatencyNanos;
+    private final Map<String, Long> cancelLatencyNanos;
+    private final Map<String, Long> rejections;
+    private final List<String> sectionsOverCapacity;
+    private final List<String> sectionsWithWrongCount;
+
+    SimulationReport(int students, long enlistAttempts, long enlisted, long cancelled, long elapsedNanos, boolean virtualThreads,
+                     Map<String, Long> enlistLatencyNanos, Map<String, Long> cancelLatencyNanos, Map<String, Long> rejections,
+                     List<String> sectionsOverCapacity, List<String> sectionsWithWrongCount){
+        this.students = students;
+        this.enlistAttempts = enlistAttempts;
+        this.enlisted = enlisted;
+        this.cancelled = cancelled;
+        this.elapsedNanos = elapsedNanos;
+        this.virtualThreads = virtualThreads;
+        this.enlistLatencyNanos = Collections.unmodifiableMap(enlistLatencyNanos);
+        this.cancelLatencyNanos = Collections.unmodifiableMap(cancelLatencyNanos);
+        this.rejections = Collections.unmodifiableMap(new TreeMap<>(rejections));
+        this.sectionsOverCapacity = Collections.unmodifiableList(sectionsOverCapacity);
+        this.sectionsWithWrongCount = Collections.unmodifiableList(sectionsWithWrongCount);
+    }
+
+    // no section holds more students than its room seats, and every seat count matches the students holding the section
+    boolean isCapacityInvariantHeld(){
+        return sectionsOverCapacity.isEmpty() && sectionsWithWrongCount.isEmpty();
+    }
+
+    double getOperationsPerSecond(){
+        return elapsedNanos == 0 ? 0 : (enlistAttempts + cancelled) * 1e9 / elapsedNanos;
+    }
+
+    long getRejectionCount(){
+        return rejections.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    int getStudents(){
+        return students;
+    }
+
+    long getEnlistAttempts(){
+        return enlistAttempts;
+    }
+
+    long getEnlisted(){
+        return enlisted;
+    }
+
+    long getCancelled(){
+        return cancelled;
+    }
+
+    Map<String, Long> getEnlistLatencyNanos(){
+        return enlistLatencyNanos;
+    }
+
+    Map<String, Long> getCancelLatencyNanos(){
+        return cancelLatencyNanos;
+    }
+
+    Map<String, Long> getRejections(){
+        return rejections;
+    }
+
+    List<String> getSectionsOverCapacity(){
+        return sectionsOverCapacity;
+    }
+
+    List<String> getSectionsWithWrongCount(){
+        return sectionsWithWrongCount;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("students: %d on %s threads, %.0f ms%n", students, virtualThreads ? "virtual" : "platform", elapsedNanos / 1e6));
+        report.append(String.format("throughput: %.0f operations/s%n", getOperationsPerSecond()));
+        report.append(String.format("enlist: %d attempts, %d enlisted; cancel: %d%n", enlistAttempts, enlisted, cancelled));
+        report.append("enlist latency (ns): ").append(enlistLatencyNanos).append(System.lineSeparator());
+        report.append("cancel latency (ns): ").append(cancelLatencyNanos).append(System.lineSeparator());
+        report.append("rejections: ").append(rejections).append(System.lineSeparator());
+        report.append("capacity invariant: ").append(isCapacityInvariantHeld() ? "held" : "VIOLATED over capacity " + sectionsOverCapacity
+                + ", wrong counts " + sectionsWithWrongCount).append(System.lineSeparator());
+        return report.toString();
+    }
+}
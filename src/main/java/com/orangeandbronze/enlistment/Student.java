@@ -4,17 +4,21 @@ import com.orangeandbronze.enlistment.exceptions.MaxUnitsException;
 import org.apache.commons.lang3.*;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.*;
 
 import static org.apache.commons.lang3.Validate.notNull;
 
 class Student {
     private final int studentNumber;
-    private final Collection<Section> sections = new HashSet<>();
-    private final Collection<Subject> takenSubjects = new HashSet<>();
+    // replaced under the lock, never mutated, so readers take the current list without locking or copying
+    private volatile List<Section> sections;
+    private final SubjectSet takenSubjects = new SubjectSet();
     private final DegreeProgram program;
     private final int maxUnits = 24;
+    private WeekMask occupancy = WeekMask.EMPTY;
+    private int totalUnits = 0;
+    private int labCount = 0;
+    private long feeSubtotalCents = 0;
 
     Student(int studentNumber, Collection<Section> sections, DegreeProgram program){
 
@@ -23,8 +27,14 @@ class Student {
         notNull(program);
 
         this.studentNumber = studentNumber;
-        this.sections.addAll(sections);
-        this.sections.removeIf(Objects::isNull);
+        Set<Section> distinct = new LinkedHashSet<>(sections);
+        distinct.remove(null);
+        this.sections = List.copyOf(distinct);
+        for (Section section : this.sections) {
+            // enlist never lets sections overlap, and cancelling relies on it to free a section's slots by subtraction
+            Validate.isTrue(!section.conflictsWith(occupancy), "section %s overlaps another starting section", section);
+            addToAggregates(section);
+        }
         this.program = program;
     }
 
@@ -32,64 +42,372 @@ class Student {
         this(studentNumber, Collections.emptyList(), new DegreeProgram("", Collections.emptyList()));
     }
 
+    // timed outside the lock, so waiting behind another enlistment of the same student counts as latency
     void enlist(Section newSection){
+        long start = EnlistmentMetrics.global().startTimer();
+        try {
+            enlistLocked(newSection);
+        } catch (RuntimeException e) {
+            // outside the lock: a seat held while the rules were checked may have been given back, and the
+            // waitlist must not miss it
+            if (newSection != null) {
+                newSection.promoteFromWaitlist();
+            }
+            throw e;
+        } finally {
+            EnlistmentMetrics.global().recordEnlist(start);
+        }
+    }
+
+    private synchronized void enlistLocked(Section newSection){
         notNull(newSection);
-        sections.forEach(currSection -> currSection.checkScheduleConflict(newSection));
-        newSection.checkSectionRoomCapacity();
-        sections.forEach(currSection -> currSection.checkForDuplicateSubjects(newSection));
-        newSection.checkTakenPrerequisite(takenSubjects);
-        checkTotalUnits(newSection);
-        newSection.checkSubjectInProgram(program);
-        this.sections.add(newSection);
-        newSection.addStudent();
+        newSection.checkScheduleConflict(occupancy);
+        newSection.checkWaitlistTurn(this);
+        newSection.reserveSeat();
+        try {
+            sections.forEach(currSection -> currSection.checkForDuplicateSubjects(newSection));
+            newSection.checkTakenPrerequisite(program.getPrerequisiteGraph(), takenSubjects);
+            checkTotalUnits(newSection);
+            newSection.checkSubjectInProgram(program);
+        } catch (RuntimeException e) {
+            newSection.releaseSeat();
+            throw e;
+        }
+        newSection.addToRoster(studentNumber);
+        this.sections = with(newSection);
+        addToAggregates(newSection);
+        assert aggregatesMatch() : "running aggregates out of sync for " + this;
+        EnlistmentListeners.enlisted(this, newSection);
+    }
+
+    // All-or-nothing enlistment in a block of sections, e.g. a lecture and its lab. Every rule is checked against the
+    // block as a whole before any seat is taken; seats are then reserved in section ID order and all given back if one
+    // is full. Seat reservation never blocks, so the order is not for deadlock: it makes two students racing for the
+    // same block fail on the same first full section, instead of each taking half and both rolling back.
+    void enlistBlock(Collection<Section> block){
+        long start = EnlistmentMetrics.global().startTimer();
+        try {
+            enlistBlockLocked(block);
+        } catch (RuntimeException e) {
+            if (block != null) {
+                block.stream().filter(Objects::nonNull).forEach(Section::promoteFromWaitlist);
+            }
+            throw e;
+        } finally {
+            EnlistmentMetrics.global().recordEnlist(start);
+        }
+    }
+
+    private synchronized void enlistBlockLocked(Collection<Section> block){
+        List<Section> accepted = checkBlockLocked(block);
+
+        List<Section> ordered = new ArrayList<>(block);
+        ordered.sort(Comparator.comparing(Section::getSectionID));
+        int reserved = 0;
+        try {
+            for (Section newSection : ordered) {
+                newSection.reserveSeat();
+                reserved++;
+            }
+        } catch (RuntimeException e) {
+            for (int i = reserved - 1; i >= 0; i--) {
+                ordered.get(i).releaseSeat();
+            }
+            throw e;
+        }
+        recordBlock(block, accepted);
+    }
+
+    // the rule half of enlistBlock, taking no seats; lets a caller that holds the seats itself reject a block early
+    synchronized void checkBlock(Collection<Section> block){
+        checkBlockLocked(block);
+    }
+
+    // The commit half of enlistBlock, for a caller that already holds a seat in every section of the block, such as
+    // the two-phase path of ShardedEnlistmentEngine. The rules are checked again under the lock; if one fails,
+    // nothing is recorded and the seats stay with the caller to give back. Only the student's side is recorded:
+    // the caller adds the student to each section's roster, on whichever thread owns that section.
+    void enlistPreparedBlock(Collection<Section> block){
+        long start = EnlistmentMetrics.global().startTimer();
+        try {
+            enlistPreparedBlockLocked(block);
+        } finally {
+            EnlistmentMetrics.global().recordEnlist(start);
+        }
+    }
+
+    private synchronized void enlistPreparedBlockLocked(Collection<Section> block){
+        recordBlockOnStudent(block, checkBlockLocked(block));
+    }
+
+    // the current sections plus the block, if every rule holds for the block as a whole
+    private List<Section> checkBlockLocked(Collection<Section> block){
+        Validate.noNullElements(block);
+        Validate.isTrue(!block.isEmpty(), "block must not be empty");
+        Validate.isTrue(new HashSet<>(block).size() == block.size(), "block lists a section more than once: " + block);
+        WeekMask blockOccupancy = occupancy;
+        int blockUnits = totalUnits;
+        List<Section> accepted = new ArrayList<>(sections);
+        for (Section newSection : block) {
+            newSection.checkScheduleConflict(blockOccupancy);
+            newSection.checkWaitlistTurn(this);
+            accepted.forEach(currSection -> currSection.checkForDuplicateSubjects(newSection));
+            newSection.checkTakenPrerequisite(program.getPrerequisiteGraph(), takenSubjects);
+            checkUnits(blockUnits, newSection);
+            newSection.checkSubjectInProgram(program);
+            accepted.add(newSection);
+            blockOccupancy = blockOccupancy.union(newSection.getOccupancy());
+            blockUnits += newSection.getSubject().getUnits();
+        }
+        return accepted;
+    }
+
+    private void recordBlock(Collection<Section> block, List<Section> accepted){
+        block.forEach(newSection -> newSection.addToRoster(studentNumber));
+        recordBlockOnStudent(block, accepted);
+    }
+
+    private void recordBlockOnStudent(Collection<Section> block, List<Section> accepted){
+        this.sections = List.copyOf(accepted);
+        block.forEach(this::addToAggregates);
+        assert aggregatesMatch() : "running aggregates out of sync for " + this;
+        EnlistmentListeners.blockEnlisted(this, List.copyOf(block));
     }
 
     void cancelEnlistedSection(Section section){
+        long start = EnlistmentMetrics.global().startTimer();
+        try {
+            cancelAndPromote(section);
+        } finally {
+            EnlistmentMetrics.global().recordCancel(start);
+        }
+    }
+
+    private void cancelAndPromote(Section section){
         Validate.notNull(section);
-        Validate.isTrue(sections.contains(section), "Student not currently enlisted on the section");
-        section.removeStudent();
-        sections.remove(section);
+        synchronized (this) {
+            Validate.isTrue(sections.contains(section), "Student not currently enlisted on the section");
+            section.removeFromRoster(studentNumber);
+            section.releaseSeat();
+            sections = without(section);
+            removeFromAggregates(section);
+            assert aggregatesMatch() : "running aggregates out of sync for " + this;
+            EnlistmentListeners.cancelled(this, section);
+        }
+        // outside the lock: promoting enlists another student, who may be cancelling into our waitlist at the same time
+        section.promoteFromWaitlist();
     }
 
-    void checkTotalUnits (Section newSection){
-        if (getTotalUnits() + newSection.getSubject().getUnits() > maxUnits) {
-            throw new MaxUnitsException("You have exceeded the maximum units allowed.");
+    void joinWaitlist(Section section){
+        notNull(section);
+        synchronized (this) {
+            Validate.isTrue(!sections.contains(section), "Student already enlisted on the section");
+        }
+        section.joinWaitlist(this);
+        // a seat may already be free, and walk-ins now wait behind us
+        section.promoteFromWaitlist();
+    }
+
+    private List<Section> with(Section section){
+        Section[] grown = sections.toArray(new Section[sections.size() + 1]);
+        grown[grown.length - 1] = section;
+        return List.of(grown);
+    }
+
+    private List<Section> without(Section section){
+        List<Section> remaining = new ArrayList<>(sections);
+        remaining.remove(section);
+        return List.copyOf(remaining);
+    }
+
+    private void addToAggregates(Section section){
+        Subject subject = section.getSubject();
+        int labs = subject.isLab() ? 1 : 0;
+        occupancy = occupancy.union(section.getOccupancy());
+        totalUnits += subject.getUnits();
+        labCount += labs;
+        feeSubtotalCents += FeeSchedule.DEFAULT.subtotalCents(subject.getUnits(), labs);
+    }
+
+    // callers have already taken the section out of sections
+    private void removeFromAggregates(Section section){
+        Subject subject = section.getSubject();
+        int labs = subject.isLab() ? 1 : 0;
+        occupancy = occupancy.minus(section.getOccupancy());
+        totalUnits -= subject.getUnits();
+        labCount -= labs;
+        feeSubtotalCents -= FeeSchedule.DEFAULT.subtotalCents(subject.getUnits(), labs);
+    }
+
+    // the running aggregates must always equal a full recomputation over sections; checked after every change when assertions are on
+    synchronized boolean aggregatesMatch(){
+        WeekMask recomputedOccupancy = WeekMask.EMPTY;
+        int recomputedUnits = 0;
+        int recomputedLabs = 0;
+        long recomputedSubtotal = 0;
+        for (Section enlistedSection: sections) {
+            Subject subject = enlistedSection.getSubject();
+            int labs = subject.isLab() ? 1 : 0;
+            recomputedOccupancy = recomputedOccupancy.union(enlistedSection.getOccupancy());
+            recomputedUnits += subject.getUnits();
+            recomputedLabs += labs;
+            recomputedSubtotal += FeeSchedule.DEFAULT.subtotalCents(subject.getUnits(), labs);
         }
+        return recomputedOccupancy.equals(occupancy) && recomputedUnits == totalUnits
+                && recomputedLabs == labCount && recomputedSubtotal == feeSubtotalCents;
     }
 
-    BigDecimal requestAssessment(){
-        BigDecimal assessment = new BigDecimal(0);
-        if(!sections.isEmpty()){
-            for(Section enlistedSection: sections){
-                assessment = assessment.add(new BigDecimal(2000 * enlistedSection.getSubject().getUnits()));
-                if(enlistedSection.getSubject().isLab()){
-                    assessment = assessment.add(new BigDecimal(1000));
-                }
+    synchronized CartValidation validateCart(Collection<Section> cart){
+        notNull(cart);
+        CartValidation validation = new CartValidation();
+        Collection<Section> accepted = new ArrayList<>(sections);
+        WeekMask cartOccupancy = occupancy;
+        int cartUnits = getTotalUnits();
+        // a section listed twice is checked once, at its first place, and reported as a duplicate
+        Set<Section> seen = new HashSet<>();
+        Set<Section> duplicated = new HashSet<>();
+        for (Section section : cart) {
+            notNull(section);
+            if (!seen.add(section)) {
+                duplicated.add(section);
             }
-            assessment = assessment.add(new BigDecimal(3000));
-            assessment = assessment.multiply(new BigDecimal("1.12"));
         }
-        assessment = assessment.setScale(2, RoundingMode.HALF_EVEN);
-        return assessment;
+        seen.clear();
+        for (Section section : cart) {
+            if (!seen.add(section)) {
+                continue;
+            }
+            Set<Violation> violations = EnumSet.noneOf(Violation.class);
+            if (duplicated.contains(section)) {
+                violations.add(Violation.DUPLICATE_SECTION);
+            }
+            if (section.conflictsWith(cartOccupancy)) {
+                violations.add(Violation.SCHEDULE_CONFLICT);
+            }
+            if (section.isFull() || section.isHeldForWaitlist(this)) {
+                violations.add(Violation.CAPACITY_REACHED);
+            }
+            if (accepted.stream().anyMatch(section::hasSameSubject)) {
+                violations.add(Violation.SAME_SUBJECT);
+            }
+            if (!section.hasTakenPrerequisite(program.getPrerequisiteGraph(), takenSubjects)) {
+                violations.add(Violation.PREREQUISITE_NOT_TAKEN);
+            }
+            if (exceedsMaxUnits(cartUnits, section)) {
+                violations.add(Violation.MAX_UNITS);
+            }
+            if (!section.isInProgram(program)) {
+                violations.add(Violation.SUBJECT_NOT_IN_PROGRAM);
+            }
+            validation.put(section, violations);
+            if (violations.isEmpty()) {
+                accepted.add(section);
+                cartOccupancy = cartOccupancy.union(section.getOccupancy());
+                cartUnits += section.getSubject().getUnits();
+            }
+        }
+        return validation;
     }
 
-    Collection<Section> getSections(){
-        return new ArrayList<>(sections);
+    // the per-subject part of the enlist rules: in the program, prerequisites taken, not yet enlisted, units to spare
+    synchronized boolean canTake(Subject subject){
+        notNull(subject);
+        return program.containsSubject(subject)
+                && program.getPrerequisiteGraph().hasTakenPrerequisites(subject, takenSubjects)
+                && totalUnits + subject.getUnits() <= maxUnits
+                && sections.stream().noneMatch(section -> section.getSubject().equals(subject));
     }
 
-    Collection<Subject> getTakenSubjects(){
-        return takenSubjects;
+    synchronized int getRemainingUnits(){
+        return maxUnits - totalUnits;
     }
 
-    int getTotalUnits (){
-        int totalUnits = 0;
-        for (Section enlistedSection: sections) {
-            totalUnits += enlistedSection.getSubject().getUnits();
+    synchronized WeekMask getOccupancy(){
+        return occupancy;
+    }
+
+    private boolean exceedsMaxUnits(int units, Section newSection){
+        return units + newSection.getSubject().getUnits() > maxUnits;
+    }
+
+    void checkTotalUnits (Section newSection){
+        checkUnits(getTotalUnits(), newSection);
+    }
+
+    private void checkUnits(int units, Section newSection){
+        if (exceedsMaxUnits(units, newSection)) {
+            throw EnlistmentMetrics.global().rejected(new MaxUnitsException("You have exceeded the maximum units allowed."));
         }
+    }
+
+    synchronized BigDecimal requestAssessment(){
+        return FeeSchedule.toAmount(FeeSchedule.DEFAULT.assessCents(sections.size(), feeSubtotalCents));
+    }
+
+    // sections, units and labs read under one lock, so a concurrent enlist or cancel cannot tear the assessment
+    synchronized long assessCents(FeeSchedule fees){
+        notNull(fees);
+        return fees.assessCents(sections.size(), totalUnits, labCount);
+    }
+
+    int getStudentNumber(){
+        return studentNumber;
+    }
+
+    // the current immutable list itself: no lock and no copy
+    List<Section> getSections(){
+        return sections;
+    }
+
+    int getSectionCount(){
+        return sections.size();
+    }
+
+    Collection<Subject> getTakenSubjects(){
+        return Collections.unmodifiableCollection(takenSubjects);
+    }
+
+    synchronized int getTotalUnits (){
         return totalUnits;
     }
 
-    void addTakenSubjects(Subject subject){
+    synchronized int getLabCount(){
+        return labCount;
+    }
+
+    synchronized long getFeeSubtotalCents(){
+        return feeSubtotalCents;
+    }
+
+    synchronized void addTakenSubjects(Subject subject){
+        if (takenSubjects.add(subject)) {
+            EnlistmentListeners.subjectTaken(this, subject);
+        }
+    }
+
+    // rebuilds state recorded earlier, e.g. from the journal: no rules, no waitlist promotion, and no student events,
+    // though the section still reports its seat change to seatsChanged listeners
+    synchronized void restoreEnlistment(Section section){
+        notNull(section);
+        if (!sections.contains(section)) {
+            sections = with(section);
+            section.restoreSeat();
+            section.addToRoster(studentNumber);
+            addToAggregates(section);
+        }
+    }
+
+    synchronized void restoreCancellation(Section section){
+        notNull(section);
+        if (sections.contains(section)) {
+            sections = without(section);
+            section.removeFromRoster(studentNumber);
+            section.releaseSeat();
+            removeFromAggregates(section);
+        }
+    }
+
+    synchronized void restoreTakenSubject(Subject subject){
         takenSubjects.add(subject);
     }
 
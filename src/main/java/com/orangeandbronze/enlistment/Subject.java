@@ -5,13 +5,18 @@ import java.util.*;
 import static org.apache.commons.lang3.StringUtils.isAlphanumeric;
 import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notBlank;
+import static org.apache.commons.lang3.Validate.notNull;
 
 public class Subject {
     private final String subjectID;
 
+    private final SubjectCatalog catalog;
+
+    private final int id;
+
     private final int units;
 
-    private final Collection<Subject> prerequisites  = new HashSet<>();
+    private final SubjectSet prerequisites;
 
     private final boolean isLab;
 
@@ -24,18 +29,43 @@ public class Subject {
     }
 
     Subject(String subjectID, int units, Collection<Subject> prerequisites, boolean isLab){
+        this(SubjectCatalog.STANDALONE, subjectID, units, prerequisites, isLab);
+    }
+
+    // prerequisites must come from the same catalog
+    Subject(SubjectCatalog catalog, String subjectID, int units, Collection<Subject> prerequisites, boolean isLab){
+        notNull(catalog);
         notBlank(subjectID);
         isTrue(isAlphanumeric(subjectID), "subjectID must be alphanumeric, was: " + subjectID);
+        this.catalog = catalog;
         this.subjectID = subjectID;
         this.units = units;
+        this.prerequisites = new SubjectSet(catalog);
         this.prerequisites.addAll(prerequisites);
         this.isLab = isLab;
+        this.id = catalog.idOf(subjectID);
     }
     
     Collection<Subject> getPrerequisites(){
         return new ArrayList<>(this.prerequisites);
     }
 
+    boolean hasPrerequisitesIn(Collection<Subject> takenSubjects){
+        return takenSubjects.containsAll(this.prerequisites);
+    }
+
+    String getSubjectID() {
+        return subjectID;
+    }
+
+    SubjectCatalog getCatalog() {
+        return catalog;
+    }
+
+    int getId() {
+        return id;
+    }
+
     int getUnits() {
         return units;
     }
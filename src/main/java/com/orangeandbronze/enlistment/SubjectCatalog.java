@@ -0,0 +1,59 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notBlank;
+
+// The id space of one catalog: its subjectIDs are numbered densely from 0, so the subject sets built from it are
+// bitsets sized by this catalog alone, however many other catalogs the process has loaded. Subjects defined through
+// subject(...) are interned, one instance per subjectID. Subjects made with Subject's own constructors are numbered
+// in STANDALONE, for code that builds a handful of subjects by hand.
+class SubjectCatalog {
+    static final SubjectCatalog STANDALONE = new SubjectCatalog();
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Subject> subjects = new ConcurrentHashMap<>();
+
+    Subject subject(String subjectID, int units){
+        return subject(subjectID, units, Collections.emptyList(), false);
+    }
+
+    // defining a subjectID again returns the subject already defined, as long as the definitions agree
+    Subject subject(String subjectID, int units, Collection<Subject> prerequisites, boolean isLab){
+        Subject defined = subjects.get(subjectID);
+        if (defined == null) {
+            defined = subjects.computeIfAbsent(subjectID, key -> new Subject(this, key, units, prerequisites, isLab));
+        }
+        isTrue(defined.getUnits() == units && defined.isLab() == isLab
+                        && new HashSet<>(defined.getPrerequisites()).equals(new HashSet<>(prerequisites)),
+                "subject %s is already defined differently in this catalog", subjectID);
+        return defined;
+    }
+
+    Optional<Subject> find(String subjectID){
+        return Optional.ofNullable(subjects.get(subjectID));
+    }
+
+    int idOf(String subjectID){
+        notBlank(subjectID);
+        Integer id = ids.get(subjectID);
+        if (id != null) {
+            return id;
+        }
+        synchronized (ids) {
+            return ids.computeIfAbsent(subjectID, key -> ids.size());
+        }
+    }
+
+    // -1 when the subjectID was never numbered here
+    int knownId(String subjectID){
+        Integer id = ids.get(subjectID);
+        return id != null ? id : -1;
+    }
+
+    int size(){
+        return ids.size();
+    }
+}
@@ -0,0 +1,213 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+// One bit per catalog id for membership, plus the subjects themselves in id order, so iteration gives back
+// the instances that were added. A subject's slot in members is the number of set bits below its own.
+// Ids only mean something within one SubjectCatalog, so a set takes the catalog of its first subject
+// and refuses subjects from any other; a subject from another catalog is looked up by its subjectID.
+class SubjectSet extends AbstractSet<Subject> {
+    private SubjectCatalog catalog;
+    private long[] words;
+    private Subject[] members;
+    private int size;
+
+    SubjectSet(){
+        words = new long[1];
+        members = new Subject[4];
+    }
+
+    SubjectSet(SubjectCatalog catalog){
+        this();
+        this.catalog = notNull(catalog);
+    }
+
+    SubjectSet(Collection<Subject> subjects){
+        this();
+        notNull(subjects);
+        subjects.forEach(this::add);
+    }
+
+    boolean containsId(int id){
+        if (id < 0) {
+            return false;
+        }
+        int word = id >>> 6;
+        return word < words.length && (words[word] & (1L << id)) != 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Subject && containsId(idOf((Subject) o));
+    }
+
+    private int idOf(Subject subject){
+        if (subject.getCatalog() == catalog) {
+            return subject.getId();
+        }
+        return catalog != null ? catalog.knownId(subject.getSubjectID()) : -1;
+    }
+
+    private boolean sameCatalog(SubjectSet other){
+        return catalog == other.catalog || catalog == null && size == 0 || other.catalog == null && other.size == 0;
+    }
+
+    private void bindTo(SubjectCatalog subjectCatalog){
+        if (catalog == null) {
+            catalog = subjectCatalog;
+        }
+        isTrue(catalog == subjectCatalog, "cannot mix subjects from different catalogs in one set");
+    }
+
+    private int rank(int id){
+        int word = id >>> 6;
+        int rank = Long.bitCount(words[word] & ((1L << id) - 1));
+        for (int i = 0; i < word; i++) {
+            rank += Long.bitCount(words[i]);
+        }
+        return rank;
+    }
+
+    @Override
+    public boolean add(Subject subject) {
+        notNull(subject);
+        bindTo(subject.getCatalog());
+        int id = subject.getId();
+        if (containsId(id)) {
+            return false;
+        }
+        int word = id >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        int slot = rank(id);
+        if (size == members.length) {
+            members = Arrays.copyOf(members, size * 2);
+        }
+        System.arraycopy(members, slot, members, slot + 1, size - slot);
+        members[slot] = subject;
+        words[word] |= 1L << id;
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!contains(o)) {
+            return false;
+        }
+        removeId(idOf((Subject) o));
+        return true;
+    }
+
+    private void removeId(int id){
+        int slot = rank(id);
+        System.arraycopy(members, slot + 1, members, slot, size - slot - 1);
+        members[--size] = null;
+        words[id >>> 6] &= ~(1L << id);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        if (!(c instanceof SubjectSet) || !sameCatalog((SubjectSet) c)) {
+            return super.containsAll(c);
+        }
+        long[] other = ((SubjectSet) c).words;
+        for (int i = 0; i < other.length; i++) {
+            long mine = i < words.length ? words[i] : 0;
+            if ((other[i] & ~mine) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // a merge of the two id-ordered member arrays; on a shared id the subject already here is kept
+    @Override
+    public boolean addAll(Collection<? extends Subject> c) {
+        if (!(c instanceof SubjectSet)) {
+            return super.addAll(c);
+        }
+        SubjectSet other = (SubjectSet) c;
+        if (containsAll(other)) {
+            return false;
+        }
+        bindTo(other.catalog);
+        Subject[] merged = new Subject[size + other.size];
+        int mine = 0;
+        int theirs = 0;
+        int count = 0;
+        while (mine < size || theirs < other.size) {
+            if (theirs == other.size || (mine < size && members[mine].getId() <= other.members[theirs].getId())) {
+                if (theirs < other.size && members[mine].getId() == other.members[theirs].getId()) {
+                    theirs++;
+                }
+                merged[count++] = members[mine++];
+            } else {
+                merged[count++] = other.members[theirs++];
+            }
+        }
+        if (other.words.length > words.length) {
+            words = Arrays.copyOf(words, other.words.length);
+        }
+        for (int i = 0; i < other.words.length; i++) {
+            words[i] |= other.words[i];
+        }
+        members = merged;
+        size = count;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Subject> iterator() {
+        return new Iterator<>() {
+            private int next = 0;
+            private boolean removable = false;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Subject next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                removable = true;
+                return members[next++];
+            }
+
+            @Override
+            public void remove() {
+                if (!removable) {
+                    throw new IllegalStateException();
+                }
+                removeId(members[--next].getId());
+                removable = false;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SubjectSet)) {
+            return super.equals(o);
+        }
+        SubjectSet other = (SubjectSet) o;
+        return size == other.size && containsAll(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
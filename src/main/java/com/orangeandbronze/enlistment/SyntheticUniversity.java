@@ -0,0 +1,149 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+// A whole term generated from SimulationConfig; the same config, seed included, always yields the same term.
+// Subjects are spread over levels, each prerequisite comes from the level below, and a student in year y has taken
+// every subject below level y, so the subjects of level y are what the student registers for.
+class SyntheticUniversity {
+    private static final int[][] LECTURE_PERIODS = {{830, 1000}, {1000, 1130}, {1130, 1300}, {1300, 1430}, {1430, 1600}, {1600, 1730}};
+    private static final int[][] LAB_PERIODS = {{830, 1130}, {1130, 1430}, {1430, 1730}};
+    private static final int MAX_ROOM_TRIES = 20;
+
+    private final SubjectCatalog catalog = new SubjectCatalog();
+    private final List<Subject> subjects = new ArrayList<>();
+    private final List<List<Subject>> subjectsByLevel = new ArrayList<>();
+    private final List<Room> rooms = new ArrayList<>();
+    private final List<Section> sections = new ArrayList<>();
+    private final Map<Subject, List<Section>> sectionsBySubject = new HashMap<>();
+    private final List<DegreeProgram> programs = new ArrayList<>();
+    private final List<Student> students = new ArrayList<>();
+    private final Map<Student, Integer> years = new HashMap<>();
+
+    SyntheticUniversity(SimulationConfig config){
+        notNull(config);
+        Random random = new Random(config.seed);
+        // subjects, rooms and sections are equal by ID, so another seed's must not clash with these in the same JVM
+        String prefix = "SIM" + Long.toUnsignedString(config.seed, 36).toUpperCase() + "X";
+        generateSubjects(config, random, prefix);
+        generateRooms(config, random, prefix);
+        generateSections(config, random, prefix);
+        generatePrograms(config, random, prefix);
+        generateStudents(config, random);
+    }
+
+    private void generateSubjects(SimulationConfig config, Random random, String prefix){
+        for (int i = 0; i < config.subjects; i++) {
+            int level = i * config.levels / config.subjects;
+            if (level == subjectsByLevel.size()) {
+                subjectsByLevel.add(new ArrayList<>());
+            }
+            Set<Subject> prerequisites = new HashSet<>();
+            if (level > 0 && random.nextDouble() < config.prerequisiteChance) {
+                List<Subject> below = subjectsByLevel.get(level - 1);
+                int count = 1 + random.nextInt(2);
+                for (int p = 0; p < count; p++) {
+                    prerequisites.add(below.get(random.nextInt(below.size())));
+                }
+            }
+            int units = random.nextInt(10) < 7 ? 3 : 1 + random.nextInt(5);
+            Subject subject = catalog.subject(prefix + "S" + i, units, prerequisites, random.nextDouble() < config.labShare);
+            subjects.add(subject);
+            subjectsByLevel.get(level).add(subject);
+        }
+    }
+
+    private void generateRooms(SimulationConfig config, Random random, String prefix){
+        for (int i = 0; i < config.rooms; i++) {
+            int capacity = config.minRoomCapacity + random.nextInt(config.maxRoomCapacity - config.minRoomCapacity + 1);
+            rooms.add(new Room(prefix + "R" + i, capacity));
+        }
+    }
+
+    // a section goes to the first randomly drawn room that is free at its schedule; it is dropped when none is found
+    private void generateSections(SimulationConfig config, Random random, String prefix){
+        RoomCalendar calendar = new RoomCalendar();
+        Days[] days = Days.values();
+        for (Subject subject : subjects) {
+            List<Section> subjectSections = new ArrayList<>();
+            for (int s = 0; s < config.sectionsPerSubject; s++) {
+                int[][] periods = subject.isLab() ? LAB_PERIODS : LECTURE_PERIODS;
+                int[] period = periods[random.nextInt(periods.length)];
+                Schedule schedule = new Schedule(days[random.nextInt(days.length)], new Period(period[0], period[1]));
+                for (int attempt = 0; attempt < MAX_ROOM_TRIES; attempt++) {
+                    Room room = rooms.get(random.nextInt(rooms.size()));
+                    if (calendar.isFree(room, schedule)) {
+                        Section section = new Section(subject.getSubjectID() + "N" + s, schedule, room, subject);
+                        calendar.add(section);
+                        subjectSections.add(section);
+                        break;
+                    }
+                }
+            }
+            sections.addAll(subjectSections);
+            sectionsBySubject.put(subject, subjectSections);
+        }
+    }
+
+    private void generatePrograms(SimulationConfig config, Random random, String prefix){
+        for (int i = 0; i < config.programs; i++) {
+            List<Subject> programSubjects = new ArrayList<>();
+            for (Subject subject : subjects) {
+                if (random.nextDouble() < config.programShare) {
+                    programSubjects.add(subject);
+                }
+            }
+            programs.add(new DegreeProgram(prefix + "P" + i, programSubjects));
+        }
+    }
+
+    private void generateStudents(SimulationConfig config, Random random){
+        for (int number = 1; number <= config.students; number++) {
+            DegreeProgram program = programs.get(random.nextInt(programs.size()));
+            int year = random.nextInt(config.levels);
+            Student student = new Student(number, Collections.emptyList(), program);
+            for (int level = 0; level < year; level++) {
+                subjectsByLevel.get(level).forEach(student::addTakenSubjects);
+            }
+            students.add(student);
+            years.put(student, year);
+        }
+    }
+
+    // the subjects of the student's year in their program, in a stable order
+    List<Subject> getSubjectsToTake(Student student){
+        List<Subject> toTake = new ArrayList<>();
+        for (Subject subject : subjectsByLevel.get(years.get(student))) {
+            if (student.canTake(subject)) {
+                toTake.add(subject);
+            }
+        }
+        return toTake;
+    }
+
+    List<Section> getSections(Subject subject){
+        return sectionsBySubject.getOrDefault(subject, Collections.emptyList());
+    }
+
+    List<Subject> getSubjects(){
+        return Collections.unmodifiableList(subjects);
+    }
+
+    List<Room> getRooms(){
+        return Collections.unmodifiableList(rooms);
+    }
+
+    List<Section> getSections(){
+        return Collections.unmodifiableList(sections);
+    }
+
+    List<DegreeProgram> getPrograms(){
+        return Collections.unmodifiableList(programs);
+    }
+
+    List<Student> getStudents(){
+        return Collections.unmodifiableList(students);
+    }
+}
@@ -0,0 +1,40 @@
+package com.orangeandbronze.enlistment;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+// Prometheus text exposition format, one sample per line
+class TextMetricsExporter implements MetricsExporter {
+    @Override
+    public void export(EnlistmentMetrics metrics, Appendable out) throws IOException {
+        notNull(metrics);
+        notNull(out);
+        out.append("# TYPE enlistment_rejections_total counter\n");
+        for (Map.Entry<String, Long> rejection : metrics.getRejections().entrySet()) {
+            out.append("enlistment_rejections_total{type=\"").append(rejection.getKey()).append("\"} ")
+                    .append(String.valueOf(rejection.getValue())).append('\n');
+        }
+        out.append("# TYPE enlistment_latency_nanos summary\n");
+        writeLatency(out, "enlist", metrics.getEnlistLatency());
+        writeLatency(out, "cancel", metrics.getCancelLatency());
+        out.append("# TYPE enlistment_section_fill_ratio gauge\n");
+        for (Map.Entry<String, Double> fillRate : metrics.getSectionFillRates().entrySet()) {
+            out.append("enlistment_section_fill_ratio{section=\"").append(fillRate.getKey()).append("\"} ")
+                    .append(String.valueOf(fillRate.getValue())).append('\n');
+        }
+    }
+
+    private static void writeLatency(Appendable out, String operation, LatencyHistogram histogram) throws IOException {
+        for (double quantile : EnlistmentMetrics.QUANTILES) {
+            out.append("enlistment_latency_nanos{operation=\"").append(operation).append("\",quantile=\"")
+                    .append(String.valueOf(quantile / 100)).append("\"} ")
+                    .append(String.valueOf(histogram.getValueAtPercentile(quantile))).append('\n');
+        }
+        out.append("enlistment_latency_nanos_sum{operation=\"").append(operation).append("\"} ")
+                .append(String.valueOf(histogram.getSum())).append('\n');
+        out.append("enlistment_latency_nanos_count{operation=\"").append(operation).append("\"} ")
+                .append(String.valueOf(histogram.getCount())).append('\n');
+    }
+}
@@ -0,0 +1,37 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.*;
+
+class Timetable {
+    private final List<Section> sections;
+    private final List<Subject> missingSubjects;
+    private final int remainingSeats;
+
+    Timetable(List<Section> sections, List<Subject> missingSubjects, int remainingSeats){
+        this.sections = List.copyOf(sections);
+        this.missingSubjects = List.copyOf(missingSubjects);
+        this.remainingSeats = remainingSeats;
+    }
+
+    List<Section> getSections() {
+        return sections;
+    }
+
+    List<Subject> getMissingSubjects() {
+        return missingSubjects;
+    }
+
+    boolean isComplete() {
+        return missingSubjects.isEmpty();
+    }
+
+    // seats left across the chosen sections when the timetable was generated, the tie-breaker between equally complete timetables
+    int getRemainingSeats() {
+        return remainingSeats;
+    }
+
+    @Override
+    public String toString() {
+        return sections + (missingSubjects.isEmpty() ? "" : " missing " + missingSubjects);
+    }
+}
@@ -0,0 +1,225 @@
+package com.orangeandbronze.enlistment;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static org.apache.commons.lang3.Validate.*;
+
+// Branch and bound over one section per desired subject (or none). Timetables are ranked by subjects covered,
+// then by seats left in the chosen sections. Subjects with the fewest candidate sections are branched on first,
+// overlapping schedules are cut with a single mask test, and the top levels of the search tree are forked.
+class TimetableGenerator {
+    private static final long SEAT_SCALE = 1L << 32;
+    private static final int FORK_DEPTH = 2;
+    private static final int NODES_BETWEEN_CLOCK_CHECKS = 1024;
+
+    private final Map<Subject, List<Section>> sectionsBySubject = new HashMap<>();
+    private final int parallelism;
+
+    TimetableGenerator(Collection<Section> sections, int parallelism){
+        noNullElements(sections);
+        isTrue(parallelism > 0, "parallelism must be positive, was: " + parallelism);
+        sections.forEach(section -> sectionsBySubject.computeIfAbsent(section.getSubject(), subject -> new ArrayList<>()).add(section));
+        this.parallelism = parallelism;
+    }
+
+    List<Timetable> generate(Student student, List<Subject> desiredSubjects, int k, Duration budget){
+        notNull(student);
+        noNullElements(desiredSubjects);
+        isTrue(k > 0, "k must be positive, was: " + k);
+        notNull(budget);
+        long deadline = System.nanoTime() + budget.toNanos();
+
+        WeekMask occupancy = student.getOccupancy();
+        List<Subject> unavailable = new ArrayList<>();
+        List<Choice> choices = new ArrayList<>();
+        for (Subject subject : new LinkedHashSet<>(desiredSubjects)) {
+            Choice choice = student.canTake(subject) ? new Choice(subject, sectionsBySubject.getOrDefault(subject, Collections.emptyList()), occupancy) : null;
+            if (choice == null || choice.sections.length == 0) {
+                unavailable.add(subject);
+            } else {
+                choices.add(choice);
+            }
+        }
+        choices.sort(Comparator.comparingInt(choice -> choice.sections.length));
+
+        Search search = new Search(choices.toArray(new Choice[0]), student.getRemainingUnits(), k, deadline);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(search.new Node(0, occupancy, 0, 0, 0, new int[choices.size()]));
+        } finally {
+            pool.shutdown();
+        }
+        return search.results(unavailable);
+    }
+
+    private static class Choice {
+        private final Subject subject;
+        private final int units;
+        private final Section[] sections;
+        private final WeekMask[] occupancies;
+        private final int[] seats;
+        private final int maxSeats;
+
+        // only sections with a free seat that fit around what the student already has
+        private Choice(Subject subject, List<Section> candidates, WeekMask occupancy){
+            this.subject = subject;
+            this.units = subject.getUnits();
+            List<Section> open = new ArrayList<>();
+            List<Integer> openSeats = new ArrayList<>();
+            for (Section section : candidates) {
+                int remaining = section.getRemainingSeats();
+                if (remaining > 0 && !section.conflictsWith(occupancy)) {
+                    open.add(section);
+                    openSeats.add(remaining);
+                }
+            }
+            this.sections = open.toArray(new Section[0]);
+            this.occupancies = open.stream().map(Section::getOccupancy).toArray(WeekMask[]::new);
+            this.seats = openSeats.stream().mapToInt(Integer::intValue).toArray();
+            this.maxSeats = Arrays.stream(seats).max().orElse(0);
+        }
+    }
+
+    private static class Search {
+        private final Choice[] choices;
+        private final long[] maxSeatsFrom;
+        private final int unitsAvailable;
+        private final int k;
+        private final long deadline;
+        private final PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingLong(candidate -> candidate.score));
+        private volatile long threshold = Long.MIN_VALUE;
+        private volatile boolean expired;
+
+        private Search(Choice[] choices, int unitsAvailable, int k, long deadline){
+            this.choices = choices;
+            this.unitsAvailable = unitsAvailable;
+            this.k = k;
+            this.deadline = deadline;
+            this.maxSeatsFrom = new long[choices.length + 1];
+            for (int i = choices.length - 1; i >= 0; i--) {
+                maxSeatsFrom[i] = maxSeatsFrom[i + 1] + choices[i].maxSeats;
+            }
+        }
+
+        private static long score(int covered, long seats){
+            return covered * SEAT_SCALE + seats;
+        }
+
+        private synchronized void offer(int covered, long seats, int[] picks){
+            if (covered == 0) {
+                return;
+            }
+            long score = score(covered, seats);
+            if (best.size() == k && score <= best.peek().score) {
+                return;
+            }
+            best.add(new Candidate(score, picks.clone()));
+            if (best.size() > k) {
+                best.poll();
+            }
+            if (best.size() == k) {
+                threshold = best.peek().score;
+            }
+        }
+
+        private synchronized List<Timetable> results(List<Subject> unavailable){
+            List<Candidate> ranked = new ArrayList<>(best);
+            ranked.sort(Comparator.comparingLong((Candidate candidate) -> candidate.score).reversed());
+            List<Timetable> timetables = new ArrayList<>();
+            for (Candidate candidate : ranked) {
+                List<Section> sections = new ArrayList<>();
+                List<Subject> missing = new ArrayList<>(unavailable);
+                for (int i = 0; i < choices.length; i++) {
+                    if (candidate.picks[i] < 0) {
+                        missing.add(choices[i].subject);
+                    } else {
+                        sections.add(choices[i].sections[candidate.picks[i]]);
+                    }
+                }
+                timetables.add(new Timetable(sections, missing, (int) (candidate.score % SEAT_SCALE)));
+            }
+            return timetables;
+        }
+
+        private class Node extends RecursiveAction {
+            private final int depth;
+            private final WeekMask occupancy;
+            private final int units;
+            private final int covered;
+            private final long seats;
+            private final int[] picks;
+            private int nodes;
+
+            private Node(int depth, WeekMask occupancy, int units, int covered, long seats, int[] picks){
+                this.depth = depth;
+                this.occupancy = occupancy;
+                this.units = units;
+                this.covered = covered;
+                this.seats = seats;
+                this.picks = picks;
+            }
+
+            @Override
+            protected void compute() {
+                if (depth < FORK_DEPTH && depth < choices.length) {
+                    Choice choice = choices[depth];
+                    List<Node> children = new ArrayList<>();
+                    for (int i = 0; i < choice.sections.length; i++) {
+                        if (!occupancy.intersects(choice.occupancies[i]) && units + choice.units <= unitsAvailable) {
+                            int[] childPicks = picks.clone();
+                            childPicks[depth] = i;
+                            children.add(new Node(depth + 1, occupancy.union(choice.occupancies[i]), units + choice.units, covered + 1, seats + choice.seats[i], childPicks));
+                        }
+                    }
+                    int[] skipPicks = picks.clone();
+                    skipPicks[depth] = -1;
+                    children.add(new Node(depth + 1, occupancy, units, covered, seats, skipPicks));
+                    invokeAll(children);
+                } else {
+                    search(depth, occupancy, units, covered, seats);
+                }
+            }
+
+            private void search(int depth, WeekMask occupancy, int units, int covered, long seats){
+                if (expired) {
+                    return;
+                }
+                if (++nodes % NODES_BETWEEN_CLOCK_CHECKS == 0 && System.nanoTime() > deadline) {
+                    expired = true;
+                    return;
+                }
+                if (score(covered + choices.length - depth, seats + maxSeatsFrom[depth]) <= threshold) {
+                    return;
+                }
+                if (depth == choices.length) {
+                    offer(covered, seats, picks);
+                    return;
+                }
+                Choice choice = choices[depth];
+                if (units + choice.units <= unitsAvailable) {
+                    for (int i = 0; i < choice.sections.length; i++) {
+                        if (!occupancy.intersects(choice.occupancies[i])) {
+                            picks[depth] = i;
+                            search(depth + 1, occupancy.union(choice.occupancies[i]), units + choice.units, covered + 1, seats + choice.seats[i]);
+                        }
+                    }
+                }
+                picks[depth] = -1;
+                search(depth + 1, occupancy, units, covered, seats);
+            }
+        }
+    }
+
+    private static class Candidate {
+        private final long score;
+        private final int[] picks;
+
+        private Candidate(long score, int[] picks){
+            this.score = score;
+            this.picks = picks;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.orangeandbronze.enlistment;
+
+enum Violation {
+    SCHEDULE_CONFLICT, CAPACITY_REACHED, SAME_SUBJECT, PREREQUISITE_NOT_TAKEN, MAX_UNITS, SUBJECT_NOT_IN_PROGRAM, DUPLICATE_SECTION
+}
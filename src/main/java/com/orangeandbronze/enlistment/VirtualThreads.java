@@ -0,0 +1,44 @@
+package com.orangeandbronze.enlistment;
+
+import java.util.concurrent.*;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+// The build does not pin a Java release, so virtual threads are looked up at run time:
+// on Java 21+ each task gets its own virtual thread, on older runtimes a fixed pool of platform threads is used.
+final class VirtualThreads {
+    private VirtualThreads(){
+    }
+
+    static boolean isAvailable(){
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    static ExecutorService newExecutor(int fallbackThreads){
+        isTrue(fallbackThreads > 0, "fallbackThreads must be positive, was: " + fallbackThreads);
+        ExecutorService virtual = newVirtualExecutor();
+        return virtual != null ? virtual : Executors.newFixedThreadPool(fallbackThreads);
+    }
+
+    // the fallback pool queues at most fallbackQueue tasks while its threads are busy and hands any more to rejected
+    static ExecutorService newExecutor(int fallbackThreads, int fallbackQueue, RejectedExecutionHandler rejected){
+        isTrue(fallbackThreads > 0, "fallbackThreads must be positive, was: " + fallbackThreads);
+        isTrue(fallbackQueue > 0, "fallbackQueue must be positive, was: " + fallbackQueue);
+        ExecutorService virtual = newVirtualExecutor();
+        return virtual != null ? virtual : new ThreadPoolExecutor(fallbackThreads, fallbackThreads, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(fallbackQueue), rejected);
+    }
+
+    private static ExecutorService newVirtualExecutor(){
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
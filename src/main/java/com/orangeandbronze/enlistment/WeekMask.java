@@ -0,0 +1,194 @@
+package com.orangeandbronze.enlistment;
+
+import java.time.DayOfWeek;
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+// Immutable set of 5-minute slots over the whole week, Monday 0000 being slot 0: 2016 slots in 32 words.
+// Only the words with a slot set are stored, with one bit per word in present, so a schedule meeting on two days
+// holds two to four words and an overlap test ANDs only the words both masks have.
+final class WeekMask {
+    static final int SLOT_MINUTES = 5;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    static final int SLOTS = 7 * SLOTS_PER_DAY;
+    static final int WORDS = (SLOTS + 63) / 64;
+    static final WeekMask EMPTY = new WeekMask(0, new long[0]);
+
+    private final int present;
+    private final long[] words;
+
+    private WeekMask(int present, long[] words){
+        this.present = present;
+        this.words = words;
+    }
+
+    // the same range of slots of the day, [fromSlot, toSlot), on each of the days
+    static WeekMask of(Set<DayOfWeek> days, int fromSlot, int toSlot){
+        notNull(days);
+        isTrue(0 <= fromSlot && fromSlot < toSlot && toSlot <= SLOTS_PER_DAY, "slots must be a range within a day, were: %d to %d", fromSlot, toSlot);
+        long[] full = new long[WORDS];
+        for (DayOfWeek day : days) {
+            int dayStart = (day.getValue() - 1) * SLOTS_PER_DAY;
+            setRange(full, dayStart + fromSlot, dayStart + toSlot);
+        }
+        return compact(full);
+    }
+
+    static int slotOf(DayOfWeek day, int slotOfDay){
+        notNull(day);
+        return (day.getValue() - 1) * SLOTS_PER_DAY + slotOfDay;
+    }
+
+    private static void setRange(long[] full, int from, int to){
+        for (int slot = from; slot < to; ) {
+            int word = slot >>> 6;
+            int end = Math.min(to, (word + 1) << 6);
+            long bits = end - slot == 64 ? -1L : ((1L << (end - slot)) - 1) << slot;
+            full[word] |= bits;
+            slot = end;
+        }
+    }
+
+    private static WeekMask compact(long[] full){
+        int present = 0;
+        int count = 0;
+        for (int w = 0; w < full.length; w++) {
+            if (full[w] != 0) {
+                present |= 1 << w;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return EMPTY;
+        }
+        long[] words = new long[count];
+        for (int w = 0, next = 0; w < full.length; w++) {
+            if (full[w] != 0) {
+                words[next++] = full[w];
+            }
+        }
+        return new WeekMask(present, words);
+    }
+
+    // index into words of the word marked by bit, which must be set in present
+    private int rank(int bit){
+        return Integer.bitCount(present & (bit - 1));
+    }
+
+    boolean isEmpty(){
+        return present == 0;
+    }
+
+    boolean intersects(WeekMask other){
+        for (int common = present & other.present; common != 0; common &= common - 1) {
+            int bit = common & -common;
+            if ((words[rank(bit)] & other.words[other.rank(bit)]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean contains(int slot){
+        if (slot < 0 || slot >= SLOTS) {
+            return false;
+        }
+        int bit = 1 << (slot >>> 6);
+        return (present & bit) != 0 && (words[rank(bit)] & (1L << slot)) != 0;
+    }
+
+    WeekMask union(WeekMask other){
+        if (other.present == 0 || (present == other.present && containsAll(other))) {
+            return this;
+        }
+        if (present == 0) {
+            return other;
+        }
+        int merged = present | other.present;
+        long[] mergedWords = new long[Integer.bitCount(merged)];
+        int next = 0;
+        for (int remaining = merged; remaining != 0; remaining &= remaining - 1) {
+            int bit = remaining & -remaining;
+            long word = (present & bit) != 0 ? words[rank(bit)] : 0;
+            if ((other.present & bit) != 0) {
+                word |= other.words[other.rank(bit)];
+            }
+            mergedWords[next++] = word;
+        }
+        return new WeekMask(merged, mergedWords);
+    }
+
+    WeekMask minus(WeekMask other){
+        if (!intersects(other)) {
+            return this;
+        }
+        long[] full = new long[WORDS];
+        for (int remaining = present; remaining != 0; remaining &= remaining - 1) {
+            int bit = remaining & -remaining;
+            long word = words[rank(bit)];
+            if ((other.present & bit) != 0) {
+                word &= ~other.words[other.rank(bit)];
+            }
+            full[Integer.numberOfTrailingZeros(bit)] = word;
+        }
+        return compact(full);
+    }
+
+    private boolean containsAll(WeekMask other){
+        for (int i = 0; i < words.length; i++) {
+            if ((other.words[i] & ~words[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int cardinality(){
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof WeekMask))
+            return false;
+        WeekMask other = (WeekMask) o;
+        return present == other.present && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * present + Arrays.hashCode(words);
+    }
+
+    // runs of slots as day and clock time, e.g. "MONDAY 0830-1000, THURSDAY 0830-1000"
+    @Override
+    public String toString() {
+        StringJoiner runs = new StringJoiner(", ");
+        long[] full = new long[WORDS];
+        for (int remaining = present; remaining != 0; remaining &= remaining - 1) {
+            int bit = remaining & -remaining;
+            full[Integer.numberOfTrailingZeros(bit)] = words[rank(bit)];
+        }
+        BitSet slots = BitSet.valueOf(full);
+        for (int start = slots.nextSetBit(0); start >= 0; start = slots.nextSetBit(start)) {
+            int day = start / SLOTS_PER_DAY;
+            int end = Math.min(slots.nextClearBit(start), (day + 1) * SLOTS_PER_DAY);
+            runs.add(DayOfWeek.of(day + 1) + " " + clock(start - day * SLOTS_PER_DAY) + "-" + clock(end - day * SLOTS_PER_DAY));
+            start = end;
+        }
+        return runs.toString();
+    }
+
+    private static String clock(int slotOfDay){
+        int minutes = slotOfDay * SLOT_MINUTES;
+        return String.format("%02d%02d", minutes / 60, minutes % 60);
+    }
+}
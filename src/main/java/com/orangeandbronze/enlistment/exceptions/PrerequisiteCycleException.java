@@ -0,0 +1,7 @@
+package com.orangeandbronze.enlistment.exceptions;
+
+public class PrerequisiteCycleException extends RuntimeException{
+    public PrerequisiteCycleException(String msg){
+        super(msg);
+    }
+}
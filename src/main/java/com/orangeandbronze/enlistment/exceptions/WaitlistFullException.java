@@ -0,0 +1,7 @@
+package com.orangeandbronze.enlistment.exceptions;
+
+public class WaitlistFullException extends RuntimeException{
+    public WaitlistFullException(String msg){
+        super(msg);
+    }
+}
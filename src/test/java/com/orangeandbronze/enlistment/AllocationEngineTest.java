@@ -0,0 +1,89 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AllocationEngineTest {
+    static final Subject CCPROG1 = new Subject("CCPROG1", 3);
+    static final Subject MTH101A = new Subject("MTH101A", 3);
+    static final Subject CCPROG2 = new Subject("CCPROG2", 3, List.of(CCPROG1), false);
+    static final DegreeProgram PROGRAM = new DegreeProgram("CCS", List.of(CCPROG1, MTH101A, CCPROG2));
+    static final Comparator<Student> SENIORITY = Comparator.comparingInt(Student::getStudentNumber);
+
+    @Test
+    public void contested_seat_goes_to_higher_priority(){
+        //Given a section with 1 seat requested by 2 students
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 1), CCPROG1);
+        Student senior = new Student(1, Collections.emptyList(), PROGRAM);
+        Student junior = new Student(2, Collections.emptyList(), PROGRAM);
+
+        //When seats are allocated by seniority
+        AllocationResult result = new AllocationEngine(SENIORITY, 42, 4).allocate(List.of(
+                new AllocationRequest(junior, List.of(sec1)),
+                new AllocationRequest(senior, List.of(sec1))));
+
+        //Then the senior student gets the seat
+        assertAll(
+                () -> assertEquals(List.of(sec1), result.getEnlistedSections(senior)),
+                () -> assertEquals(EnumSet.of(Violation.CAPACITY_REACHED), result.getRejectedSections(junior).get(sec1)),
+                () -> assertEquals(1, sec1.getNumStudents())
+        );
+    }
+
+    @Test
+    public void every_enlist_rule_is_respected(){
+        //Given a student requesting sections that conflict with each other and one without the pre-requisite
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 5), CCPROG1);
+        Section sec2 = new Section("B", new Schedule(MTH, new Period(900, 1030)), new Room("A2", 5), MTH101A);
+        Section sec3 = new Section("C", new Schedule(TF, new Period(830, 1000)), new Room("A3", 5), CCPROG2);
+        Student student = new Student(1, Collections.emptyList(), PROGRAM);
+
+        //When seats are allocated
+        AllocationResult result = new AllocationEngine(SENIORITY, 42, 2).allocate(List.of(
+                new AllocationRequest(student, List.of(sec1, sec2, sec3))));
+
+        //Then only the first section is enlisted
+        assertAll(
+                () -> assertEquals(List.of(sec1), result.getEnlistedSections(student)),
+                () -> assertEquals(EnumSet.of(Violation.SCHEDULE_CONFLICT), result.getRejectedSections(student).get(sec2)),
+                () -> assertEquals(EnumSet.of(Violation.PREREQUISITE_NOT_TAKEN), result.getRejectedSections(student).get(sec3))
+        );
+    }
+
+    @Test
+    public void same_seed_gives_same_allocation_for_any_thread_count(){
+        //Given the same contested catalog and equal-priority students allocated with 1 and with 8 threads
+        Map<Integer, Set<String>> singleThreaded = allocateCatalog(1);
+        Map<Integer, Set<String>> multiThreaded = allocateCatalog(8);
+
+        //Then the lottery breaks ties the same way
+        assertEquals(singleThreaded, multiThreaded);
+    }
+
+    private static Map<Integer, Set<String>> allocateCatalog(int parallelism){
+        List<Section> sections = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Days days = Days.values()[i % 3];
+            int start = 830 + (i / 3) * 200;
+            sections.add(new Section("S" + i, new Schedule(days, new Period(start, start + 100)), new Room("R" + i, 3 + i % 4), i % 2 == 0 ? CCPROG1 : MTH101A));
+        }
+        Random random = new Random(7);
+        List<AllocationRequest> requests = new ArrayList<>();
+        for (int number = 1; number <= 200; number++) {
+            Student student = new Student(number, Collections.emptyList(), PROGRAM);
+            requests.add(new AllocationRequest(student, List.of(sections.get(random.nextInt(12)), sections.get(random.nextInt(12)))));
+        }
+        AllocationResult result = new AllocationEngine((a, b) -> 0, 2024, parallelism).allocate(requests);
+        sections.forEach(section -> assertTrue(section.getRemainingSeats() >= 0));
+        return requests.stream().collect(Collectors.toMap(
+                request -> request.getStudent().getStudentNumber(),
+                request -> result.getEnlistedSections(request.getStudent()).stream().map(Section::toString).collect(Collectors.toSet())));
+    }
+}
@@ -0,0 +1,113 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BillingEngineTest {
+    static final Subject CCPROG1 = new Subject("CCPROG1", 3, false);
+    static final Subject CSARCH2 = new Subject("CSARCH2", 3, false);
+    static final Subject LBYARCH = new Subject("LBYARCH", 1, true);
+    static final Subject STSWENG = new Subject("STSWENG", 3, false);
+    static final Subject LBYPROG = new Subject("LBYPROG", 3, true);
+    static final DegreeProgram PROGRAM = new DegreeProgram("CCS", List.of(CCPROG1, CSARCH2, LBYARCH, STSWENG, LBYPROG));
+    static final List<Section> SECTIONS = List.of(
+            new Section("A", new Schedule(MTH, new Period(1000, 1030)), new Room("A1", 100), CCPROG1),
+            new Section("B", new Schedule(TF, new Period(1600, 1630)), new Room("A2", 100), CSARCH2),
+            new Section("C", new Schedule(WS, new Period(830, 900)), new Room("A3", 100), LBYARCH),
+            new Section("D", new Schedule(MTH, new Period(1430, 1500)), new Room("A4", 100), STSWENG),
+            new Section("E", new Schedule(WS, new Period(1600, 1630)), new Room("A5", 100), LBYPROG));
+
+    @Test
+    public void default_fees_match_request_assessment(){
+        //Given students enlisted in every prefix of the sections, from none to all five
+        BillingEngine engine = new BillingEngine(FeeSchedule.DEFAULT, 2);
+        for (int count = 0; count <= SECTIONS.size(); count++) {
+            Student student = new Student(count + 1, Collections.emptyList(), PROGRAM);
+            SECTIONS.subList(0, count).forEach(student::enlist);
+            //Then the fixed-point assessment equals the BigDecimal one
+            assertEquals(student.requestAssessment(), FeeSchedule.toAmount(engine.assessCents(student)));
+        }
+    }
+
+    @Test
+    public void assessment_during_enlist_and_cancel_matches_a_real_state() throws Exception {
+        //Given a student enlisting in and cancelling a lab over and over on another thread
+        BillingEngine engine = new BillingEngine(FeeSchedule.DEFAULT, 1);
+        Student student = new Student(1, Collections.emptyList(), PROGRAM);
+        Section lab = new Section("L", new Schedule(TF, new Period(830, 1000)), new Room("L1", 10), LBYPROG);
+        student.enlist(SECTIONS.get(0));
+        long without = engine.assessCents(student);
+        student.enlist(lab);
+        long with = engine.assessCents(student);
+        student.cancelEnlistedSection(lab);
+        Thread toggler = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                student.enlist(lab);
+                student.cancelEnlistedSection(lab);
+            }
+        });
+
+        //When assessments are taken meanwhile
+        toggler.start();
+        Set<Long> seen = new HashSet<>();
+        while (toggler.isAlive()) {
+            seen.add(engine.assessCents(student));
+        }
+        toggler.join();
+
+        //Then each one is the assessment with or without the lab, never a mix
+        seen.removeAll(Set.of(without, with));
+        assertTrue(seen.isEmpty(), "torn assessments: " + seen);
+    }
+
+    @Test
+    public void rounding_is_half_even(){
+        //Given a 50% VAT on one-centavo units so every odd subtotal lands on half a centavo
+        FeeSchedule fees = new FeeSchedule(1, 0, 0, 5000);
+        for (int units = 1; units <= 20; units++) {
+            BigDecimal expected = new BigDecimal(units).movePointLeft(2).multiply(new BigDecimal("1.5")).setScale(2, RoundingMode.HALF_EVEN);
+            assertEquals(expected, FeeSchedule.toAmount(fees.assessCents(1, units, 0)));
+        }
+    }
+
+    @Test
+    public void bill_writes_invoices_in_order() throws Exception {
+        //Given 3 students, one with no sections
+        List<Student> students = new ArrayList<>();
+        for (int number = 1; number <= 3; number++) {
+            Student student = new Student(number, Collections.emptyList(), PROGRAM);
+            SECTIONS.subList(0, number == 2 ? 0 : 5).forEach(student::enlist);
+            students.add(student);
+        }
+        Path invoices = Files.createTempFile("invoices", ".csv");
+
+        //When they are billed in chunks of 2
+        BillingEngine.BillingSummary summary = new BillingEngine(FeeSchedule.DEFAULT, 4, 2).bill(students, invoices);
+
+        //Then one line per student is written in input order
+        assertAll(
+                () -> assertEquals(List.of("1,34720.00", "2,0.00", "3,34720.00"), Files.readAllLines(invoices)),
+                () -> assertEquals(3, summary.getInvoices()),
+                () -> assertEquals(6944000, summary.getTotalCents())
+        );
+        Files.delete(invoices);
+    }
+
+    @Test
+    public void invoice_amount_formatting() throws Exception {
+        Student student = new Student(7, Collections.emptyList(), PROGRAM);
+        student.enlist(SECTIONS.get(2));
+        StringWriter invoices = new StringWriter();
+        new BillingEngine(new FeeSchedule(5, 0, 0, 0), 1).bill(List.of(student), invoices);
+        assertEquals("7,0.05\n", invoices.toString());
+    }
+}
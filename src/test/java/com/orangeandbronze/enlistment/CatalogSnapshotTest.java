@@ -0,0 +1,119 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.util.*;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotTest {
+    static final Subject SNPPROG1 = new Subject("SNPPROG1", 3);
+    static final Subject SNPPROG2 = new Subject("SNPPROG2", 3, List.of(SNPPROG1), false);
+    static final Subject SNPLAB = new Subject("SNPLAB", 1, List.of(SNPPROG2), true);
+    static final Subject SNPMTH = new Subject("SNPMTH", 4);
+
+    @Test
+    public void read_returns_what_was_written() throws IOException {
+        //Given a catalog with prerequisite chains, a spare room, enrolled sections and two programs
+        Room lecture = new Room("SNP1", 40);
+        Room lab = new Room("SNPLAB1", 20);
+        Room spare = new Room("SNP9", 10);
+        Section prog = new Section("SNPA", new Schedule(MTH, new Period(830, 1000)), lecture, SNPPROG2);
+        Section labSection = new Section("SNPB", new Schedule(TF, new Period(1300, 1600)), lab, SNPLAB, 5);
+        Section math = new Section("SNPC", new Schedule(WS, new Period(1000, 1130)), lecture, SNPMTH);
+        labSection.restoreSeats(12);
+        labSection.addToRoster(3);
+        labSection.addToRoster(1005);
+        math.restoreSeats(40);
+        DegreeProgram cs = new DegreeProgram("SNPCS", List.of(SNPPROG1, SNPPROG2, SNPLAB, SNPMTH));
+        DegreeProgram math101 = new DegreeProgram("SNPMATH", List.of(SNPMTH));
+        Path file = Files.createTempFile("catalog", ".snapshot");
+
+        //When it is written and read back
+        CatalogSnapshot.write(file, List.of(SNPMTH), List.of(spare), List.of(prog, labSection, math), List.of(cs, math101));
+        CatalogSnapshot snapshot = CatalogSnapshot.read(file);
+
+        //Then every object matches the original and rooms are shared again
+        Map<String, Subject> subjects = new HashMap<>();
+        snapshot.getSubjects().forEach(subject -> subjects.put(subject.getSubjectID(), subject));
+        List<Section> sections = snapshot.getSections();
+        assertAll(
+                () -> assertEquals(Set.of(SNPPROG1, SNPPROG2, SNPLAB, SNPMTH), new HashSet<>(snapshot.getSubjects())),
+                () -> assertEquals(1, subjects.get("SNPLAB").getUnits()),
+                () -> assertTrue(subjects.get("SNPLAB").isLab()),
+                () -> assertEquals(List.of(SNPPROG2), new ArrayList<>(subjects.get("SNPLAB").getPrerequisites())),
+                () -> assertEquals(List.of(SNPPROG1), new ArrayList<>(subjects.get("SNPPROG2").getPrerequisites())),
+                () -> assertEquals(Set.of(spare, lecture, lab), new HashSet<>(snapshot.getRooms())),
+                () -> assertEquals(List.of(prog, labSection, math), sections),
+                () -> assertEquals(List.of(0, 12, 40), List.of(sections.get(0).getNumStudents(), sections.get(1).getNumStudents(), sections.get(2).getNumStudents())),
+                () -> assertEquals(5, sections.get(1).getWaitlistCapacity()),
+                () -> assertTrue(sections.get(1).hasOnRoster(3) && sections.get(1).hasOnRoster(1005)),
+                () -> assertEquals(2, sections.get(1).getRosterSize()),
+                () -> assertEquals(labSection.getOccupancy(), sections.get(1).getOccupancy()),
+                () -> assertEquals(lab, sections.get(1).getRoom()),
+                () -> assertSame(sections.get(0).getRoom(), sections.get(2).getRoom()),
+                () -> assertEquals(SNPLAB, sections.get(1).getSubject()),
+                () -> assertTrue(sections.get(2).isFull()),
+                () -> assertEquals(List.of(cs, math101), snapshot.getPrograms()),
+                () -> assertTrue(snapshot.getPrograms().get(0).getPrerequisiteGraph().getTransitivePrerequisites(SNPLAB).contains(SNPPROG1))
+        );
+        Files.delete(file);
+    }
+
+    @Test
+    public void read_numbers_subjects_in_a_catalog_of_its_own() throws IOException {
+        //Given a written catalog, in a JVM that has built many other subjects
+        DegreeProgram cs = new DegreeProgram("SNPCS", List.of(SNPPROG1, SNPPROG2, SNPLAB, SNPMTH));
+        Path file = Files.createTempFile("catalog", ".snapshot");
+        CatalogSnapshot.write(file, List.of(), List.of(), List.of(), List.of(cs));
+
+        //When it is read back
+        CatalogSnapshot snapshot = CatalogSnapshot.read(file);
+
+        //Then its subjects are numbered from 0 in the snapshot's catalog, which its programs share
+        Set<Integer> ids = new HashSet<>();
+        snapshot.getSubjects().forEach(subject -> ids.add(subject.getId()));
+        Subject lab = snapshot.getCatalog().find("SNPLAB").orElseThrow();
+        DegreeProgram program = snapshot.getPrograms().get(0);
+        assertAll(
+                () -> assertEquals(Set.of(0, 1, 2, 3), ids),
+                () -> assertEquals(4, snapshot.getCatalog().size()),
+                () -> assertSame(snapshot.getCatalog(), lab.getCatalog()),
+                () -> assertTrue(program.getPrerequisiteGraph().getTransitivePrerequisites(lab).contains(snapshot.getCatalog().find("SNPPROG1").orElseThrow()))
+        );
+        Files.delete(file);
+    }
+
+    @Test
+    public void flexible_schedule_is_read_back() throws IOException {
+        //Given a Saturday-Sunday evening section
+        Section weekend = new Section("SNPW", new Schedule(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), Period.flexible(1815, 2045)), new Room("SNPW1", 30), SNPMTH);
+        Path file = Files.createTempFile("catalog", ".snapshot");
+
+        //When it is written and read back
+        CatalogSnapshot.write(file, List.of(SNPMTH), List.of(), List.of(weekend), List.of());
+        Section read = CatalogSnapshot.read(file).getSections().get(0);
+
+        //Then the days and times are unchanged
+        assertEquals("SATURDAY,SUNDAY 1815-2045", read.getSchedule().toString());
+        assertEquals(weekend.getOccupancy(), read.getOccupancy());
+        Files.delete(file);
+    }
+
+    @Test
+    public void unknown_version_is_rejected() throws IOException {
+        //Given a file with a newer snapshot version
+        Path file = Files.createTempFile("catalog", ".snapshot");
+        Files.write(file, new byte[]{0x45, 0x4E, 0x4C, 0x43, 0, 0, 0, 4});
+
+        //When it is read
+        //Then it is refused instead of misread
+        assertThrows(IllegalStateException.class, () -> CatalogSnapshot.read(file));
+        Files.delete(file);
+    }
+}
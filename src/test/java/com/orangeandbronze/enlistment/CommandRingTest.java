@@ -0,0 +1,81 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandRingTest {
+
+    @Test
+    public void full_ring_refuses_until_drained(){
+        //Given a ring of 4 filled up
+        CommandRing<Integer> ring = new CommandRing<>(4);
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+
+        //When one more is offered, then two are drained
+        boolean offeredWhenFull = ring.offer(5);
+        List<Integer> drained = new ArrayList<>();
+        int count = ring.drain(drained::add, 2);
+
+        //Then the fifth was refused, the oldest two came out first, and there is room again
+        assertAll(
+                () -> assertFalse(offeredWhenFull),
+                () -> assertEquals(2, count),
+                () -> assertEquals(List.of(1, 2), drained),
+                () -> assertTrue(ring.offer(5)),
+                () -> assertEquals(Integer.valueOf(3), ring.poll()),
+                () -> assertFalse(ring.isEmpty())
+        );
+    }
+
+    @Test
+    public void capacity_must_be_power_of_two(){
+        assertThrows(IllegalArgumentException.class, () -> new CommandRing<>(12));
+    }
+
+    @Test
+    public void concurrent_producers_lose_nothing_and_keep_their_order() throws Exception {
+        //Given 4 producers each offering 20,000 numbers into a small ring
+        int producers = 4;
+        int perProducer = 20_000;
+        CommandRing<long[]> ring = new CommandRing<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    long[] item = {producer, i};
+                    while (!ring.offer(item)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        //When one consumer drains everything
+        int[] next = new int[producers];
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        boolean inOrder = true;
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            long[] item = ring.poll();
+            if (item == null) {
+                Thread.yield();
+                continue;
+            }
+            inOrder &= item[1] == next[(int) item[0]]++;
+            received++;
+        }
+        executor.shutdown();
+
+        //Then every item arrived once, each producer's in the order offered
+        assertEquals(producers * perProducer, received);
+        assertTrue(inOrder);
+        assertTrue(ring.isEmpty());
+    }
+}
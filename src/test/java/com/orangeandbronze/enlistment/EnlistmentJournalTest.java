@@ -0,0 +1,225 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnlistmentJournalTest {
+    static final Subject JRNPROG1 = new Subject("JRNPROG1", 3);
+    static final Subject JRNPROG2 = new Subject("JRNPROG2", 3, List.of(JRNPROG1), false);
+    static final Subject JRNMTH1 = new Subject("JRNMTH1", 3);
+    static final Map<String, Subject> SUBJECTS = Map.of("JRNPROG1", JRNPROG1, "JRNPROG2", JRNPROG2, "JRNMTH1", JRNMTH1);
+    static final DegreeProgram PROGRAM = new DegreeProgram("CCS", List.of(JRNPROG1, JRNPROG2, JRNMTH1));
+
+    private static Map<String, Section> sections(){
+        Map<String, Section> sections = new HashMap<>();
+        sections.put("A", new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("J1", 10), JRNPROG2));
+        sections.put("B", new Section("B", new Schedule(TF, new Period(830, 1000)), new Room("J2", 10), JRNMTH1));
+        sections.put("C", new Section("C", new Schedule(WS, new Period(830, 1000)), new Room("J3", 10), JRNMTH1));
+        return sections;
+    }
+
+    private static Map<Integer, Student> students(){
+        Map<Integer, Student> students = new HashMap<>();
+        students.put(1, new Student(1, Collections.emptyList(), PROGRAM));
+        students.put(2, new Student(2, Collections.emptyList(), PROGRAM));
+        return students;
+    }
+
+    @Test
+    public void replay_rebuilds_students_and_sections() throws IOException {
+        //Given a journal recording enlistments, a cancellation and a taken subject
+        Path file = Files.createTempFile("enlistment", ".journal");
+        Map<String, Section> liveSections = sections();
+        Map<Integer, Student> liveStudents = students();
+        try (EnlistmentJournal journal = new EnlistmentJournal(file)) {
+            EnlistmentListeners.add(journal);
+            try {
+                liveStudents.get(1).addTakenSubjects(JRNPROG1);
+                liveStudents.get(1).enlist(liveSections.get("A"));
+                liveStudents.get(1).enlist(liveSections.get("B"));
+                liveStudents.get(2).enlist(liveSections.get("B"));
+                liveStudents.get(1).cancelEnlistedSection(liveSections.get("B"));
+                liveStudents.get(1).enlist(liveSections.get("C"));
+                journal.flush();
+            } finally {
+                EnlistmentListeners.remove(journal);
+            }
+        }
+
+        //When the journal is replayed onto fresh objects
+        Map<String, Section> sections = sections();
+        Map<Integer, Student> students = students();
+        long applied = EnlistmentJournal.replay(file, students::get, sections::get, SUBJECTS::get).getRecordCount();
+
+        //Then the state matches what was recorded
+        Student first = students.get(1);
+        assertAll(
+                () -> assertEquals(6, applied),
+                () -> assertEquals(Set.of(sections.get("A"), sections.get("C")), new HashSet<>(first.getSections())),
+                () -> assertEquals(List.of(sections.get("B")), new ArrayList<>(students.get(2).getSections())),
+                () -> assertTrue(first.getTakenSubjects().contains(JRNPROG1)),
+                () -> assertEquals(6, first.getTotalUnits()),
+                () -> assertTrue(first.aggregatesMatch()),
+                () -> assertEquals(1, sections.get("A").getNumStudents()),
+                () -> assertEquals(1, sections.get("B").getNumStudents()),
+                () -> assertEquals(1, sections.get("C").getNumStudents())
+        );
+        Files.delete(file);
+    }
+
+    @Test
+    public void torn_last_record_is_ignored() throws IOException {
+        //Given a journal whose last record was cut short by a crash
+        Path file = Files.createTempFile("enlistment", ".journal");
+        try (EnlistmentJournal journal = new EnlistmentJournal(file)) {
+            journal.append(EnlistmentJournal.ENLISTED, 1, "A");
+            journal.flush();
+            journal.append(EnlistmentJournal.ENLISTED, 2, "B");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        //When the journal is replayed
+        Map<String, Section> sections = sections();
+        Map<Integer, Student> students = students();
+        long applied = EnlistmentJournal.replay(file, students::get, sections::get, SUBJECTS::get).getRecordCount();
+
+        //Then only the complete record is applied
+        assertAll(
+                () -> assertEquals(1, applied),
+                () -> assertEquals(1, sections.get("A").getNumStudents()),
+                () -> assertEquals(0, sections.get("B").getNumStudents())
+        );
+        Files.delete(file);
+    }
+
+    @Test
+    public void journal_reopened_after_a_crash_appends_after_the_last_complete_record() throws IOException {
+        //Given a journal whose last record was cut short by a crash
+        Path file = Files.createTempFile("enlistment", ".journal");
+        try (EnlistmentJournal journal = new EnlistmentJournal(file)) {
+            journal.append(EnlistmentJournal.ENLISTED, 1, "A");
+            journal.append(EnlistmentJournal.ENLISTED, 2, "B");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        //When it is replayed, reopened after the end replay found, appended to, and replayed again
+        EnlistmentJournal.Replay crashed = EnlistmentJournal.replay(file, students()::get, sections()::get, SUBJECTS::get);
+        try (EnlistmentJournal journal = new EnlistmentJournal(file, EnlistmentJournal.DEFAULT_BATCH_BYTES, crashed.getEndOffset())) {
+            journal.append(EnlistmentJournal.ENLISTED, 2, "C");
+        }
+        Map<String, Section> sections = sections();
+        EnlistmentJournal.Replay reopened = EnlistmentJournal.replay(file, students()::get, sections::get, SUBJECTS::get);
+
+        //Then the torn record is gone and the new one follows the complete one
+        assertAll(
+                () -> assertEquals(1, crashed.getRecordCount()),
+                () -> assertEquals(2, reopened.getRecordCount()),
+                () -> assertEquals(Files.size(file), reopened.getEndOffset()),
+                () -> assertEquals(1, sections.get("A").getNumStudents()),
+                () -> assertEquals(0, sections.get("B").getNumStudents()),
+                () -> assertEquals(1, sections.get("C").getNumStudents())
+        );
+        Files.delete(file);
+    }
+
+    @Test
+    public void garbled_record_is_not_applied() throws IOException {
+        //Given a journal whose second record had a byte of its id flipped
+        Path file = Files.createTempFile("enlistment", ".journal");
+        try (EnlistmentJournal journal = new EnlistmentJournal(file)) {
+            journal.append(EnlistmentJournal.ENLISTED, 1, "A");
+            journal.append(EnlistmentJournal.ENLISTED, 2, "B");
+        }
+        long firstRecordBytes = Files.size(file) / 2;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(java.nio.ByteBuffer.wrap(new byte[]{'C'}), firstRecordBytes + 6);
+        }
+
+        //When the journal is replayed, and a journal is opened on it without a replay
+        Map<String, Section> sections = sections();
+        EnlistmentJournal.Replay replayed = EnlistmentJournal.replay(file, students()::get, sections::get, SUBJECTS::get);
+        new EnlistmentJournal(file).close();
+
+        //Then replay stops before the garbled record, and opening the journal cuts it off
+        assertAll(
+                () -> assertEquals(1, replayed.getRecordCount()),
+                () -> assertEquals(firstRecordBytes, replayed.getEndOffset()),
+                () -> assertEquals(0, sections.get("C").getNumStudents()),
+                () -> assertEquals(firstRecordBytes, Files.size(file))
+        );
+        Files.delete(file);
+    }
+
+    @Test
+    public void enlistment_is_on_disk_when_it_returns() throws IOException {
+        //Given a journal attached as a listener
+        Path file = Files.createTempFile("enlistment", ".journal");
+        Map<String, Section> liveSections = sections();
+        Map<Integer, Student> liveStudents = students();
+        try (EnlistmentJournal journal = new EnlistmentJournal(file)) {
+            EnlistmentListeners.add(journal);
+            try {
+                //When a student enlists, with no flush afterwards
+                liveStudents.get(2).enlist(liveSections.get("B"));
+
+                //Then the record can already be replayed from the file
+                Map<String, Section> sections = sections();
+                long applied = EnlistmentJournal.replay(file, students()::get, sections::get, SUBJECTS::get).getRecordCount();
+                assertAll(
+                        () -> assertEquals(1, applied),
+                        () -> assertEquals(1, sections.get("B").getNumStudents())
+                );
+            } finally {
+                EnlistmentListeners.remove(journal);
+            }
+        }
+        Files.delete(file);
+    }
+
+    @Test
+    public void closed_journal_counts_the_event_instead_of_failing_the_enlistment() throws IOException {
+        //Given a journal closed while still attached, with another listener after it
+        Path file = Files.createTempFile("enlistment", ".journal");
+        EnlistmentJournal journal = new EnlistmentJournal(file);
+        journal.close();
+        List<Section> seen = new ArrayList<>();
+        EnlistmentListener later = new EnlistmentListener() {
+            @Override
+            public void enlisted(Student student, Section section){
+                seen.add(section);
+            }
+        };
+        EnlistmentListeners.add(journal);
+        EnlistmentListeners.add(later);
+        Section section = sections().get("B");
+        try {
+            //When a student enlists
+            students().get(2).enlist(section);
+        } finally {
+            EnlistmentListeners.remove(journal);
+            EnlistmentListeners.remove(later);
+        }
+
+        //Then the enlistment stands, the later listener hears of it, and the journal reports the lost event
+        assertAll(
+                () -> assertEquals(1, section.getNumStudents()),
+                () -> assertEquals(List.of(section), seen),
+                () -> assertEquals(1L, journal.getLostEventCount()),
+                () -> assertTrue(journal.getLastLoss() instanceof IllegalStateException)
+        );
+        Files.delete(file);
+    }
+}
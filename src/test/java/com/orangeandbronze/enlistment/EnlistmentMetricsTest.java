@@ -0,0 +1,116 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.CapacityReachedException;
+import com.orangeandbronze.enlistment.exceptions.ScheduleConflictException;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnlistmentMetricsTest {
+    static final Subject METPROG1 = new Subject("METPROG1", 3);
+    static final Subject METMTH1 = new Subject("METMTH1", 3);
+    static final DegreeProgram PROGRAM = new DegreeProgram("CCS", List.of(METPROG1, METMTH1));
+
+    @Test
+    public void rejections_are_counted_by_type(){
+        //Given a full section and a section that conflicts with the student's schedule
+        EnlistmentMetrics metrics = EnlistmentMetrics.global();
+        Section full = new Section("META", new Schedule(MTH, new Period(830, 1000)), new Room("MET1", 1), METPROG1);
+        Section conflicting = new Section("METB", new Schedule(MTH, new Period(900, 1030)), new Room("MET2", 10), METMTH1);
+        new Student(1, Collections.emptyList(), PROGRAM).enlist(full);
+        Student student = new Student(2, Collections.emptyList(), PROGRAM);
+        student.enlist(new Section("METC", new Schedule(MTH, new Period(1000, 1130)), new Room("MET3", 10), METPROG1));
+        long capacityBefore = metrics.getRejections().get("CapacityReachedException");
+        long conflictBefore = metrics.getRejections().get("ScheduleConflictException");
+
+        //When the student tries both
+        assertThrows(CapacityReachedException.class, () -> student.enlist(full));
+        assertThrows(ScheduleConflictException.class, () -> student.enlist(conflicting));
+
+        //Then each rejection is counted under its own exception
+        assertAll(
+                () -> assertEquals(capacityBefore + 1, metrics.getRejections().get("CapacityReachedException").longValue()),
+                () -> assertEquals(conflictBefore + 1, metrics.getRejections().get("ScheduleConflictException").longValue()),
+                () -> assertTrue(metrics.getRejections().containsKey("WaitlistFullException"))
+        );
+    }
+
+    @Test
+    public void histogram_percentiles_are_within_bucket_precision(){
+        //Given latencies of 1..10000 ns
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 10_000; nanos++) {
+            histogram.record(nanos);
+        }
+
+        //When the percentiles are read
+        //Then each is within 1/16 above the exact value
+        assertAll(
+                () -> assertEquals(10_000, histogram.getCount()),
+                () -> assertEquals(10_000, histogram.getMax()),
+                () -> assertEquals(50_005_000, histogram.getSum()),
+                () -> assertTrue(histogram.getValueAtPercentile(50) >= 5_000 && histogram.getValueAtPercentile(50) <= 5_000 * 17 / 16),
+                () -> assertTrue(histogram.getValueAtPercentile(99) >= 9_900 && histogram.getValueAtPercentile(99) <= 9_900 * 17 / 16),
+                () -> assertEquals(10_000, histogram.getValueAtPercentile(100))
+        );
+    }
+
+    @Test
+    public void exporter_and_mbean_show_fill_rates() throws Exception {
+        //Given a tracked section with 1 of 4 seats taken
+        EnlistmentMetrics metrics = EnlistmentMetrics.global();
+        Section section = new Section("METD", new Schedule(TF, new Period(830, 1000)), new Room("MET4", 4), METPROG1);
+        metrics.trackSections(List.of(section));
+        new Student(3, Collections.emptyList(), PROGRAM).enlist(section);
+
+        try {
+            //When the metrics are exported as text and read over JMX
+            StringBuilder text = new StringBuilder();
+            new TextMetricsExporter().export(metrics, text);
+            metrics.registerMBean();
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            TabularData fillRates = (TabularData) server.getAttribute(new ObjectName(EnlistmentMetrics.OBJECT_NAME), "SectionFillRates");
+
+            //Then both show the section's fill rate and the rejection counters
+            assertAll(
+                    () -> assertTrue(text.toString().contains("enlistment_section_fill_ratio{section=\"METD\"} 0.25\n")),
+                    () -> assertTrue(text.toString().contains("enlistment_rejections_total{type=\"MaxUnitsException\"} ")),
+                    () -> assertTrue(text.toString().contains("enlistment_latency_nanos{operation=\"enlist\",quantile=\"0.99\"} ")),
+                    () -> assertTrue(text.toString().contains("enlistment_latency_nanos_sum{operation=\"enlist\"} " + metrics.getEnlistLatency().getSum() + "\n")),
+                    () -> assertEquals(0.25, fillRates.get(new Object[]{"METD"}).get("value"))
+            );
+        } finally {
+            metrics.untrackSections(List.of(section));
+        }
+    }
+
+    @Test
+    public void fill_rate_of_a_room_with_no_seats_is_zero(){
+        //Given tracked sections in a room with no seats and with their room taken away
+        EnlistmentMetrics metrics = EnlistmentMetrics.global();
+        Section seatless = new Section("METE", new Schedule(WS, new Period(830, 1000)), new Room("MET0", 0), METPROG1);
+        Section roomless = new Section("METF", new Schedule(WS, new Period(1000, 1130)), new Room("MET5", 5), METPROG1);
+        roomless.removeRoom();
+        metrics.trackSections(List.of(seatless, roomless));
+
+        try {
+            //When the fill rates are read
+            Map<String, Double> fillRates = metrics.getSectionFillRates();
+
+            //Then the seatless section reads 0 and the roomless one is left out
+            assertAll(
+                    () -> assertEquals(Double.valueOf(0.0), fillRates.get("METE")),
+                    () -> assertFalse(fillRates.containsKey("METF"))
+            );
+        } finally {
+            metrics.untrackSections(List.of(seatless, roomless));
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnlistmentServiceTest {
+    static final Subject SVCPROG1 = new Subject("SVCPROG1", 3);
+    static final Subject SVCMTH1 = new Subject("SVCMTH1", 3);
+    static final DegreeProgram PROGRAM = new DegreeProgram("CCS", List.of(SVCPROG1, SVCMTH1));
+
+    private final Map<Integer, Student> students = new HashMap<>();
+    private final Map<String, Section> sections = new HashMap<>();
+    private final HttpClient client = HttpClient.newHttpClient();
+    // counted down once a request has got past the in-flight limit and looks up its section
+    private final CountDownLatch sectionLookedUp = new CountDownLatch(1);
+
+    private EnlistmentService start(int maxInFlight){
+        students.put(1, new Student(1, Collections.emptyList(), PROGRAM));
+        students.put(2, new Student(2, Collections.emptyList(), PROGRAM));
+        sections.put("A", new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("SVC1", 1), SVCPROG1));
+        sections.put("B", new Section("B", new Schedule(MTH, new Period(900, 1030)), new Room("SVC2", 10), SVCMTH1));
+        sections.put("C", new Section("C", new Schedule(TF, new Period(830, 1000)), new Room("SVC3", 10), SVCMTH1));
+        return new EnlistmentService(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), students::get, sectionID -> {
+            sectionLookedUp.countDown();
+            return sections.get(sectionID);
+        }, maxInFlight).start();
+    }
+
+    private HttpResponse<String> send(EnlistmentService service, String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + service.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .timeout(Duration.ofSeconds(10))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void enlist_cancel_schedule_and_assessment_over_http() throws Exception {
+        //Given a running service
+        try (EnlistmentService service = start(16)) {
+            //When a student enlists in two sections, is rejected from a third, drops one and asks for the assessment
+            HttpResponse<String> enlisted = send(service, "POST", "/students/1/sections/A", null);
+            send(service, "POST", "/students/1/sections/C", null);
+            HttpResponse<String> full = send(service, "POST", "/students/2/sections/A", null);
+            HttpResponse<String> cancelled = send(service, "DELETE", "/students/1/sections/C", null);
+            HttpResponse<String> schedule = send(service, "GET", "/students/1/schedule", null);
+            HttpResponse<String> assessment = send(service, "GET", "/students/1/assessment", null);
+            HttpResponse<String> unknown = send(service, "GET", "/students/99/schedule", null);
+
+            //Then each response carries the outcome as JSON
+            assertAll(
+                    () -> assertEquals(200, enlisted.statusCode()),
+                    () -> assertEquals("{\"student\":1,\"units\":3,\"sections\":[{\"section\":\"A\",\"subject\":\"SVCPROG1\",\"days\":\"MTH\",\"start\":830,\"end\":1000,\"room\":\"SVC1\"}]}", enlisted.body()),
+                    () -> assertEquals(409, full.statusCode()),
+                    () -> assertTrue(full.body().startsWith("{\"error\":\"CapacityReachedException\"")),
+                    () -> assertEquals(200, cancelled.statusCode()),
+                    () -> assertEquals(enlisted.body(), schedule.body()),
+                    () -> assertEquals("{\"student\":1,\"amount\":" + students.get(1).requestAssessment().toPlainString() + "}", assessment.body()),
+                    () -> assertEquals(404, unknown.statusCode())
+            );
+        }
+    }
+
+    @Test
+    public void cart_validation_over_http() throws Exception {
+        //Given a running service and a student enlisted in section A
+        try (EnlistmentService service = start(16)) {
+            send(service, "POST", "/students/1/sections/A", null);
+
+            //When the student validates a cart with a conflicting and a fitting section
+            HttpResponse<String> validation = send(service, "POST", "/students/1/cart", "[\"B\", \"C\"]");
+            HttpResponse<String> malformed = send(service, "POST", "/students/1/cart", "{\"B\"}");
+
+            //Then each section lists its violations
+            assertAll(
+                    () -> assertEquals(200, validation.statusCode()),
+                    () -> assertEquals("{\"B\":[\"SCHEDULE_CONFLICT\"],\"C\":[]}", validation.body()),
+                    () -> assertEquals(400, malformed.statusCode())
+            );
+        }
+    }
+
+    @Test
+    public void requests_beyond_the_limit_get_503() throws Exception {
+        //Given a service that handles one request at a time, busy with an enlistment stuck on the student's lock
+        try (EnlistmentService service = start(1)) {
+            Student student = students.get(1);
+            CompletableFuture<HttpResponse<String>> stuck;
+            HttpResponse<String> rejected;
+            synchronized (student) {
+                stuck = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return send(service, "POST", "/students/1/sections/C", null);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                assertTrue(sectionLookedUp.await(10, TimeUnit.SECONDS));
+
+                //When another request arrives
+                rejected = send(service, "GET", "/students/2/schedule", null);
+            }
+
+            //Then it is turned away at once, and the stuck request still completes
+            HttpResponse<String> busy = rejected;
+            assertAll(
+                    () -> assertEquals(503, busy.statusCode()),
+                    () -> assertEquals("1", busy.headers().firstValue("Retry-After").orElse("")),
+                    () -> assertEquals(200, stuck.get().statusCode())
+            );
+        }
+    }
+
+    @Test
+    public void requests_beyond_the_fallback_queue_get_503() throws Exception {
+        if (VirtualThreads.isAvailable()) {
+            // virtual threads have no pool to fill
+            return;
+        }
+        //Given a service whose fallback pool and queue are all taken by clients that never finish their request line
+        List<Socket> slowClients = new ArrayList<>();
+        try (EnlistmentService service = start(1)) {
+            fillFallbackPool(service, slowClients);
+
+            //When another request arrives
+            HttpResponse<String> rejected = send(service, "GET", "/students/2/schedule", null);
+
+            //Then it is turned away at once instead of waiting in an unbounded queue
+            assertAll(
+                    () -> assertEquals(503, rejected.statusCode()),
+                    () -> assertEquals("1", rejected.headers().firstValue("Retry-After").orElse(""))
+            );
+        } finally {
+            for (Socket socket : slowClients) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    public void slow_client_beyond_the_fallback_queue_does_not_stop_the_server() throws Exception {
+        if (VirtualThreads.isAvailable()) {
+            // virtual threads have no pool to fill
+            return;
+        }
+        //Given a service whose fallback pool and queue are full, and one more client sending its headers slowly
+        List<Socket> slowClients = new ArrayList<>();
+        try (EnlistmentService service = start(1)) {
+            fillFallbackPool(service, slowClients);
+            Socket overflowing = slowClient(service, "GET /students/1/sch");
+            slowClients.add(overflowing);
+            Thread.sleep(200);
+            overflowing.getOutputStream().write("edule HTTP/1.1\r\nHost: loc".getBytes(StandardCharsets.US_ASCII));
+            overflowing.getOutputStream().flush();
+
+            //When a fast request arrives while that client is still sending
+            HttpResponse<String> rejected = send(service, "GET", "/students/2/schedule", null);
+
+            //Then the server still answers it
+            assertEquals(503, rejected.statusCode());
+        } finally {
+            for (Socket socket : slowClients) {
+                socket.close();
+            }
+        }
+    }
+
+    // takes every thread and queue entry of the fallback pool with clients that never finish their request line
+    private static void fillFallbackPool(EnlistmentService service, List<Socket> slowClients) throws Exception {
+        for (int i = 0; i < 1 + 2 * EnlistmentService.REJECTING_THREADS; i++) {
+            slowClients.add(slowClient(service, "GET /students/1/sched"));
+        }
+        Thread.sleep(500);
+    }
+
+    private static Socket slowClient(EnlistmentService service, String start) throws Exception {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), service.getPort());
+        OutputStream out = socket.getOutputStream();
+        out.write(start.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+}
@@ -0,0 +1,158 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.CapacityReachedException;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnrollmentLedgerTest {
+    static final Subject LDGPROG1 = new Subject("LDGPROG1", 3);
+    static final Subject LDGMTH1 = new Subject("LDGMTH1", 3);
+    static final Subject LDGLAB1 = new Subject("LDGLAB1", 1, true);
+    static final DegreeProgram PROGRAM = new DegreeProgram("CCS", List.of(LDGPROG1, LDGMTH1, LDGLAB1));
+
+    @Test
+    public void snapshot_stays_put_while_enlistment_continues(){
+        //Given a ledger and a student enlisted in two sections
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("L1", 10), LDGPROG1);
+        Section sec2 = new Section("B", new Schedule(TF, new Period(830, 1000)), new Room("L2", 10), LDGMTH1);
+        Student student1 = new Student(1, Collections.emptyList(), PROGRAM);
+        Student student2 = new Student(2, Collections.emptyList(), PROGRAM);
+        EnrollmentLedger ledger = new EnrollmentLedger();
+        EnlistmentListeners.add(ledger);
+        try {
+            student1.enlist(sec1);
+            student1.enlist(sec2);
+            EnrollmentSnapshot before = ledger.snapshot();
+
+            //When enlistment goes on after the snapshot was taken
+            student1.cancelEnlistedSection(sec2);
+            student2.enlist(sec1);
+            EnrollmentSnapshot after = ledger.snapshot();
+
+            //Then the old snapshot still shows the old state, and the new one the new state
+            assertAll(
+                    () -> assertEquals(2, before.getEpoch()),
+                    () -> assertEquals(List.of(sec1, sec2), before.getSections(1)),
+                    () -> assertEquals(1, before.getNumStudents(sec1)),
+                    () -> assertEquals(1, before.getNumStudents(sec2)),
+                    () -> assertEquals(4, after.getEpoch()),
+                    () -> assertSame(student1.getSections(), after.getSections(1)),
+                    () -> assertEquals(2, after.getNumStudents(sec1)),
+                    () -> assertEquals(0, after.getNumStudents(sec2)),
+                    () -> assertEquals(2, after.getEnrolledStudentCount())
+            );
+        } finally {
+            EnlistmentListeners.remove(ledger);
+        }
+    }
+
+    @Test
+    public void seeded_ledger_and_blocks_appear_in_one_epoch(){
+        //Given a student enlisted before the ledger existed
+        Section lecture = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("L1", 10), LDGPROG1);
+        Section lab = new Section("B", new Schedule(TF, new Period(830, 1000)), new Room("L2", 10), LDGLAB1);
+        Section math = new Section("C", new Schedule(WS, new Period(830, 1000)), new Room("L3", 10), LDGMTH1);
+        Student student1 = new Student(1, List.of(math), PROGRAM);
+        Student student2 = new Student(2, Collections.emptyList(), PROGRAM);
+        EnrollmentLedger ledger = new EnrollmentLedger(List.of(student1, student2));
+        EnlistmentListeners.add(ledger);
+        try {
+            long seededEpoch = ledger.snapshot().getEpoch();
+
+            //When another student enlists in a lecture-lab block
+            student2.enlistBlock(List.of(lecture, lab));
+
+            //Then the seeded enrollment is there, and the whole block arrives as one new version
+            EnrollmentSnapshot snapshot = ledger.snapshot();
+            List<Student> lectureRoster = new ArrayList<>();
+            snapshot.forEachEnrollee(lecture, lectureRoster::add);
+            assertAll(
+                    () -> assertEquals(seededEpoch + 1, snapshot.getEpoch()),
+                    () -> assertEquals(List.of(math), snapshot.getSections(1)),
+                    () -> assertEquals(List.of(lecture, lab), snapshot.getSections(2)),
+                    () -> assertEquals(List.of(student2), lectureRoster),
+                    () -> assertEquals(1, snapshot.getNumStudents(lab))
+            );
+        } finally {
+            EnlistmentListeners.remove(ledger);
+        }
+    }
+
+    @Test
+    public void readers_always_see_a_consistent_view_during_concurrent_enlistment() throws Exception {
+        //Given 200 students enlisting and cancelling across 4 sections from 8 threads, and a reader checking every snapshot
+        List<Section> sections = List.of(
+                new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("L1", 40), LDGPROG1),
+                new Section("B", new Schedule(MTH, new Period(1000, 1130)), new Room("L2", 40), LDGPROG1),
+                new Section("C", new Schedule(TF, new Period(830, 1000)), new Room("L3", 40), LDGMTH1),
+                new Section("D", new Schedule(WS, new Period(830, 1000)), new Room("L4", 40), LDGLAB1));
+        EnrollmentLedger ledger = new EnrollmentLedger();
+        EnlistmentListeners.add(ledger);
+        ExecutorService executor = Executors.newFixedThreadPool(9);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger snapshotsChecked = new AtomicInteger();
+        try {
+            Future<?> reader = executor.submit(() -> {
+                long lastEpoch = -1;
+                while (!done.get() || lastEpoch < ledger.snapshot().getEpoch()) {
+                    EnrollmentSnapshot snapshot = ledger.snapshot();
+                    assertTrue(snapshot.getEpoch() >= lastEpoch);
+                    lastEpoch = snapshot.getEpoch();
+                    int[] held = new int[1];
+                    snapshot.forEachStudent((number, enlisted) -> held[0] += enlisted.size());
+                    int[] seats = new int[1];
+                    snapshot.forEachSection((section, count) -> seats[0] += count);
+                    assertEquals(held[0], seats[0], "epoch " + lastEpoch);
+                    snapshotsChecked.incrementAndGet();
+                }
+                return null;
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 1; i <= 200; i++) {
+                Student student = new Student(i, Collections.emptyList(), PROGRAM);
+                int first = i % 4;
+                writers.add(executor.submit(() -> {
+                    for (int round = 0; round < 20; round++) {
+                        Section section = sections.get((first + round) % 4);
+                        try {
+                            student.enlist(section);
+                        } catch (CapacityReachedException e) {
+                            continue;
+                        } catch (RuntimeException e) {
+                            // same subject or a schedule conflict with a section already held
+                            continue;
+                        }
+                        if (round % 3 != 2) {
+                            student.cancelEnlistedSection(section);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            //When all writers finish
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            done.set(true);
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            EnlistmentListeners.remove(ledger);
+            executor.shutdownNow();
+        }
+
+        //Then the final snapshot matches the live sections
+        EnrollmentSnapshot last = ledger.snapshot();
+        assertTrue(snapshotsChecked.get() > 0);
+        for (Section section : sections) {
+            assertEquals(section.getNumStudents(), last.getNumStudents(section));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntSetTest {
+
+    @Test
+    public void add_contains_remove(){
+        IntSet set = new IntSet();
+        assertAll(
+                () -> assertTrue(set.add(20230001)),
+                () -> assertFalse(set.add(20230001)),
+                () -> assertTrue(set.add(7)),
+                () -> assertTrue(set.contains(7)),
+                () -> assertFalse(set.contains(8)),
+                () -> assertFalse(set.contains(0)),
+                () -> assertThrows(IllegalArgumentException.class, () -> set.add(0)),
+                () -> assertTrue(set.remove(7)),
+                () -> assertFalse(set.remove(7)),
+                () -> assertEquals(1, set.size()),
+                () -> assertArrayEquals(new int[]{20230001}, set.toArray())
+        );
+    }
+
+    @Test
+    public void matches_hash_set_under_random_updates(){
+        //Given consecutive student numbers, the usual case, mixed with random ones
+        Random random = new Random(7);
+        Set<Integer> expected = new HashSet<>();
+        IntSet set = new IntSet();
+
+        //When tens of thousands of random adds and removes grow and shrink it
+        for (int i = 0; i < 50_000; i++) {
+            int value = random.nextBoolean() ? 1 + random.nextInt(3_000) : 1 + random.nextInt(Integer.MAX_VALUE - 1);
+            if (random.nextInt(5) < 2) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+        }
+
+        //Then membership, size and iteration agree with java.util.HashSet
+        Set<Integer> iterated = new HashSet<>();
+        set.forEach(iterated::add);
+        assertEquals(expected.size(), set.size());
+        assertEquals(expected, iterated);
+        for (int value = 1; value <= 3_000; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+    }
+}
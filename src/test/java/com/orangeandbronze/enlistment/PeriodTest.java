@@ -29,4 +29,32 @@ public class PeriodTest {
             Period period4 = new Period (1230, 1215);
         });
     }
+
+    @Test
+    public void flexible_periods_allow_any_five_minute_boundary(){
+        //Given evening, early-morning and end-of-day periods
+        //When they are initialized as flexible periods
+        //No exception is thrown
+        assertDoesNotThrow(()->{
+            Period evening = Period.flexible(1805, 2135);
+            Period early = Period.flexible(0, 715);
+            Period lastSlot = Period.flexible(2355, 2400);
+        });
+    }
+
+    @Test
+    public void flexible_period_off_a_boundary_is_rejected(){
+        //Given a start time that is not on a 5-minute boundary
+        //When it is initialized
+        //Then it is refused
+        assertThrows(IllegalArgumentException.class, ()-> Period.flexible(1803, 1900));
+    }
+
+    @Test
+    public void flexible_period_past_midnight_is_rejected(){
+        //Given a period ending after 2400
+        //When it is initialized
+        //Then it is refused
+        assertThrows(IllegalArgumentException.class, ()-> Period.flexible(2300, 2430));
+    }
 }
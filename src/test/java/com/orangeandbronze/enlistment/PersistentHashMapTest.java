@@ -0,0 +1,89 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentHashMapTest {
+    // keys whose hash is decided by the test, to force collisions and deep shared prefixes
+    static final class Key {
+        final int id;
+        final int hash;
+
+        Key(int id, int hash){
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).id == id;
+        }
+    }
+
+    private static final int[] HASHES = {0, 1, 32, 1 << 30, -1, 0x7FFFFFFF, 33, 1 << 31};
+
+    private static Key key(int id){
+        return new Key(id, id < 200 ? HASHES[id % HASHES.length] : id * 0x9E3779B9);
+    }
+
+    @Test
+    public void put_and_remove_leave_earlier_versions_untouched(){
+        //Given a map with two entries
+        PersistentHashMap<String, Integer> first = PersistentHashMap.<String, Integer>empty().put("A", 1).put("B", 2);
+
+        //When later versions replace, add and remove entries
+        PersistentHashMap<String, Integer> second = first.put("A", 10).put("C", 3);
+        PersistentHashMap<String, Integer> third = second.remove("B");
+
+        //Then each version keeps its own contents
+        assertAll(
+                () -> assertEquals(2, first.size()),
+                () -> assertEquals(1, first.get("A").intValue()),
+                () -> assertNull(first.get("C")),
+                () -> assertEquals(3, second.size()),
+                () -> assertEquals(10, second.get("A").intValue()),
+                () -> assertEquals(2, third.size()),
+                () -> assertNull(third.get("B")),
+                () -> assertSame(third, third.remove("B")),
+                () -> assertSame(first, first.put("A", 1))
+        );
+    }
+
+    @Test
+    public void matches_hash_map_under_random_updates_with_collisions(){
+        //Given keys drawn from a small set of hashes, so many collide fully or share long hash prefixes
+        Random random = new Random(42);
+        Map<Key, Integer> expected = new HashMap<>();
+        PersistentHashMap<Key, Integer> map = PersistentHashMap.empty();
+
+        //When thousands of random puts and removes are applied to both
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(400);
+            Key key = key(id);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, i);
+                map = map.put(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        //Then lookups and iteration agree with java.util.HashMap
+        Map<Key, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(expected, iterated);
+        for (int id = 0; id < 400; id++) {
+            assertEquals(expected.get(key(id)), map.get(key(id)));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.NotTakenPreRequisiteException;
+import com.orangeandbronze.enlistment.exceptions.PrerequisiteCycleException;
+import org.junit.Test;
+
+import java.util.*;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrerequisiteGraphTest {
+    static final Subject CCPROG1 = new Subject("CCPROG1", 3);
+    static final Subject CCPROG2 = new Subject("CCPROG2", 3, List.of(CCPROG1), false);
+    static final Subject CCDSTRU = new Subject("CCDSTRU", 3);
+    static final Subject CCPROG3 = new Subject("CCPROG3", 3, List.of(CCPROG2, CCDSTRU), false);
+    static final Subject MTH101A = new Subject("MTH101A", 3);
+
+    @Test
+    public void transitive_prerequisites(){
+        //Given a chain CCPROG1 -> CCPROG2 -> CCPROG3 that also needs CCDSTRU
+        PrerequisiteGraph graph = new PrerequisiteGraph(List.of(CCPROG3, MTH101A));
+
+        //Then the closure covers the whole chain and prerequisites come first in the order
+        List<Subject> order = graph.getSubjectsInOrder();
+        assertAll(
+                () -> assertEquals(Set.of(CCPROG1, CCPROG2, CCDSTRU), new HashSet<>(graph.getTransitivePrerequisites(CCPROG3))),
+                () -> assertTrue(graph.getTransitivePrerequisites(MTH101A).isEmpty()),
+                () -> assertTrue(order.indexOf(CCPROG1) < order.indexOf(CCPROG2)),
+                () -> assertTrue(order.indexOf(CCPROG2) < order.indexOf(CCPROG3)),
+                () -> assertEquals(5, order.size())
+        );
+    }
+
+    @Test
+    public void subjects_unlocked_by_passing(){
+        PrerequisiteGraph graph = new PrerequisiteGraph(List.of(CCPROG3, MTH101A));
+        assertAll(
+                () -> assertEquals(List.of(CCPROG2, CCPROG3), graph.getUnlockedBy(CCPROG1)),
+                () -> assertEquals(List.of(CCPROG3), graph.getUnlockedBy(CCDSTRU)),
+                () -> assertTrue(graph.getUnlockedBy(MTH101A).isEmpty())
+        );
+    }
+
+    @Test
+    public void taken_prerequisites_as_subject_set(){
+        PrerequisiteGraph graph = new PrerequisiteGraph(List.of(CCPROG3));
+        assertAll(
+                () -> assertTrue(graph.hasTakenPrerequisites(CCPROG2, new SubjectSet(List.of(CCPROG1)))),
+                () -> assertFalse(graph.hasTakenPrerequisites(CCPROG3, new SubjectSet(List.of(CCPROG2, CCDSTRU)))),
+                () -> assertTrue(graph.hasTakenPrerequisites(CCPROG3, new SubjectSet(List.of(CCPROG1, CCPROG2, CCDSTRU))))
+        );
+    }
+
+    @Test
+    public void cyclic_prerequisites_rejected(){
+        //Given two subjects that are prerequisites of each other
+        Subject first = new Subject("FIRST", 3);
+        Subject second = new Subject("SECOND", 3, List.of(first), false);
+        Subject cyclicFirst = new Subject("FIRST", 3, List.of(second), false);
+
+        //Then the graph cannot be built
+        assertThrows(PrerequisiteCycleException.class, () -> new PrerequisiteGraph(List.of(cyclicFirst)));
+    }
+
+    @Test
+    public void enlist_checks_whole_prerequisite_chain(){
+        //Given a student who took CCPROG2 and CCDSTRU but not CCPROG1
+        DegreeProgram program = new DegreeProgram("CCS", List.of(CCPROG1, CCPROG2, CCDSTRU, CCPROG3));
+        Student student = new Student(1, Collections.emptyList(), program);
+        student.addTakenSubjects(CCPROG2);
+        student.addTakenSubjects(CCDSTRU);
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 2), CCPROG3);
+
+        //When the student enlists in CCPROG3, the missing CCPROG1 is caught
+        assertThrows(NotTakenPreRequisiteException.class, () -> student.enlist(sec1));
+
+        //And once CCPROG1 is taken the enlistment goes through
+        student.addTakenSubjects(CCPROG1);
+        student.enlist(sec1);
+        assertEquals(1, student.getSections().size());
+    }
+}
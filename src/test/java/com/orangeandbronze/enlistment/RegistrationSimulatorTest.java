@@ -0,0 +1,81 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegistrationSimulatorTest {
+    static SimulationConfig smallTerm(long seed){
+        return new SimulationConfig().seed(seed)
+                .subjects(40, 4, 0.5)
+                .rooms(30, 5, 15)
+                .sectionsPerSubject(3)
+                .programs(3, 0.6)
+                .students(600, 5)
+                .dropChance(0.3)
+                .fallbackThreads(8);
+    }
+
+    @Test
+    public void rush_never_overfills_a_section(){
+        //Given a small term where demand far exceeds the seats
+        RegistrationSimulator simulator = new RegistrationSimulator(smallTerm(11));
+
+        //When every student registers at once
+        SimulationReport report = simulator.run();
+
+        //Then no section is over capacity, every seat count matches, and all outcomes are accounted for
+        assertAll(
+                () -> assertTrue(report.isCapacityInvariantHeld(), report.toString()),
+                () -> assertEquals(600, report.getStudents()),
+                () -> assertEquals(report.getEnlistAttempts(), report.getEnlisted() + report.getRejectionCount()),
+                () -> assertTrue(report.getRejections().getOrDefault("CapacityReachedException", 0L) > 0),
+                () -> assertEquals(report.getEnlistAttempts(), report.getEnlistLatencyNanos().get("samples").longValue())
+        );
+    }
+
+    @Test
+    public void unexpected_exception_fails_the_run(){
+        //Given a listener that breaks on every enlistment
+        EnlistmentListener broken = new EnlistmentListener() {
+            @Override
+            public void enlisted(Student student, Section section){
+                throw new IllegalStateException("broken listener");
+            }
+        };
+        EnlistmentListeners.add(broken);
+        try {
+            //When every student registers at once
+            //Then the run fails instead of counting the bug as a rejection
+            IllegalStateException failure = assertThrows(IllegalStateException.class, () -> new RegistrationSimulator(smallTerm(3)).run());
+            assertEquals("broken listener", failure.getCause().getMessage());
+        } finally {
+            EnlistmentListeners.remove(broken);
+        }
+    }
+
+    @Test
+    public void same_seed_generates_same_term(){
+        //Given two universities generated from the same seed
+        SyntheticUniversity first = new SyntheticUniversity(smallTerm(5));
+        SyntheticUniversity second = new SyntheticUniversity(smallTerm(5));
+
+        //When their sections are described
+        //Then the descriptions are identical
+        assertAll(
+                () -> assertEquals(describe(first), describe(second)),
+                () -> assertEquals(first.getPrograms(), second.getPrograms()),
+                () -> assertNotEquals(describe(first), describe(new SyntheticUniversity(smallTerm(6))))
+        );
+    }
+
+    private static List<String> describe(SyntheticUniversity university){
+        return university.getSections().stream()
+                .map(section -> section.getSectionID() + " " + section.getOccupancy() + " " + section.getRoom() + "/" + section.getRoom().getCapacity()
+                        + " " + section.getSubject().getUnits() + " " + section.getSubject().getPrerequisites())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,86 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoomAssignmentSolverTest {
+    static final Subject CCPROG1 = new Subject("CCPROG1", 3);
+    static final Room SMALL = new Room("S1", 20);
+    static final Room MEDIUM = new Room("M1", 40);
+    static final Room LARGE = new Room("L1", 100);
+
+    @Test
+    public void smallest_room_that_fits(){
+        //Given 2 sections at different times and rooms of 20, 40 and 100
+        SectionPlan sec1 = new SectionPlan("A", CCPROG1, new Schedule(MTH, new Period(830, 1000)), 35);
+        SectionPlan sec2 = new SectionPlan("B", CCPROG1, new Schedule(TF, new Period(830, 1000)), 15);
+
+        //When rooms are assigned
+        RoomAssignment assignment = new RoomAssignmentSolver(List.of(LARGE, SMALL, MEDIUM)).solve(List.of(sec1, sec2));
+
+        //Then each section gets the tightest room
+        assertAll(
+                () -> assertEquals(Optional.of(MEDIUM), assignment.getRoom(sec1)),
+                () -> assertEquals(Optional.of(SMALL), assignment.getRoom(sec2)),
+                () -> assertEquals(5 + 5, assignment.getWastedSeats()),
+                () -> assertTrue(assignment.getUnassignable().isEmpty())
+        );
+    }
+
+    @Test
+    public void overlapping_sections_get_different_rooms(){
+        //Given 3 overlapping sections that each fit the medium room
+        SectionPlan sec1 = new SectionPlan("A", CCPROG1, new Schedule(MTH, new Period(830, 1000)), 30);
+        SectionPlan sec2 = new SectionPlan("B", CCPROG1, new Schedule(MTH, new Period(900, 1030)), 25);
+        SectionPlan sec3 = new SectionPlan("C", CCPROG1, new Schedule(MTH, new Period(930, 1100)), 20);
+
+        //When rooms are assigned with only the medium and large rooms
+        RoomAssignment assignment = new RoomAssignmentSolver(List.of(MEDIUM, LARGE)).solve(List.of(sec1, sec2, sec3));
+
+        //Then the largest enrollment gets the medium room, the next the large one, and the last is reported
+        assertAll(
+                () -> assertEquals(Optional.of(MEDIUM), assignment.getRoom(sec1)),
+                () -> assertEquals(Optional.of(LARGE), assignment.getRoom(sec2)),
+                () -> assertEquals(List.of(sec3), assignment.getUnassignable())
+        );
+    }
+
+    @Test
+    public void section_larger_than_every_room(){
+        SectionPlan sec1 = new SectionPlan("A", CCPROG1, new Schedule(MTH, new Period(830, 1000)), 500);
+        RoomAssignment assignment = new RoomAssignmentSolver(List.of(SMALL, LARGE)).solve(List.of(sec1));
+        assertEquals(List.of(sec1), assignment.getUnassignable());
+    }
+
+    @Test
+    public void assigned_sections_have_no_room_conflicts(){
+        //Given 2000 random sections and 80 rooms
+        int[][] periods = {{830, 1000}, {1000, 1130}, {1130, 1300}, {1300, 1430}, {1430, 1600}, {1600, 1730}};
+        Random random = new Random(5);
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < 80; i++) {
+            rooms.add(new Room("R" + i, 10 + random.nextInt(90)));
+        }
+        List<SectionPlan> plans = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int slot = random.nextInt(18);
+            int[] period = periods[slot / 3];
+            plans.add(new SectionPlan("P" + i, CCPROG1, new Schedule(Days.values()[slot % 3], new Period(period[0], period[1])), random.nextInt(100)));
+        }
+
+        //When rooms are assigned
+        RoomAssignment assignment = new RoomAssignmentSolver(rooms).solve(plans);
+
+        //Then every section is either in a room big enough with no double booking, or reported
+        RoomCalendar calendar = new RoomCalendar();
+        assertAll(
+                () -> assertEquals(plans.size(), assignment.getRooms().size() + assignment.getUnassignable().size()),
+                () -> assertDoesNotThrow(() -> assignment.toSections().forEach(calendar::add)),
+                () -> assignment.getRooms().forEach((plan, room) -> assertTrue(room.getCapacity() >= plan.getExpectedEnrollment()))
+        );
+    }
+}
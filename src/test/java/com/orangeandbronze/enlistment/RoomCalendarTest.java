@@ -0,0 +1,107 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.RoomConflictException;
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.util.*;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoomCalendarTest {
+    static final Room ROOM = new Room("A1", 40);
+    static final Subject CCPROG1 = new Subject("CCPROG1", 3);
+
+    @Test
+    public void free_room_and_holder(){
+        //Given a room booked on MTH 0830-1000
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), ROOM, CCPROG1);
+        RoomCalendar calendar = new RoomCalendar(List.of(sec1));
+
+        //Then the room is taken during that period and free right after or on other days
+        assertAll(
+                () -> assertFalse(calendar.isFree(ROOM, new Schedule(MTH, new Period(930, 1100)))),
+                () -> assertTrue(calendar.isFree(ROOM, new Schedule(MTH, new Period(1000, 1100)))),
+                () -> assertTrue(calendar.isFree(ROOM, new Schedule(TF, new Period(830, 1000)))),
+                () -> assertTrue(calendar.isFree(new Room("A2", 40), new Schedule(MTH, new Period(830, 1000)))),
+                () -> assertEquals(Optional.of(sec1), calendar.getHolder(ROOM, MTH, 930)),
+                () -> assertEquals(Optional.empty(), calendar.getHolder(ROOM, MTH, 1000))
+        );
+    }
+
+    @Test
+    public void add_conflicting_section(){
+        //Given a room booked on MTH 0830-1000
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), ROOM, CCPROG1);
+        Section sec2 = new Section("B", new Schedule(MTH, new Period(900, 1030)), ROOM, CCPROG1);
+        RoomCalendar calendar = new RoomCalendar(List.of(sec1));
+
+        //When another section in the same room overlaps, it is rejected and the existing booking is kept
+        assertAll(
+                () -> assertThrows(RoomConflictException.class, () -> calendar.add(sec2)),
+                () -> assertEquals(ROOM, sec2.getRoom()),
+                () -> assertEquals(Optional.of(sec1), calendar.getHolder(ROOM, MTH, 900)),
+                () -> assertEquals(Optional.empty(), calendar.getHolder(ROOM, MTH, 1000))
+        );
+    }
+
+    @Test
+    public void remove_dissolved_section(){
+        //Given a room booked on MTH 0830-1000
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), ROOM, CCPROG1);
+        Section sec2 = new Section("B", new Schedule(MTH, new Period(900, 1030)), ROOM, CCPROG1);
+        RoomCalendar calendar = new RoomCalendar(List.of(sec1));
+
+        //When the section is dissolved
+        calendar.remove(sec1);
+
+        //Then the slots can be booked by another section
+        calendar.add(sec2);
+        assertEquals(Optional.of(sec2), calendar.getHolder(ROOM, MTH, 1000));
+    }
+
+    @Test
+    public void weekend_evening_holder(){
+        //Given a room booked on WS 1000-1130 and on Saturday-Sunday 1815-2100
+        Section day = new Section("A", new Schedule(WS, new Period(1000, 1130)), ROOM, CCPROG1);
+        Section weekend = new Section("B", new Schedule(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), Period.flexible(1815, 2100)), ROOM, CCPROG1);
+        RoomCalendar calendar = new RoomCalendar(List.of(day, weekend));
+
+        //When the calendar is queried
+        //Then each slot names its own holder
+        assertAll(
+                () -> assertEquals(Optional.of(day), calendar.getHolder(ROOM, DayOfWeek.SATURDAY, 1100)),
+                () -> assertEquals(Optional.of(weekend), calendar.getHolder(ROOM, DayOfWeek.SATURDAY, 2055)),
+                () -> assertEquals(Optional.of(weekend), calendar.getHolder(ROOM, DayOfWeek.SUNDAY, 1815)),
+                () -> assertEquals(Optional.empty(), calendar.getHolder(ROOM, DayOfWeek.SUNDAY, 2100)),
+                () -> assertFalse(calendar.isFree(ROOM, new Schedule(EnumSet.of(DayOfWeek.SUNDAY), Period.flexible(2000, 2200)))),
+                () -> assertTrue(calendar.isFree(ROOM, new Schedule(EnumSet.of(DayOfWeek.SUNDAY), Period.flexible(1000, 1130))))
+        );
+    }
+
+    @Test
+    public void holder_among_many_bookings(){
+        //Given a room booked back to back on MTH from 0830 to 1230, then again from 1330
+        Section first = new Section("A", new Schedule(MTH, new Period(830, 1000)), ROOM, CCPROG1);
+        Section second = new Section("B", new Schedule(MTH, new Period(1000, 1130)), ROOM, CCPROG1);
+        Section third = new Section("C", new Schedule(MTH, new Period(1130, 1230)), ROOM, CCPROG1);
+        Section fourth = new Section("D", new Schedule(MTH, new Period(1330, 1500)), ROOM, CCPROG1);
+        RoomCalendar calendar = new RoomCalendar(List.of(fourth, second, first, third));
+
+        //When the calendar is queried and an overlapping section is added
+        RoomConflictException conflict = assertThrows(RoomConflictException.class,
+                () -> calendar.add(new Section("E", new Schedule(EnumSet.of(DayOfWeek.THURSDAY), new Period(1200, 1400)), ROOM, CCPROG1)));
+
+        //Then each slot names its own holder, the gap has none, and the conflict names a booking it overlaps
+        assertAll(
+                () -> assertEquals(Optional.of(first), calendar.getHolder(ROOM, MTH, 955)),
+                () -> assertEquals(Optional.of(second), calendar.getHolder(ROOM, MTH, 1000)),
+                () -> assertEquals(Optional.of(third), calendar.getHolder(ROOM, DayOfWeek.THURSDAY, 1225)),
+                () -> assertEquals(Optional.empty(), calendar.getHolder(ROOM, MTH, 1300)),
+                () -> assertEquals(Optional.of(fourth), calendar.getHolder(ROOM, DayOfWeek.THURSDAY, 1330)),
+                () -> assertEquals(Optional.empty(), calendar.getHolder(ROOM, DayOfWeek.TUESDAY, 900)),
+                () -> assertTrue(conflict.getMessage().contains(" and section D "), conflict.getMessage())
+        );
+    }
+}
@@ -0,0 +1,208 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.CapacityReachedException;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeatAvailabilityFeedTest {
+    static final Subject FEEDPROG1 = new Subject("FEEDPROG1", 3);
+    static final Subject FEEDMTH1 = new Subject("FEEDMTH1", 3);
+    static final DegreeProgram PROGRAM = new DegreeProgram("CCS", List.of(FEEDPROG1, FEEDMTH1));
+
+    static class Board implements Flow.Subscriber<SeatUpdate> {
+        final List<SeatUpdate> updates = new CopyOnWriteArrayList<>();
+        final long initialRequest;
+        Flow.Subscription subscription;
+        boolean completed;
+
+        Board(long initialRequest){
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(SeatUpdate item) {
+            updates.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    private static List<Student> students(int count){
+        List<Student> students = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            students.add(new Student(i, Collections.emptyList(), PROGRAM));
+        }
+        return students;
+    }
+
+    @Test
+    public void burst_of_changes_becomes_one_update_per_section_per_tick() throws Exception {
+        //Given a feed with a subscribed board, ticking only when asked
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("F1", 3), FEEDPROG1);
+        Section sec2 = new Section("B", new Schedule(TF, new Period(830, 1000)), new Room("F2", 10), FEEDMTH1);
+        List<Student> students = students(4);
+        Board board = new Board(Long.MAX_VALUE);
+        SeatAvailabilityFeed feed = new SeatAvailabilityFeed(3_600_000, 16);
+        feed.subscribe(board);
+        EnlistmentListeners.add(feed);
+        try {
+            //When three students fill section A, a fourth is turned away, one cancels, and one enlists in B
+            students.subList(0, 3).forEach(student -> student.enlist(sec1));
+            assertThrows(CapacityReachedException.class, () -> students.get(3).enlist(sec1));
+            students.get(0).cancelEnlistedSection(sec1);
+            students.get(1).enlist(sec2);
+            feed.publishNow().get();
+
+            //Then the board gets one update per section with the count as of the tick
+            Map<Section, SeatUpdate> bySection = new HashMap<>();
+            board.updates.forEach(update -> bySection.put(update.getSection(), update));
+            assertAll(
+                    () -> assertEquals(2, board.updates.size()),
+                    () -> assertEquals(2, bySection.get(sec1).getNumStudents()),
+                    () -> assertEquals(1, bySection.get(sec1).getRemainingSeats()),
+                    () -> assertEquals(1, bySection.get(sec2).getNumStudents())
+            );
+
+            //And an enlistment that fills the section again shows as full on the next tick
+            students.get(3).enlist(sec1);
+            feed.publishNow().get();
+            SeatUpdate last = board.updates.get(board.updates.size() - 1);
+            assertAll(
+                    () -> assertEquals(3, board.updates.size()),
+                    () -> assertEquals(sec1, last.getSection()),
+                    () -> assertTrue(last.isFull())
+            );
+        } finally {
+            EnlistmentListeners.remove(feed);
+            feed.close();
+        }
+        assertTrue(board.completed);
+    }
+
+    @Test
+    public void slow_subscriber_keeps_only_the_newest_updates(){
+        //Given a board that has not requested anything, with room for two updates
+        List<Section> sections = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            sections.add(new Section("S" + i, new Schedule(Days.values()[i % 3], new Period(830 + i * 200, 1000 + i * 200)), new Room("F" + i, 10), FEEDPROG1));
+        }
+        Student student = students(1).get(0);
+        Board slow = new Board(0);
+        Board fast = new Board(Long.MAX_VALUE);
+        SeatAvailabilityFeed feed = new SeatAvailabilityFeed(3_600_000, 2);
+        feed.subscribe(slow);
+        feed.subscribe(fast);
+        EnlistmentListeners.add(feed);
+        try {
+            //When four sections change in four separate ticks and the board then asks for everything
+            for (Section section : sections) {
+                student.enlist(section);
+                student.cancelEnlistedSection(section);
+                feed.publishNow().get();
+            }
+            slow.subscription.request(10);
+            feed.publishNow().get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            EnlistmentListeners.remove(feed);
+            feed.close();
+        }
+
+        //Then the slow board gets only the last two, while the fast one saw all four
+        assertAll(
+                () -> assertEquals(List.of(sections.get(2), sections.get(3)), slow.updates.stream().map(SeatUpdate::getSection).collect(java.util.stream.Collectors.toList())),
+                () -> assertEquals(4, fast.updates.size()),
+                () -> assertEquals(2, feed.getDroppedCount())
+        );
+    }
+
+    @Test
+    public void slow_subscriber_keeps_the_latest_update_of_every_section() throws Exception {
+        //Given a board that has not requested anything, with room for two updates
+        Section busy = new Section("C", new Schedule(MTH, new Period(830, 1000)), new Room("F5", 10), FEEDPROG1);
+        Section quiet = new Section("D", new Schedule(TF, new Period(830, 1000)), new Room("F6", 10), FEEDMTH1);
+        List<Student> students = students(4);
+        Board slow = new Board(0);
+        SeatAvailabilityFeed feed = new SeatAvailabilityFeed(3_600_000, 2);
+        feed.subscribe(slow);
+        EnlistmentListeners.add(feed);
+        try {
+            //When the quiet section changes once and the busy one changes in four separate ticks
+            students.get(0).enlist(quiet);
+            for (Student student : students) {
+                student.enlist(busy);
+                feed.publishNow().get();
+            }
+            slow.subscription.request(10);
+            feed.publishNow().get();
+        } finally {
+            EnlistmentListeners.remove(feed);
+            feed.close();
+        }
+
+        //Then the board gets the quiet section's only update and the busy one's latest, and nothing was dropped
+        assertAll(
+                () -> assertEquals(2, slow.updates.size()),
+                () -> assertEquals(quiet, slow.updates.get(0).getSection()),
+                () -> assertEquals(busy, slow.updates.get(1).getSection()),
+                () -> assertEquals(4, slow.updates.get(1).getNumStudents()),
+                () -> assertEquals(0, feed.getDroppedCount())
+        );
+    }
+
+    @Test
+    public void section_without_a_room_does_not_stop_the_feed() throws Exception {
+        //Given a feed ticking every 10ms and a section whose room was taken away
+        Section roomless = new Section("E", new Schedule(MTH, new Period(830, 1000)), new Room("F7", 10), FEEDPROG1);
+        Section other = new Section("G", new Schedule(TF, new Period(830, 1000)), new Room("F8", 10), FEEDMTH1);
+        Board board = new Board(Long.MAX_VALUE);
+        SeatAvailabilityFeed feed = new SeatAvailabilityFeed(10, 16);
+        feed.subscribe(board);
+        try {
+            //When it changes, and another section changes after a later tick
+            roomless.removeRoom();
+            feed.seatsChanged(roomless);
+            awaitUpdates(board, 1);
+            feed.seatsChanged(other);
+            awaitUpdates(board, 2);
+        } finally {
+            feed.close();
+        }
+
+        //Then the roomless section shows as full and the scheduled ticks kept running
+        assertAll(
+                () -> assertEquals(roomless, board.updates.get(0).getSection()),
+                () -> assertTrue(board.updates.get(0).isFull()),
+                () -> assertEquals(other, board.updates.get(1).getSection())
+        );
+    }
+
+    private static void awaitUpdates(Board board, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + java.util.concurrent.TimeUnit.SECONDS.toNanos(10);
+        while (board.updates.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SectionSearchIndexTest {
+    static final Subject CCPROG1 = new Subject("CCPROG1", 3);
+    static final Subject CCPROG2 = new Subject("CCPROG2", 3, List.of(CCPROG1), false);
+    static final Subject MTH101A = new Subject("MTH101A", 3);
+    static final Subject CSARCH2 = new Subject("CSARCH2", 3);
+    static final DegreeProgram PROGRAM = new DegreeProgram("CCS", List.of(CCPROG1, CCPROG2, MTH101A));
+
+    @Test
+    public void fitting_sections_ranked_by_remaining_seats(){
+        //Given a student enlisted on MTH 0830-1000 and 4 sections of MTH101A, one conflicting and one full
+        Student student = new Student(1, Collections.emptyList(), PROGRAM);
+        student.enlist(new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 5), CCPROG1));
+        Section conflicting = new Section("B", new Schedule(MTH, new Period(900, 1030)), new Room("B1", 40), MTH101A);
+        Section full = new Section("C", new Schedule(TF, new Period(830, 1000)), new Room("C1", 1), MTH101A);
+        Section small = new Section("D", new Schedule(TF, new Period(1000, 1130)), new Room("D1", 10), MTH101A);
+        Section large = new Section("E", new Schedule(WS, new Period(830, 1000)), new Room("E1", 30), MTH101A);
+        new Student(2, Collections.emptyList(), PROGRAM).enlist(full);
+        SectionSearchIndex index = new SectionSearchIndex(List.of(conflicting, full, small, large));
+
+        //When the student searches for MTH101A
+        List<Section> fitting = index.findFitting(student, MTH101A);
+
+        //Then only the sections that fit and have seats are returned, most seats first
+        assertEquals(List.of(large, small), fitting);
+    }
+
+    @Test
+    public void nothing_fits_when_subject_rules_fail(){
+        //Given sections of a subject missing a pre-requisite, one outside the program and one already enlisted
+        Student student = new Student(1, Collections.emptyList(), PROGRAM);
+        Section prog1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 5), CCPROG1);
+        Section prog1Other = new Section("B", new Schedule(TF, new Period(830, 1000)), new Room("B1", 5), CCPROG1);
+        Section prog2 = new Section("C", new Schedule(WS, new Period(830, 1000)), new Room("C1", 5), CCPROG2);
+        Section arch = new Section("D", new Schedule(WS, new Period(1300, 1430)), new Room("D1", 5), CSARCH2);
+        SectionSearchIndex index = new SectionSearchIndex(List.of(prog1, prog1Other, prog2, arch));
+        student.enlist(prog1);
+
+        assertAll(
+                () -> assertTrue(index.findFitting(student, CCPROG2).isEmpty()),
+                () -> assertTrue(index.findFitting(student, CSARCH2).isEmpty()),
+                () -> assertTrue(index.findFitting(student, CCPROG1).isEmpty())
+        );
+
+        //And once the pre-requisite is taken the section shows up
+        student.addTakenSubjects(CCPROG1);
+        assertEquals(List.of(prog2), index.findFitting(student, CCPROG2));
+    }
+}
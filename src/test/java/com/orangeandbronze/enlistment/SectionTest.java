@@ -0,0 +1,149 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.CapacityReachedException;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SectionTest {
+    static final Subject CCPROG1 = new Subject("CCPROG1", 3);
+    static final DegreeProgram PROGRAM = new DegreeProgram("CCS", List.of(CCPROG1));
+
+    @Test
+    public void reserve_seat_over_capacity(){
+        //Given a section in a room for 1 whose only seat is taken
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 1), CCPROG1);
+        sec1.reserveSeat();
+        //Then the next reservation is rejected and the count stays at capacity
+        assertAll(
+                () -> assertThrows(CapacityReachedException.class, sec1::reserveSeat),
+                () -> assertEquals(1, sec1.getNumStudents())
+        );
+    }
+
+    @Test
+    public void release_seat_without_reservation(){
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 1), CCPROG1);
+        assertAll(
+                () -> assertThrows(IllegalStateException.class, sec1::releaseSeat),
+                () -> assertEquals(0, sec1.getNumStudents())
+        );
+    }
+
+    @Test
+    public void concurrent_enlistment_never_exceeds_room_capacity() throws Exception {
+        //Given a section in a room for 50 and 2000 students enlisting and cancelling from 16 threads
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 50), CCPROG1);
+        int students = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger enlisted = new AtomicInteger();
+        AtomicInteger maxSeen = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 1; i <= students; i++) {
+            Student student = new Student(i, Collections.emptyList(), PROGRAM);
+            boolean cancels = i % 3 == 0;
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    student.enlist(sec1);
+                } catch (CapacityReachedException e) {
+                    return null;
+                }
+                maxSeen.accumulateAndGet(sec1.getNumStudents(), Math::max);
+                if (cancels) {
+                    student.cancelEnlistedSection(sec1);
+                } else {
+                    enlisted.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        //When they all start at once
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        //Then the room is never overbooked and no update is lost
+        assertAll(
+                () -> assertTrue(maxSeen.get() <= 50),
+                () -> assertEquals(enlisted.get(), sec1.getNumStudents())
+        );
+    }
+
+    @Test
+    public void roster_follows_enlist_and_cancel(){
+        //Given a section with three students enlisted and one of them cancelling
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 5), CCPROG1);
+        Student student1 = new Student(11, Collections.emptyList(), PROGRAM);
+        Student student2 = new Student(12, Collections.emptyList(), PROGRAM);
+        Student student3 = new Student(13, Collections.emptyList(), PROGRAM);
+        student1.enlist(sec1);
+        student2.enlist(sec1);
+        student3.enlist(sec1);
+        student2.cancelEnlistedSection(sec1);
+
+        //Then the roster holds exactly the enlisted students
+        int[] roster = sec1.getRoster();
+        Arrays.sort(roster);
+        assertAll(
+                () -> assertArrayEquals(new int[]{11, 13}, roster),
+                () -> assertTrue(sec1.hasOnRoster(13)),
+                () -> assertFalse(sec1.hasOnRoster(12)),
+                () -> assertEquals(sec1.getNumStudents(), sec1.getRosterSize())
+        );
+    }
+
+    @Test
+    public void roster_matches_seat_count_after_concurrent_enlistment() throws Exception {
+        //Given a section in a room for 100 and 1000 students enlisting, and every fourth cancelling, from 16 threads
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 100), CCPROG1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            Student student = new Student(i, Collections.emptyList(), PROGRAM);
+            boolean cancels = i % 4 == 0;
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    student.enlist(sec1);
+                } catch (CapacityReachedException e) {
+                    return null;
+                }
+                assertTrue(sec1.getRosterSize() <= sec1.getNumStudents());
+                if (cancels) {
+                    student.cancelEnlistedSection(sec1);
+                }
+                return null;
+            }));
+        }
+
+        //When they all start at once
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //Then the roster and the seat count agree once everyone is done
+        Set<Integer> enlisted = new HashSet<>();
+        sec1.forEachOnRoster(enlisted::add);
+        assertAll(
+                () -> assertEquals(sec1.getNumStudents(), sec1.getRosterSize()),
+                () -> assertEquals(sec1.getNumStudents(), enlisted.size()),
+                () -> assertTrue(enlisted.stream().noneMatch(number -> number % 4 == 0))
+        );
+    }
+}
@@ -0,0 +1,239 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.*;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedEnlistmentEngineTest {
+    static final Subject SHDPROG1 = new Subject("SHDPROG1", 3);
+    static final Subject SHDMTH1 = new Subject("SHDMTH1", 3);
+    static final Subject SHDLAB1 = new Subject("SHDLAB1", 1, true);
+    static final DegreeProgram PROGRAM = new DegreeProgram("CCS", List.of(SHDPROG1, SHDMTH1, SHDLAB1));
+
+    // a section whose ID lands on the given shard
+    private static Section sectionOnShard(ShardedEnlistmentEngine engine, int shard, String prefix, Schedule schedule, int capacity, Subject subject){
+        for (int i = 0; ; i++) {
+            Section section = new Section(prefix + i, schedule, new Room(prefix + i, capacity), subject);
+            if (engine.shardOf(section) == shard) {
+                return section;
+            }
+        }
+    }
+
+    @Test
+    public void enlist_and_cancel_follow_the_usual_rules(){
+        //Given an engine, a student, and two sections at the same time
+        try (ShardedEnlistmentEngine engine = new ShardedEnlistmentEngine(2)) {
+            Student student = new Student(1, Collections.emptyList(), PROGRAM);
+            Section prog = new Section("SHDA", new Schedule(MTH, new Period(830, 1000)), new Room("SHD1", 10), SHDPROG1);
+            Section math = new Section("SHDB", new Schedule(MTH, new Period(900, 1030)), new Room("SHD2", 10), SHDMTH1);
+
+            //When the student enlists in one, then the other, then cancels the first
+            engine.enlist(student, prog);
+
+            //Then the clash is refused with the rule's own exception, and cancelling frees the seat
+            assertThrows(ScheduleConflictException.class, () -> engine.enlist(student, math));
+            engine.cancel(student, prog);
+            assertAll(
+                    () -> assertEquals(0, prog.getNumStudents()),
+                    () -> assertEquals(0, math.getNumStudents()),
+                    () -> assertTrue(student.getSections().isEmpty()),
+                    () -> assertEquals(3L, engine.getCommandCount())
+            );
+        }
+    }
+
+    @Test
+    public void popular_section_fills_exactly() throws Exception {
+        //Given 200 students rushing a section of 50 from 8 threads
+        try (ShardedEnlistmentEngine engine = new ShardedEnlistmentEngine(4)) {
+            Section popular = new Section("SHDPOP", new Schedule(TF, new Period(1000, 1130)), new Room("SHDPOP", 50), SHDPROG1);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            AtomicInteger enlisted = new AtomicInteger();
+            AtomicInteger refused = new AtomicInteger();
+            List<Future<?>> results = new ArrayList<>();
+
+            //When they all try to enlist
+            for (int number = 1; number <= 200; number++) {
+                Student student = new Student(number, Collections.emptyList(), PROGRAM);
+                results.add(executor.submit(() -> {
+                    try {
+                        engine.enlist(student, popular);
+                        enlisted.incrementAndGet();
+                    } catch (CapacityReachedException e) {
+                        refused.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            //Then the seats and the roster match the 50 who got in
+            assertAll(
+                    () -> assertEquals(50, enlisted.get()),
+                    () -> assertEquals(150, refused.get()),
+                    () -> assertEquals(50, popular.getNumStudents()),
+                    () -> assertEquals(50, popular.getRosterSize())
+            );
+        }
+    }
+
+    @Test
+    public void block_across_shards_commits_on_both(){
+        //Given a lecture and a lab on different shards
+        try (ShardedEnlistmentEngine engine = new ShardedEnlistmentEngine(2)) {
+            Student student = new Student(1, Collections.emptyList(), PROGRAM);
+            Section lecture = sectionOnShard(engine, 0, "SHDL", new Schedule(MTH, new Period(830, 1000)), 10, SHDPROG1);
+            Section lab = sectionOnShard(engine, 1, "SHDK", new Schedule(WS, new Period(1300, 1600)), 10, SHDLAB1);
+
+            //When the student enlists in both as a block
+            engine.enlistBlock(student, List.of(lecture, lab));
+
+            //Then both are recorded with a seat each, the rosters written by each shard in a commit command
+            assertAll(
+                    () -> assertEquals(Set.of(lecture, lab), new HashSet<>(student.getSections())),
+                    () -> assertEquals(1, lecture.getNumStudents()),
+                    () -> assertEquals(1, lab.getNumStudents()),
+                    () -> assertTrue(lecture.hasOnRoster(1) && lab.hasOnRoster(1)),
+                    () -> assertEquals(4L, engine.getCommandCount())
+            );
+        }
+    }
+
+    @Test
+    public void block_across_shards_aborts_when_one_shard_is_full(){
+        //Given a lecture with room and a full lab on another shard
+        try (ShardedEnlistmentEngine engine = new ShardedEnlistmentEngine(2)) {
+            Student student = new Student(1, Collections.emptyList(), PROGRAM);
+            Section lecture = sectionOnShard(engine, 0, "SHDL", new Schedule(MTH, new Period(830, 1000)), 10, SHDPROG1);
+            Section lab = sectionOnShard(engine, 1, "SHDK", new Schedule(WS, new Period(1300, 1600)), 1, SHDLAB1);
+            engine.enlist(new Student(2, Collections.emptyList(), PROGRAM), lab);
+
+            //When the student tries both as a block
+            //Then it is refused and the lecture seat held in the prepare phase is given back
+            assertThrows(CapacityReachedException.class, () -> engine.enlistBlock(student, List.of(lecture, lab)));
+            assertAll(
+                    () -> assertEquals(0, lecture.getNumStudents()),
+                    () -> assertEquals(1, lab.getNumStudents()),
+                    () -> assertTrue(student.getSections().isEmpty())
+            );
+        }
+    }
+
+    @Test
+    public void block_breaking_a_rule_takes_no_seat(){
+        //Given a lecture and a lab on different shards at the same time
+        try (ShardedEnlistmentEngine engine = new ShardedEnlistmentEngine(2)) {
+            Student student = new Student(1, Collections.emptyList(), PROGRAM);
+            Section lecture = sectionOnShard(engine, 0, "SHDL", new Schedule(MTH, new Period(830, 1000)), 10, SHDPROG1);
+            Section lab = sectionOnShard(engine, 1, "SHDK", new Schedule(MTH, new Period(900, 1200)), 10, SHDLAB1);
+
+            //When the student tries both as a block
+            //Then it is refused before any shard is asked for a seat
+            assertThrows(ScheduleConflictException.class, () -> engine.enlistBlock(student, List.of(lecture, lab)));
+            assertAll(
+                    () -> assertEquals(0, lecture.getNumStudents()),
+                    () -> assertEquals(0, lab.getNumStudents()),
+                    () -> assertEquals(0L, engine.getCommandCount())
+            );
+        }
+    }
+
+    @Test
+    public void closed_engine_refuses_commands(){
+        //Given a closed engine
+        ShardedEnlistmentEngine engine = new ShardedEnlistmentEngine(1);
+        engine.close();
+
+        //When a command is sent
+        //Then it is refused
+        Section section = new Section("SHDC", new Schedule(MTH, new Period(830, 1000)), new Room("SHDC", 10), SHDPROG1);
+        assertThrows(IllegalStateException.class, () -> engine.enlist(new Student(1, Collections.emptyList(), PROGRAM), section));
+    }
+
+    @Test
+    public void close_fails_the_commands_queued_behind_a_stuck_shard() throws Exception {
+        //Given a one-shard engine stuck on an enlistment waiting for the student's lock, with another command queued
+        ShardedEnlistmentEngine engine = new ShardedEnlistmentEngine(1);
+        Student stuckStudent = new Student(1, Collections.emptyList(), PROGRAM);
+        Student queuedStudent = new Student(2, Collections.emptyList(), PROGRAM);
+        Section section = new Section("SHDS", new Schedule(MTH, new Period(830, 1000)), new Room("SHDS", 10), SHDPROG1);
+        FutureTask<Void> stuck = new FutureTask<>(() -> engine.enlist(stuckStudent, section), null);
+        FutureTask<Void> queued = new FutureTask<>(() -> engine.enlist(queuedStudent, section), null);
+        synchronized (stuckStudent) {
+            new Thread(stuck).start();
+            awaitCondition(() -> engine.getCommandCount() == 1);
+            Thread queuing = new Thread(queued);
+            queuing.start();
+            // parked waiting for its command, which is then in the ring
+            awaitCondition(() -> queuing.getState() == Thread.State.WAITING);
+
+            //When the engine is closed and the shard does not finish in time
+            engine.close(100);
+
+            //Then the queued command fails without running, while the stuck one is left to finish
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> queued.get(10, TimeUnit.SECONDS));
+            assertTrue(failure.getCause() instanceof IllegalStateException);
+            assertFalse(stuck.isDone());
+        }
+        stuck.get(10, TimeUnit.SECONDS);
+        assertAll(
+                () -> assertEquals(List.of(section), stuckStudent.getSections()),
+                () -> assertTrue(queuedStudent.getSections().isEmpty()),
+                () -> assertEquals(1, section.getNumStudents())
+        );
+    }
+
+    @Test
+    public void close_fails_callers_waiting_for_room_in_a_full_ring_behind_a_stuck_shard() throws Exception {
+        //Given a one-shard engine with a ring of 4, stuck on an enlistment, its ring full and a fifth caller waiting
+        ShardedEnlistmentEngine engine = new ShardedEnlistmentEngine(1, 4);
+        Student stuckStudent = new Student(1, Collections.emptyList(), PROGRAM);
+        Section section = new Section("SHDF", new Schedule(MTH, new Period(830, 1000)), new Room("SHDF", 10), SHDPROG1);
+        FutureTask<Void> stuck = new FutureTask<>(() -> engine.enlist(stuckStudent, section), null);
+        List<FutureTask<Void>> waiting = new ArrayList<>();
+        synchronized (stuckStudent) {
+            new Thread(stuck).start();
+            awaitCondition(() -> engine.getCommandCount() == 1);
+            for (int number = 2; number <= 6; number++) {
+                Student student = new Student(number, Collections.emptyList(), PROGRAM);
+                FutureTask<Void> caller = new FutureTask<>(() -> engine.enlist(student, section), null);
+                Thread thread = new Thread(caller);
+                thread.start();
+                // the first four park on their queued command, the fifth backs off and retries the full ring
+                awaitCondition(() -> thread.getState() == Thread.State.WAITING || thread.getState() == Thread.State.TIMED_WAITING);
+                waiting.add(caller);
+            }
+
+            //When the engine is closed and the shard does not finish in time
+            Thread closing = new Thread(() -> engine.close(100));
+            closing.start();
+            closing.join(TimeUnit.SECONDS.toMillis(10));
+
+            //Then close returns, and every waiting caller fails rather than hanging
+            assertFalse(closing.isAlive());
+            for (FutureTask<Void> caller : waiting) {
+                ExecutionException failure = assertThrows(ExecutionException.class, () -> caller.get(10, TimeUnit.SECONDS));
+                assertTrue(failure.getCause() instanceof IllegalStateException);
+            }
+        }
+        stuck.get(10, TimeUnit.SECONDS);
+        assertEquals(1, section.getNumStudents());
+    }
+
+    private static void awaitCondition(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
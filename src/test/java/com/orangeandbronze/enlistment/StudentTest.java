@@ -4,12 +4,15 @@ import com.orangeandbronze.enlistment.exceptions.*;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.util.*;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static com.orangeandbronze.enlistment.Days.*;
 
 public class StudentTest {
@@ -54,6 +57,25 @@ public class StudentTest {
         assertThrows(ScheduleConflictException.class, () -> student.enlist(sec2));
     }
 
+    @Test
+    public void enlist_monday_section_against_MTH_section(){
+        //Given a student in an MTH 0830-1000 section, a Monday evening section and a Monday 0900 seminar
+        Student student = new Student(1, Collections.emptyList(), DEFAULT_PROGRAM);
+        Section sec1 = new Section("A", DEFAULT_SCHEDULE, new Room("A1", 2), new Subject("CCPROG1", 3));
+        Section evening = new Section("B", new Schedule(EnumSet.of(DayOfWeek.MONDAY), Period.flexible(1800, 2100)), new Room("A2", 2), new Subject("MTH101A", 3));
+        Section seminar = new Section("C", new Schedule(EnumSet.of(DayOfWeek.MONDAY), Period.flexible(900, 1145)), new Room("A3", 2), new Subject("CSARCH2", 3));
+        student.enlist(sec1);
+
+        //When the student enlists in the evening section
+        student.enlist(evening);
+
+        //Then it is taken, but the seminar overlapping Monday morning is refused
+        assertAll(
+                () -> assertTrue(student.getSections().contains(evening)),
+                () -> assertThrows(ScheduleConflictException.class, () -> student.enlist(seminar))
+        );
+    }
+
     @Test
     public void enlist_under_room_capacity(){
         Student student1 = new Student(1, Collections.emptyList(), DEFAULT_PROGRAM);
@@ -154,6 +176,19 @@ public class StudentTest {
         assertThrows(NotTakenPreRequisiteException.class, ()-> student.enlist(sec1));
     }
 
+    @Test
+    public void failed_enlist_releases_seat(){
+        //Given a section whose subject has a pre-requisite the student has not taken
+        Section sec1 = new Section("A", DEFAULT_SCHEDULE, new Room("A1", 1), CCPROG2);
+        Student student = new Student(1, Collections.emptyList(), DEFAULT_PROGRAM);
+
+        //When the enlistment fails after the capacity check
+        assertThrows(NotTakenPreRequisiteException.class, ()-> student.enlist(sec1));
+
+        //Then the seat is given back
+        assertEquals(0, sec1.getNumStudents());
+    }
+
     @Test
     public void enlist_pre_req_taken(){
         //Given a section whose subject has a pre-requisite
@@ -206,6 +241,27 @@ public class StudentTest {
         assertEquals(expected, assessment);
     }
 
+    @Test
+    public void running_aggregates_follow_enlist_and_cancel(){
+        //Given a student who enlists in a lecture and a lab, then cancels the lecture
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(1000, 1030)), new Room("A1", 2), CCPROG1);
+        Section sec2 = new Section("B", new Schedule(WS, new Period(830, 900)), new Room("A2", 2), LBYARCH);
+        Student student = new Student(1, Collections.emptyList(), DEFAULT_PROGRAM);
+        student.enlist(sec1);
+        student.enlist(sec2);
+        student.cancelEnlistedSection(sec1);
+
+        //Then the running totals match the remaining lab and a full recomputation
+        /* Calculation: 1 unit * 2000 + 1000 lab fee + 3000 misc = 6000, plus 12% VAT = 6720 */
+        assertAll(
+                () -> assertEquals(1, student.getTotalUnits()),
+                () -> assertEquals(1, student.getLabCount()),
+                () -> assertEquals(300000, student.getFeeSubtotalCents()),
+                () -> assertTrue(student.aggregatesMatch()),
+                () -> assertEquals(new BigDecimal("6720.00"), student.requestAssessment())
+        );
+    }
+
     @Test
     public void enlist_overlapping_schedules(){
         //Given a student and two sections of overlapping schedules
@@ -236,6 +292,37 @@ public class StudentTest {
                 () -> assertEquals(2, sections.size())
         );
     }
+    @Test
+    public void enlist_adjacent_schedules(){
+        //Given a student and two sections on the same days where one ends as the other starts
+        Student student = new Student(1, Collections.emptyList(), DEFAULT_PROGRAM);
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 2), new Subject("CCPROG1", 3));
+        Section sec2 = new Section("B", new Schedule(MTH, new Period(1000, 1130)), new Room("A2", 2), new Subject("CCICOMP", 3));
+        //When a student enlists on both sections
+        student.enlist(sec1);
+        student.enlist(sec2);
+        //Then both sections are enlisted
+        assertEquals(2, student.getSections().size());
+    }
+
+    @Test
+    public void enlist_after_cancelling_conflicting_section(){
+        //Given a student who cancelled a section
+        Student student = new Student(1, Collections.emptyList(), DEFAULT_PROGRAM);
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1200)), new Room("A1", 2), new Subject("CCPROG1", 3));
+        Section sec2 = new Section("B", new Schedule(MTH, new Period(1030, 1300)), new Room("A2", 2), new Subject("CCICOMP", 3));
+        student.enlist(sec1);
+        student.cancelEnlistedSection(sec1);
+        //When the student enlists in a section that overlapped the cancelled one
+        student.enlist(sec2);
+        //Then the schedule slots of the cancelled section are free again
+        Collection<Section> sections = student.getSections();
+        assertAll(
+                () -> assertTrue(sections.contains(sec2)),
+                () -> assertEquals(1, sections.size())
+        );
+    }
+
     @Test
     public void enlist_not_over_max_units (){
         //Given a student and 2 sections where both sections, when enlisted, will not exceed the maximum units allowed
@@ -303,4 +390,189 @@ public class StudentTest {
         //Then the student should unsuccessfully enlist the said section
         assertThrows(SubjectNotInProgramException.class, () -> student.enlist(sec1));
     }
+
+    @Test
+    public void validate_cart_reports_every_violation(){
+        //Given a student who has enlisted in a section and a cart of 4 sections
+        Student student = new Student(1, Collections.emptyList(), DEFAULT_PROGRAM);
+        Section enlisted = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 2), CCPROG1);
+        student.enlist(enlisted);
+        Section valid = new Section("B", new Schedule(TF, new Period(830, 1000)), new Room("A2", 2), MTH101A);
+        Section conflicting = new Section("C", new Schedule(MTH, new Period(900, 1030)), new Room("A3", 2), new Subject("ABCDEFG", 3, false));
+        Section fullPrereq = new Section("D", new Schedule(WS, new Period(830, 1000)), new Room("A4", 0), CCPROG2);
+        Section sameSubjectAsCart = new Section("E", new Schedule(WS, new Period(1300, 1430)), new Room("A5", 2), MTH101A);
+
+        //When the student validates the whole cart
+        CartValidation validation = student.validateCart(List.of(valid, conflicting, fullPrereq, sameSubjectAsCart));
+
+        //Then every violation of every section is reported and nothing is enlisted
+        assertAll(
+                () -> assertFalse(validation.isValid()),
+                () -> assertTrue(validation.getViolations(valid).isEmpty()),
+                () -> assertEquals(EnumSet.of(Violation.SCHEDULE_CONFLICT, Violation.SUBJECT_NOT_IN_PROGRAM), validation.getViolations(conflicting)),
+                () -> assertEquals(EnumSet.of(Violation.CAPACITY_REACHED, Violation.PREREQUISITE_NOT_TAKEN), validation.getViolations(fullPrereq)),
+                () -> assertEquals(EnumSet.of(Violation.SAME_SUBJECT), validation.getViolations(sameSubjectAsCart)),
+                () -> assertEquals(List.of(valid), validation.getValidSections()),
+                () -> assertEquals(1, student.getSections().size())
+        );
+    }
+
+    @Test
+    public void validate_cart_reports_a_section_listed_twice(){
+        //Given a cart listing the same full section twice
+        Student student = new Student(1, Collections.emptyList(), DEFAULT_PROGRAM);
+        Section full = new Section("A", DEFAULT_SCHEDULE, new Room("A1", 0), CCPROG1);
+
+        //When the student validates the cart
+        CartValidation validation = student.validateCart(List.of(full, full));
+
+        //Then the section's own violations are kept and the duplicate is reported with them
+        assertAll(
+                () -> assertEquals(EnumSet.of(Violation.CAPACITY_REACHED, Violation.DUPLICATE_SECTION), validation.getViolations(full)),
+                () -> assertEquals(1, validation.getViolations().size())
+        );
+    }
+
+    @Test
+    public void validate_cart_over_max_units(){
+        //Given a cart whose sections together exceed the maximum units
+        Student student = new Student(1, Collections.emptyList(), DEFAULT_PROGRAM);
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1200)), new Room("A1", 2), new Subject("CCPROG1", 22));
+        Section sec2 = new Section("B", new Schedule(WS, new Period(830, 1200)), new Room("A2", 2), new Subject("CCICOMP", 3));
+
+        //When the student validates the cart
+        CartValidation validation = student.validateCart(List.of(sec1, sec2));
+
+        //Then only the section that goes over the limit is rejected
+        assertAll(
+                () -> assertTrue(validation.getViolations(sec1).isEmpty()),
+                () -> assertEquals(EnumSet.of(Violation.MAX_UNITS), validation.getViolations(sec2))
+        );
+    }
+
+    @Test
+    public void enlist_block_rolls_back_when_a_section_is_full(){
+        //Given a lecture with free seats and its lab whose only seat is taken
+        Student student = new Student(1, Collections.emptyList(), DEFAULT_PROGRAM);
+        Section lecture = new Section("A", DEFAULT_SCHEDULE, new Room("A1", 2), CCPROG1);
+        Section lab = new Section("B", new Schedule(TF, new Period(830, 1000)), new Room("A2", 1), LBYPROG);
+        new Student(2, Collections.emptyList(), DEFAULT_PROGRAM).enlist(lab);
+
+        //When the student enlists in both as a block
+        assertThrows(CapacityReachedException.class, () -> student.enlistBlock(List.of(lecture, lab)));
+
+        //Then the lecture seat taken first is given back and the student has neither
+        assertAll(
+                () -> assertEquals(0, lecture.getNumStudents()),
+                () -> assertEquals(1, lab.getNumStudents()),
+                () -> assertTrue(student.getSections().isEmpty()),
+                () -> assertEquals(0, student.getTotalUnits())
+        );
+    }
+
+    @Test
+    public void enlist_block_checks_rules_across_the_block(){
+        //Given two sections of a block at the same time, and a block with a section missing its pre-requisite
+        Student student = new Student(1, Collections.emptyList(), DEFAULT_PROGRAM);
+        Section lecture = new Section("A", DEFAULT_SCHEDULE, new Room("A1", 2), CCPROG1);
+        Section clashingLab = new Section("B", DEFAULT_SCHEDULE, new Room("A2", 2), LBYPROG);
+        Section advanced = new Section("C", new Schedule(WS, new Period(830, 1000)), new Room("A3", 2), CCPROG2);
+
+        //When the student enlists in either block
+        //Then the block is rejected before any seat is taken
+        assertAll(
+                () -> assertThrows(ScheduleConflictException.class, () -> student.enlistBlock(List.of(lecture, clashingLab))),
+                () -> assertThrows(NotTakenPreRequisiteException.class, () -> student.enlistBlock(List.of(lecture, advanced))),
+                () -> assertEquals(0, lecture.getNumStudents()),
+                () -> assertTrue(student.getSections().isEmpty())
+        );
+
+        //And a valid block is taken whole
+        Section lab = new Section("D", new Schedule(TF, new Period(830, 1000)), new Room("A4", 2), LBYPROG);
+        student.enlistBlock(List.of(lecture, lab));
+        assertAll(
+                () -> assertEquals(Set.of(lecture, lab), new HashSet<>(student.getSections())),
+                () -> assertEquals(6, student.getTotalUnits())
+        );
+    }
+
+    @Test
+    public void concurrent_block_enlistment_is_all_or_nothing() throws Exception {
+        //Given two lectures and two labs of 25 seats each, and 400 students racing from 16 threads for the four lecture-lab blocks
+        Section[] lectures = {
+                new Section("L1", DEFAULT_SCHEDULE, new Room("R1", 25), CCPROG1),
+                new Section("L2", new Schedule(MTH, new Period(1000, 1130)), new Room("R2", 25), CCPROG1)};
+        Section[] labs = {
+                new Section("B1", new Schedule(TF, new Period(830, 1000)), new Room("R3", 25), LBYPROG),
+                new Section("B2", new Schedule(TF, new Period(1000, 1130)), new Room("R4", 25), LBYPROG)};
+        List<Student> students = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 1; i <= 400; i++) {
+            Student student = new Student(i, Collections.emptyList(), DEFAULT_PROGRAM);
+            students.add(student);
+            // half the students list the lab first, so blocks overlap in both directions
+            List<Section> block = i % 2 == 0 ? List.of(lectures[i % 4 / 2], labs[i % 3 % 2]) : List.of(labs[i % 3 % 2], lectures[i % 4 / 2]);
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    student.enlistBlock(block);
+                } catch (CapacityReachedException e) {
+                    // lost the race
+                }
+                return null;
+            }));
+        }
+
+        //When they all start at once
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //Then every student holds a whole block or nothing, and every seat taken belongs to an enlisted student
+        Map<Section, Integer> holders = new HashMap<>();
+        for (Student student : students) {
+            Collection<Section> held = student.getSections();
+            assertTrue(held.isEmpty() || held.size() == 2, student + " holds part of a block: " + held);
+            held.forEach(section -> holders.merge(section, 1, Integer::sum));
+        }
+        for (Section section : List.of(lectures[0], lectures[1], labs[0], labs[1])) {
+            assertEquals(holders.getOrDefault(section, 0).intValue(), section.getNumStudents());
+            assertTrue(section.getNumStudents() <= 25);
+        }
+        assertTrue(holders.values().stream().mapToInt(Integer::intValue).sum() > 0);
+    }
+
+    @Test
+    public void overlapping_starting_sections_are_rejected(){
+        //Given two sections of overlapping schedules
+        Section sec1 = new Section("A", DEFAULT_SCHEDULE, new Room("A1", 2), CCPROG1);
+        Section sec2 = new Section("B", new Schedule(MTH, new Period(900, 1030)), new Room("A2", 2), MTH101A);
+
+        //When a student is created already enlisted in both
+        //Then it is refused, as enlisting in the second would have been
+        assertThrows(IllegalArgumentException.class, () -> new Student(1, List.of(sec1, sec2), DEFAULT_PROGRAM));
+    }
+
+    @Test
+    public void cancel_frees_only_the_cancelled_sections_slots(){
+        //Given a student starting with two sections on the same days
+        Section sec1 = new Section("A", DEFAULT_SCHEDULE, new Room("A1", 2), CCPROG1);
+        Section sec2 = new Section("B", new Schedule(MTH, new Period(1000, 1130)), new Room("A2", 2), MTH101A);
+        sec1.restoreSeat();
+        sec2.restoreSeat();
+        Student student = new Student(1, List.of(sec1, sec2), DEFAULT_PROGRAM);
+
+        //When one of them is cancelled
+        student.cancelEnlistedSection(sec1);
+
+        //Then its slots are free again and the other's still count for conflicts
+        assertAll(
+                () -> assertEquals(sec2.getOccupancy(), student.getOccupancy()),
+                () -> assertThrows(ScheduleConflictException.class, () -> student.enlist(new Section("C", new Schedule(MTH, new Period(1000, 1130)), new Room("A3", 2), CSARCH2)))
+        );
+    }
 }
@@ -0,0 +1,73 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SubjectCatalogTest {
+
+    @Test
+    public void each_catalog_numbers_its_subjects_from_zero(){
+        //Given two catalogs defining their subjects in different orders
+        SubjectCatalog first = new SubjectCatalog();
+        SubjectCatalog second = new SubjectCatalog();
+        Subject prog = first.subject("CTLPROG1", 3);
+        Subject math = first.subject("CTLMTH1", 3);
+        Subject otherMath = second.subject("CTLMTH1", 3);
+
+        //Then ids depend only on the catalog the subject was defined in
+        assertAll(
+                () -> assertEquals(0, prog.getId()),
+                () -> assertEquals(1, math.getId()),
+                () -> assertEquals(0, otherMath.getId()),
+                () -> assertEquals(2, first.size()),
+                () -> assertEquals(1, second.size())
+        );
+    }
+
+    @Test
+    public void subject_defined_again_is_the_same_instance(){
+        //Given a catalog with a subject and its prerequisite
+        SubjectCatalog catalog = new SubjectCatalog();
+        Subject prog1 = catalog.subject("CTLPROG1", 3);
+        Subject prog2 = catalog.subject("CTLPROG2", 3, List.of(prog1), false);
+
+        //When they are defined again the same way
+        //Then the catalog hands back the subjects it already has
+        assertAll(
+                () -> assertSame(prog1, catalog.subject("CTLPROG1", 3)),
+                () -> assertSame(prog2, catalog.subject("CTLPROG2", 3, List.of(prog1), false)),
+                () -> assertSame(prog2, catalog.find("CTLPROG2").orElseThrow()),
+                () -> assertFalse(catalog.find("CTLPROG3").isPresent())
+        );
+    }
+
+    @Test
+    public void subject_defined_again_differently_is_rejected(){
+        SubjectCatalog catalog = new SubjectCatalog();
+        catalog.subject("CTLPROG1", 3);
+        assertThrows(IllegalArgumentException.class, () -> catalog.subject("CTLPROG1", 4));
+    }
+
+    @Test
+    public void subject_sets_keep_to_one_catalog(){
+        //Given the same subjectID defined in two catalogs
+        SubjectCatalog first = new SubjectCatalog();
+        SubjectCatalog second = new SubjectCatalog();
+        SubjectSet subjects = new SubjectSet(List.of(first.subject("CTLPROG1", 3)));
+        Subject other = second.subject("CTLPROG1", 3);
+        Subject unknown = second.subject("CTLMTH1", 3);
+
+        //Then a set from one catalog finds the other's subject by subjectID but does not take it
+        assertAll(
+                () -> assertTrue(subjects.contains(other)),
+                () -> assertTrue(subjects.containsAll(new SubjectSet(List.of(other)))),
+                () -> assertFalse(subjects.contains(unknown)),
+                () -> assertThrows(IllegalArgumentException.class, () -> subjects.add(other)),
+                () -> assertThrows(IllegalArgumentException.class, () -> subjects.addAll(new SubjectSet(List.of(unknown)))),
+                () -> assertThrows(IllegalArgumentException.class, () -> second.subject("CTLPROG2", 3, subjects, false))
+        );
+    }
+}
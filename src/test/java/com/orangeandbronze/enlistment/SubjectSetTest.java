@@ -0,0 +1,99 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SubjectSetTest {
+    static final Subject CCPROG1 = new Subject("CCPROG1", 3);
+    static final Subject MTH101A = new Subject("MTH101A", 3);
+    static final Subject CSARCH2 = new Subject("CSARCH2", 3);
+
+    @Test
+    public void same_subject_id_same_id(){
+        //Given two subjects constructed with the same subjectID
+        Subject copy = new Subject("CCPROG1", 3);
+        //Then they are numbered the same
+        assertAll(
+                () -> assertEquals(CCPROG1.getId(), copy.getId()),
+                () -> assertNotEquals(CCPROG1.getId(), MTH101A.getId())
+        );
+    }
+
+    @Test
+    public void iteration_returns_the_subjects_added(){
+        //Given a subjectID defined again with other units, a lab flag and a prerequisite
+        Subject redefined = new Subject("CCPROG1", 4, List.of(CSARCH2), true);
+
+        //When a program is built from the new definition
+        DegreeProgram program = new DegreeProgram("CCS", List.of(MTH101A, redefined));
+        Subject listed = program.getSubjects().stream().filter(redefined::equals).findFirst().orElseThrow();
+
+        //Then the program hands back that definition, not the first one built for the ID
+        assertAll(
+                () -> assertSame(redefined, listed),
+                () -> assertEquals(4, listed.getUnits()),
+                () -> assertTrue(listed.isLab()),
+                () -> assertEquals(List.of(CSARCH2), new ArrayList<>(listed.getPrerequisites())),
+                () -> assertFalse(program.getPrerequisiteGraph().hasTakenPrerequisites(listed, new SubjectSet()))
+        );
+    }
+
+    @Test
+    public void add_all_and_iterator_remove_keep_id_order(){
+        //Given two sets built in different orders
+        SubjectSet first = new SubjectSet(List.of(CSARCH2, CCPROG1));
+        SubjectSet second = new SubjectSet(List.of(MTH101A, CCPROG1));
+
+        //When one is merged into the other and a subject removed while iterating
+        first.addAll(second);
+        for (Iterator<Subject> subjects = first.iterator(); subjects.hasNext(); ) {
+            if (subjects.next().equals(MTH101A)) {
+                subjects.remove();
+            }
+        }
+
+        //Then the rest are still there, in id order
+        List<Subject> expected = new ArrayList<>(List.of(CCPROG1, CSARCH2));
+        expected.sort(Comparator.comparingInt(Subject::getId));
+        assertEquals(expected, new ArrayList<>(first));
+    }
+
+    @Test
+    public void add_contains_remove(){
+        SubjectSet subjects = new SubjectSet(List.of(CCPROG1, MTH101A));
+        assertAll(
+                () -> assertTrue(subjects.contains(new Subject("CCPROG1", 3))),
+                () -> assertFalse(subjects.contains(CSARCH2)),
+                () -> assertFalse(subjects.add(CCPROG1)),
+                () -> assertEquals(2, subjects.size()),
+                () -> assertEquals(new HashSet<>(List.of(CCPROG1, MTH101A)), subjects)
+        );
+        subjects.remove(CCPROG1);
+        assertEquals(Set.of(MTH101A), new HashSet<>(subjects));
+    }
+
+    @Test
+    public void contains_all_subject_set(){
+        SubjectSet taken = new SubjectSet(List.of(CCPROG1, MTH101A, CSARCH2));
+        assertAll(
+                () -> assertTrue(taken.containsAll(new SubjectSet(List.of(CCPROG1, CSARCH2)))),
+                () -> assertTrue(taken.containsAll(new SubjectSet())),
+                () -> assertFalse(new SubjectSet(List.of(CCPROG1)).containsAll(taken))
+        );
+    }
+
+    @Test
+    public void degree_program_equality(){
+        DegreeProgram program = new DegreeProgram("CCS", List.of(CCPROG1, MTH101A));
+        DegreeProgram same = new DegreeProgram("CCS", List.of(MTH101A, new Subject("CCPROG1", 3)));
+        DegreeProgram other = new DegreeProgram("CCS", List.of(CCPROG1));
+        assertAll(
+                () -> assertEquals(program, same),
+                () -> assertEquals(program.hashCode(), same.hashCode()),
+                () -> assertNotEquals(program, other)
+        );
+    }
+}
@@ -0,0 +1,97 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.*;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimetableGeneratorTest {
+    static final Subject CCPROG1 = new Subject("CCPROG1", 3);
+    static final Subject MTH101A = new Subject("MTH101A", 3);
+    static final Subject CSARCH2 = new Subject("CSARCH2", 3);
+    static final Subject CCPROG2 = new Subject("CCPROG2", 3, List.of(CCPROG1), false);
+    static final DegreeProgram PROGRAM = new DegreeProgram("CCS", List.of(CCPROG1, MTH101A, CSARCH2, CCPROG2));
+
+    @Test
+    public void best_timetable_covers_every_subject_without_conflicts(){
+        //Given 3 subjects whose roomiest sections all meet on MTH 0830-1000
+        Section prog1Roomy = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 50), CCPROG1);
+        Section prog1 = new Section("B", new Schedule(TF, new Period(830, 1000)), new Room("B1", 20), CCPROG1);
+        Section mathRoomy = new Section("C", new Schedule(MTH, new Period(830, 1000)), new Room("C1", 60), MTH101A);
+        Section math = new Section("D", new Schedule(WS, new Period(830, 1000)), new Room("D1", 10), MTH101A);
+        Section arch = new Section("E", new Schedule(MTH, new Period(900, 1030)), new Room("E1", 30), CSARCH2);
+        TimetableGenerator generator = new TimetableGenerator(List.of(prog1Roomy, prog1, mathRoomy, math, arch), 4);
+        Student student = new Student(1, Collections.emptyList(), PROGRAM);
+
+        //When the top 2 timetables are generated
+        List<Timetable> timetables = generator.generate(student, List.of(CCPROG1, MTH101A, CSARCH2), 2, Duration.ofSeconds(5));
+
+        //Then the best is the only one covering all 3 subjects, and the next is the roomiest that drops a subject
+        assertAll(
+                () -> assertEquals(2, timetables.size()),
+                () -> assertEquals(Set.of(prog1, math, arch), new HashSet<>(timetables.get(0).getSections())),
+                () -> assertTrue(timetables.get(0).isComplete()),
+                () -> assertEquals(20 + 10 + 30, timetables.get(0).getRemainingSeats()),
+                () -> assertEquals(Set.of(prog1, mathRoomy), new HashSet<>(timetables.get(1).getSections())),
+                () -> assertEquals(List.of(CSARCH2), timetables.get(1).getMissingSubjects())
+        );
+    }
+
+    @Test
+    public void subjects_that_cannot_be_taken_are_missing(){
+        //Given a subject whose pre-requisite is missing, and sections of 9-unit subjects that exceed the unit limit together
+        Subject big1 = new Subject("BIG1", 9);
+        Subject big2 = new Subject("BIG2", 9);
+        Subject big3 = new Subject("BIG3", 9);
+        DegreeProgram program = new DegreeProgram("BIG", List.of(big1, big2, big3, CCPROG1, CCPROG2));
+        List<Section> sections = List.of(
+                new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 10), big1),
+                new Section("B", new Schedule(TF, new Period(830, 1000)), new Room("B1", 20), big2),
+                new Section("C", new Schedule(WS, new Period(830, 1000)), new Room("C1", 30), big3),
+                new Section("D", new Schedule(WS, new Period(1300, 1430)), new Room("D1", 30), CCPROG2));
+        Student student = new Student(1, Collections.emptyList(), program);
+
+        //When the best timetable is generated
+        Timetable best = new TimetableGenerator(sections, 2).generate(student, List.of(big1, big2, big3, CCPROG2), 1, Duration.ofSeconds(5)).get(0);
+
+        //Then only 2 of the 9-unit subjects fit in 24 units and the subject without its pre-requisite is missing
+        assertAll(
+                () -> assertEquals(2, best.getSections().size()),
+                () -> assertEquals(Set.of(big1, CCPROG2), new HashSet<>(best.getMissingSubjects()))
+        );
+    }
+
+    @Test
+    public void large_search_honours_time_budget(){
+        //Given 8 subjects with 24 sections each spread over every schedule slot
+        int[][] periods = {{830, 1000}, {1000, 1130}, {1130, 1300}, {1300, 1430}, {1430, 1600}, {1600, 1730}};
+        List<Subject> subjects = new ArrayList<>();
+        List<Section> sections = new ArrayList<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 8; i++) {
+            Subject subject = new Subject("GEN" + i, 3);
+            subjects.add(subject);
+            for (int j = 0; j < 24; j++) {
+                int slot = random.nextInt(18);
+                int[] period = periods[slot / 3];
+                sections.add(new Section("GEN" + i + "x" + j, new Schedule(Days.values()[slot % 3], new Period(period[0], period[1])), new Room("GEN" + i + "x" + j, 1 + random.nextInt(50)), subject));
+            }
+        }
+        Student student = new Student(1, Collections.emptyList(), new DegreeProgram("GEN", subjects));
+
+        //When the generator is given 200 milliseconds
+        long start = System.nanoTime();
+        List<Timetable> timetables = new TimetableGenerator(sections, 4).generate(student, subjects, 5, Duration.ofMillis(200));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        //Then it returns the best found so far, all conflict-free, shortly after the budget
+        assertAll(
+                () -> assertTrue(elapsedMillis < 2000, "took " + elapsedMillis + "ms"),
+                () -> assertFalse(timetables.isEmpty()),
+                () -> timetables.forEach(timetable -> assertTrue(student.validateCart(timetable.getSections()).isValid()))
+        );
+    }
+}
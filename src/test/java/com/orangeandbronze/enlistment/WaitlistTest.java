@@ -0,0 +1,267 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.exceptions.*;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.orangeandbronze.enlistment.Days.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WaitlistTest {
+    static final Subject CCPROG1 = new Subject("CCPROG1", 3);
+    static final Subject MTH101A = new Subject("MTH101A", 3);
+    static final Subject CCPROG2 = new Subject("CCPROG2", 3, List.of(CCPROG1), false);
+    static final DegreeProgram PROGRAM = new DegreeProgram("CCS", List.of(CCPROG1, MTH101A, CCPROG2));
+
+    // runs an action on the given seat change of the section, counting from 1
+    private static EnlistmentListener onSeatChange(Section section, int change, Runnable action){
+        int[] changes = {0};
+        return new EnlistmentListener() {
+            @Override
+            public void seatsChanged(Section changed) {
+                if (changed == section && ++changes[0] == change) {
+                    action.run();
+                }
+            }
+        };
+    }
+
+    @Test
+    public void drop_promotes_first_in_line(){
+        //Given a full section with 2 students waitlisted
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 1), CCPROG1);
+        Student enlisted = new Student(1, Collections.emptyList(), PROGRAM);
+        Student first = new Student(2, Collections.emptyList(), PROGRAM);
+        Student second = new Student(3, Collections.emptyList(), PROGRAM);
+        enlisted.enlist(sec1);
+        first.joinWaitlist(sec1);
+        second.joinWaitlist(sec1);
+
+        //When the enlisted student drops
+        enlisted.cancelEnlistedSection(sec1);
+
+        //Then the first waitlisted student takes the seat
+        assertAll(
+                () -> assertTrue(first.getSections().contains(sec1)),
+                () -> assertEquals(List.of(second), sec1.getWaitlist()),
+                () -> assertEquals(1, sec1.getNumStudents())
+        );
+    }
+
+    @Test
+    public void ineligible_student_is_skipped(){
+        //Given a full section whose first waitlisted student has since enlisted in a conflicting section
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 1), CCPROG1);
+        Section conflicting = new Section("B", new Schedule(MTH, new Period(900, 1030)), new Room("A2", 5), MTH101A);
+        Student enlisted = new Student(1, Collections.emptyList(), PROGRAM);
+        Student first = new Student(2, Collections.emptyList(), PROGRAM);
+        Student second = new Student(3, Collections.emptyList(), PROGRAM);
+        enlisted.enlist(sec1);
+        first.joinWaitlist(sec1);
+        second.joinWaitlist(sec1);
+        first.enlist(conflicting);
+
+        //When the enlisted student drops
+        enlisted.cancelEnlistedSection(sec1);
+
+        //Then the promotion never creates a conflict: the second student gets the seat instead
+        assertAll(
+                () -> assertEquals(List.of(conflicting), new ArrayList<>(first.getSections())),
+                () -> assertTrue(second.getSections().contains(sec1)),
+                () -> assertTrue(sec1.getWaitlist().isEmpty())
+        );
+    }
+
+    @Test
+    public void waitlist_is_bounded(){
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 1), CCPROG1, 1);
+        new Student(1, Collections.emptyList(), PROGRAM).enlist(sec1);
+        new Student(2, Collections.emptyList(), PROGRAM).joinWaitlist(sec1);
+        Student late = new Student(3, Collections.emptyList(), PROGRAM);
+        assertThrows(WaitlistFullException.class, () -> late.joinWaitlist(sec1));
+    }
+
+    @Test
+    public void concurrent_drops_promote_in_order() throws Exception {
+        //Given a full section of 20 and 100 students waitlisted
+        int capacity = 20;
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", capacity), CCPROG1, 100);
+        List<Student> enlisted = new ArrayList<>();
+        for (int number = 1; number <= capacity; number++) {
+            Student student = new Student(number, Collections.emptyList(), PROGRAM);
+            student.enlist(sec1);
+            enlisted.add(student);
+        }
+        List<Student> waitlisted = new ArrayList<>();
+        for (int number = 1000; number < 1100; number++) {
+            Student student = new Student(number, Collections.emptyList(), PROGRAM);
+            student.joinWaitlist(sec1);
+            waitlisted.add(student);
+        }
+
+        //When all enlisted students drop at once from 8 threads
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> drops = new ArrayList<>();
+        for (Student student : enlisted) {
+            drops.add(executor.submit(() -> {
+                start.await();
+                student.cancelEnlistedSection(sec1);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> drop : drops) {
+            drop.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //Then exactly the first 20 in line are promoted, each once, and the room is never overbooked
+        List<Student> promoted = new ArrayList<>();
+        for (Student student : waitlisted) {
+            if (student.getSections().contains(sec1)) {
+                promoted.add(student);
+            }
+        }
+        assertAll(
+                () -> assertEquals(waitlisted.subList(0, capacity), promoted),
+                () -> assertEquals(waitlisted.subList(capacity, waitlisted.size()), sec1.getWaitlist()),
+                () -> assertEquals(capacity, sec1.getNumStudents())
+        );
+    }
+
+    @Test
+    public void seat_given_back_by_a_failed_enlistment_goes_to_the_waitlist(){
+        //Given a one-seat section whose seat is held by an enlistment that will fail its prerequisite check,
+        //and a student who joins the waitlist while the seat is held
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 1), CCPROG2);
+        Student failing = new Student(1, Collections.emptyList(), PROGRAM);
+        Student waiting = new Student(2, Collections.emptyList(), PROGRAM);
+        waiting.addTakenSubjects(CCPROG1);
+        EnlistmentListener joinWhileHeld = onSeatChange(sec1, 1, () -> waiting.joinWaitlist(sec1));
+        EnlistmentListeners.add(joinWhileHeld);
+
+        //When the failing enlistment gives the seat back
+        try {
+            assertThrows(NotTakenPreRequisiteException.class, () -> failing.enlist(sec1));
+        } finally {
+            EnlistmentListeners.remove(joinWhileHeld);
+        }
+
+        //Then the waiting student is promoted into it
+        assertAll(
+                () -> assertTrue(waiting.getSections().contains(sec1)),
+                () -> assertTrue(sec1.getWaitlist().isEmpty()),
+                () -> assertEquals(1, sec1.getNumStudents())
+        );
+    }
+
+    @Test
+    public void walk_in_cannot_take_a_seat_ahead_of_the_waitlist(){
+        //Given a freed seat in a section with a student waiting for it
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 1), CCPROG2);
+        Student failing = new Student(1, Collections.emptyList(), PROGRAM);
+        Student waiting = new Student(2, Collections.emptyList(), PROGRAM);
+        Student walkIn = new Student(3, Collections.emptyList(), PROGRAM);
+        waiting.addTakenSubjects(CCPROG1);
+        walkIn.addTakenSubjects(CCPROG1);
+        List<RuntimeException> walkInResult = new ArrayList<>();
+        EnlistmentListener join = onSeatChange(sec1, 1, () -> waiting.joinWaitlist(sec1));
+        // the moment the seat is given back, before anyone has promoted
+        EnlistmentListener walkInOnRelease = onSeatChange(sec1, 2, () -> {
+            try {
+                walkIn.enlist(sec1);
+            } catch (RuntimeException e) {
+                walkInResult.add(e);
+            }
+        });
+        EnlistmentListeners.add(join);
+        EnlistmentListeners.add(walkInOnRelease);
+
+        //When a walk-in tries to enlist in it
+        try {
+            assertThrows(NotTakenPreRequisiteException.class, () -> failing.enlist(sec1));
+        } finally {
+            EnlistmentListeners.remove(join);
+            EnlistmentListeners.remove(walkInOnRelease);
+        }
+
+        //Then the walk-in is turned away and the waiting student gets the seat
+        assertAll(
+                () -> assertEquals(1, walkInResult.size()),
+                () -> assertTrue(walkInResult.get(0) instanceof CapacityReachedException),
+                () -> assertTrue(walkIn.getSections().isEmpty()),
+                () -> assertTrue(waiting.getSections().contains(sec1))
+        );
+    }
+
+    @Test
+    public void seat_held_for_the_waitlist_is_not_offered_to_a_walk_in(){
+        //Given a freed seat in a section with a student waiting for it
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 1), CCPROG2);
+        Student failing = new Student(1, Collections.emptyList(), PROGRAM);
+        Student waiting = new Student(2, Collections.emptyList(), PROGRAM);
+        Student walkIn = new Student(3, Collections.emptyList(), PROGRAM);
+        waiting.addTakenSubjects(CCPROG1);
+        walkIn.addTakenSubjects(CCPROG1);
+        SectionSearchIndex index = new SectionSearchIndex(List.of(sec1));
+        List<CartValidation> walkInCarts = new ArrayList<>();
+        List<List<Section>> walkInSearches = new ArrayList<>();
+        List<List<Section>> waitingSearches = new ArrayList<>();
+        EnlistmentListener join = onSeatChange(sec1, 1, () -> waiting.joinWaitlist(sec1));
+        // the moment the seat is given back, before anyone has promoted
+        EnlistmentListener lookOnRelease = onSeatChange(sec1, 2, () -> {
+            walkInCarts.add(walkIn.validateCart(List.of(sec1)));
+            walkInSearches.add(index.findFitting(walkIn, CCPROG2));
+            waitingSearches.add(index.findFitting(waiting, CCPROG2));
+        });
+        EnlistmentListeners.add(join);
+        EnlistmentListeners.add(lookOnRelease);
+
+        //When the walk-in validates a cart with it and searches for the subject
+        try {
+            assertThrows(NotTakenPreRequisiteException.class, () -> failing.enlist(sec1));
+        } finally {
+            EnlistmentListeners.remove(join);
+            EnlistmentListeners.remove(lookOnRelease);
+        }
+
+        //Then the seat is reported taken and left out of the walk-in's search, as enlist would reject it
+        assertAll(
+                () -> assertEquals(EnumSet.of(Violation.CAPACITY_REACHED), walkInCarts.get(0).getViolations(sec1)),
+                () -> assertTrue(walkInSearches.get(0).isEmpty()),
+                () -> assertEquals(List.of(sec1), waitingSearches.get(0)),
+                () -> assertTrue(waiting.getSections().contains(sec1))
+        );
+    }
+
+    @Test
+    public void racing_joins_queue_a_student_once() throws Exception {
+        //Given a full section
+        Section sec1 = new Section("A", new Schedule(MTH, new Period(830, 1000)), new Room("A1", 1), CCPROG1);
+        new Student(1, Collections.emptyList(), PROGRAM).enlist(sec1);
+        Student student = new Student(2, Collections.emptyList(), PROGRAM);
+
+        //When one student joins its waitlist from 8 threads at once
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> joins = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            joins.add(executor.submit(() -> {
+                start.await();
+                sec1.joinWaitlist(student);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> join : joins) {
+            join.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //Then the student is queued once
+        assertEquals(List.of(student), sec1.getWaitlist());
+    }
+}
@@ -0,0 +1,97 @@
+package com.orangeandbronze.enlistment;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeekMaskTest {
+
+    @Test
+    public void range_across_word_boundaries(){
+        //Given Sunday evening to midnight and a Monday range crossing the first word boundary
+        WeekMask sunday = WeekMask.of(EnumSet.of(DayOfWeek.SUNDAY), Period.toSlot(2200), Period.toSlot(2400));
+        WeekMask monday = WeekMask.of(EnumSet.of(DayOfWeek.MONDAY), 60, 70);
+
+        //When their slots are counted and looked up
+        //Then exactly the slots in range are set, the last of the week included
+        assertAll(
+                () -> assertEquals(24, sunday.cardinality()),
+                () -> assertTrue(sunday.contains(WeekMask.SLOTS - 1)),
+                () -> assertFalse(sunday.contains(WeekMask.slotOf(DayOfWeek.SUNDAY, Period.toSlot(2155)))),
+                () -> assertEquals(10, monday.cardinality()),
+                () -> assertTrue(monday.contains(63) && monday.contains(64) && monday.contains(69)),
+                () -> assertFalse(monday.contains(59) || monday.contains(70)),
+                () -> assertFalse(monday.intersects(sunday)),
+                () -> assertEquals("MONDAY 0500-0550", monday.toString()),
+                () -> assertEquals("SUNDAY 2200-2400", sunday.toString())
+        );
+    }
+
+    @Test
+    public void union_and_minus(){
+        //Given an MTH morning and a Monday evening
+        WeekMask mth = WeekMask.of(Days.MTH.getWeekdays(), Period.toSlot(830), Period.toSlot(1000));
+        WeekMask evening = WeekMask.of(EnumSet.of(DayOfWeek.MONDAY), Period.toSlot(1800), Period.toSlot(2100));
+
+        //When they are combined and taken apart again
+        WeekMask both = mth.union(evening);
+
+        //Then nothing is lost or left behind
+        assertAll(
+                () -> assertEquals(mth.cardinality() + evening.cardinality(), both.cardinality()),
+                () -> assertEquals(mth, both.minus(evening)),
+                () -> assertEquals(WeekMask.EMPTY, both.minus(mth).minus(evening)),
+                () -> assertTrue(both.minus(both).isEmpty())
+        );
+    }
+
+    @Test
+    public void matches_bit_set_for_random_masks(){
+        //Given random masks and the same slots in a BitSet
+        Random random = new Random(24);
+        for (int round = 0; round < 2_000; round++) {
+            WeekMask a = randomMask(random);
+            WeekMask b = randomMask(random);
+
+            //When they are combined
+            //Then every operation agrees with the BitSet
+            BitSet bitsA = toBitSet(a);
+            BitSet bitsB = toBitSet(b);
+            BitSet union = (BitSet) bitsA.clone();
+            union.or(bitsB);
+            BitSet minus = (BitSet) bitsA.clone();
+            minus.andNot(bitsB);
+            assertEquals(bitsA.intersects(bitsB), a.intersects(b));
+            assertEquals(union, toBitSet(a.union(b)));
+            assertEquals(minus, toBitSet(a.minus(b)));
+            assertEquals(bitsA.cardinality(), a.cardinality());
+            assertEquals(a.union(b), b.union(a));
+        }
+    }
+
+    private static WeekMask randomMask(Random random){
+        WeekMask mask = WeekMask.EMPTY;
+        for (int runs = random.nextInt(4); runs > 0; runs--) {
+            Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+            days.add(DayOfWeek.of(1 + random.nextInt(7)));
+            days.add(DayOfWeek.of(1 + random.nextInt(7)));
+            int from = random.nextInt(WeekMask.SLOTS_PER_DAY);
+            int to = from + 1 + random.nextInt(WeekMask.SLOTS_PER_DAY - from);
+            mask = mask.union(WeekMask.of(days, from, to));
+        }
+        return mask;
+    }
+
+    private static BitSet toBitSet(WeekMask mask){
+        BitSet bits = new BitSet(WeekMask.SLOTS);
+        for (int slot = 0; slot < WeekMask.SLOTS; slot++) {
+            if (mask.contains(slot)) {
+                bits.set(slot);
+            }
+        }
+        return bits;
+    }
+}